@@ -3,10 +3,16 @@ package com.amigoscode.auth;
 import com.amigoscode.customer.Customer;
 import com.amigoscode.customer.CustomerDTO;
 import com.amigoscode.customer.CustomerDTOMapper;
+import com.amigoscode.customer.CustomerUserDetailsService;
+import com.amigoscode.exception.RequestValidationException;
 import com.amigoscode.jwt.JWTUtil;
+import com.amigoscode.jwt.TokenDenylist;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -14,14 +20,23 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final CustomerDTOMapper customerDTOMapper;
     private final JWTUtil jwtUtil;
+    private final CustomerUserDetailsService userDetailsService;
+    private final TokenDenylist tokenDenylist;
 
-    public AuthenticationService(AuthenticationManager authenticationManager, CustomerDTOMapper customerDTOMapper, JWTUtil jwtUtil) {
+    public AuthenticationService(AuthenticationManager authenticationManager, CustomerDTOMapper customerDTOMapper, JWTUtil jwtUtil, CustomerUserDetailsService userDetailsService, TokenDenylist tokenDenylist) {
         this.authenticationManager = authenticationManager;
         this.customerDTOMapper = customerDTOMapper;
         this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenDenylist = tokenDenylist;
     }
 
     public AuthenticationResponse login(AuthenticationRequest request){
+        // no point in paying for a password check that can not succeed
+        if(request.username() == null || request.username().isBlank()
+                || request.password() == null || request.password().isEmpty()){
+            throw new BadCredentialsException("Bad credentials");
+        }
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.username(),
@@ -29,8 +44,37 @@ public class AuthenticationService {
                 )
         );
         Customer principal = (Customer) authentication.getPrincipal();
-        CustomerDTO customerDTO = customerDTOMapper.apply(principal);
-        String jwtToken = jwtUtil.issueToken(customerDTO.username(), customerDTO.roles());
+        return issueToken(principal);
+    }
+
+    /**
+     * Re-reads the customer behind a still valid token and issues a fresh token with
+     * up to date claims. This is the only point where a token holder hits the database.
+     */
+    public AuthenticationResponse refresh(String username){
+        Customer customer;
+        try {
+            customer = (Customer) userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Customer " + username + " no longer exists");
+        }
+        return issueToken(customer);
+    }
+
+    /**
+     * Revokes the token on every node until it expires.
+     */
+    public void logout(String token){
+        Claims claims = jwtUtil.getClaims(token);
+        if(claims.getId() == null){
+            throw new RequestValidationException("Token has no id and can not be revoked");
+        }
+        tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    private AuthenticationResponse issueToken(Customer customer){
+        CustomerDTO customerDTO = customerDTOMapper.apply(customer);
+        String jwtToken = jwtUtil.issueToken(customerDTO.username(), customerDTO.id(), customerDTO.roles());
         return new AuthenticationResponse(jwtToken, customerDTO);
     }
 }
@@ -5,8 +5,10 @@ import com.amigoscode.auth.AuthenticationResponse;
 import com.amigoscode.auth.AuthenticationService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -26,4 +28,18 @@ public class AuthenticationController {
                 .header(HttpHeaders.AUTHORIZATION, response.token())
                 .body(response);
     }
+
+    @PostMapping("refresh")
+    public ResponseEntity<?> refresh(Authentication authentication){
+        AuthenticationResponse response = authenticationService.refresh(authentication.getName());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AUTHORIZATION, response.token())
+                .body(response);
+    }
+
+    @PostMapping("logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization){
+        authenticationService.logout(authorization.substring("Bearer ".length()));
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,244 @@
+package com.amigoscode.customer;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of another {@link CustomerDAO}. Lookups by id and by email are
+ * served from size-bounded Caffeine caches (W-TinyLFU eviction); misses are cached too, for a
+ * shorter time. Writes go to the delegate first and then invalidate the affected entries.
+ * <p>
+ * The email cache only maps an email to a customer id. The customer itself always comes from
+ * the id cache and is checked against the email, so an email that changed owner is never served.
+ * Cached customers are copied on the way out, as callers mutate the entities they get.
+ * <p>
+ * Misses are loaded by the calling thread outside of the cache's locks; see {@link #load}.
+ */
+@Repository("cached")
+public class CachingCustomerDAO implements CustomerDAO {
+
+    private final CustomerDAO delegate;
+    private final AsyncCache<Integer, Optional<Customer>> customersById;
+    private final AsyncCache<String, Optional<Integer>> customerIdsByEmail;
+
+    public CachingCustomerDAO(@Qualifier("jpa") CustomerDAO delegate,
+                              CustomerCacheProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.customersById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(CachingCustomerDAO.<Integer, Customer>expiry(properties.getTtl(), properties.getNegativeTtl()))
+                .recordStats()
+                .buildAsync();
+        this.customerIdsByEmail = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(CachingCustomerDAO.<String, Integer>expiry(properties.getTtl(), properties.getNegativeTtl()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, customersById.synchronous(), "customers.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, customerIdsByEmail.synchronous(), "customers.by-email");
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return delegate.selectAllCustomers();
+    }
+
+    @Override
+    public List<CustomerDTO> selectCustomerDTOsAfter(Integer lastCustomerId, int limit) {
+        return delegate.selectCustomerDTOsAfter(lastCustomerId, limit);
+    }
+
+    @Override
+    public List<CustomerDTO> selectCustomerDTOs(CustomerFilter filter, CustomerSort sort, CustomerCursor after, int limit) {
+        return delegate.selectCustomerDTOs(filter, sort, after, limit);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer customerId) {
+        return cachedCustomer(customerId).map(CachingCustomerDAO::copy);
+    }
+
+    @Override
+    public Optional<CustomerDTO> selectCustomerDTOById(Integer customerId) {
+        return cachedCustomer(customerId).map(customer -> new CustomerDTO(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getGender(),
+                customer.getAge(),
+                customer.getProfileImageId()
+        ));
+    }
+
+    @Override
+    public List<CustomerDTO> searchCustomers(String query, int limit) {
+        return delegate.searchCustomers(query, limit);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        delegate.insertCustomer(customer);
+        evict(customer.getId(), customer.getEmail());
+    }
+
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        delegate.insertCustomers(customers);
+        customers.forEach(customer -> evict(customer.getId(), customer.getEmail()));
+    }
+
+    @Override
+    public void updateCustomer(Customer update) {
+        delegate.updateCustomer(update);
+        evict(update.getId(), update.getEmail());
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        // uniqueness checks stay authoritative
+        return delegate.existsPersonWithEmail(email);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return delegate.selectExistingEmails(emails);
+    }
+
+    @Override
+    public boolean existsPersonWithId(Integer customerId) {
+        return cachedCustomer(customerId).isPresent();
+    }
+
+    @Override
+    public void deleteCustomerById(Integer customerId) {
+        delegate.deleteCustomerById(customerId);
+        evict(customerId, null);
+    }
+
+    @Override
+    public Optional<Customer> selectUserByEmail(String email) {
+        Optional<Integer> customerId = load(
+                customerIdsByEmail,
+                email,
+                key -> delegate.selectUserByEmail(key).map(Customer::getId)
+        );
+        if (customerId.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Customer> customer = cachedCustomer(customerId.get());
+        if (customer.isPresent() && email.equals(customer.get().getEmail())) {
+            return customer.map(CachingCustomerDAO::copy);
+        }
+        // the customer changed email or was deleted since the mapping was cached
+        customerIdsByEmail.synchronous().invalidate(email);
+        return delegate.selectUserByEmail(email);
+    }
+
+    @Override
+    public void updateCustomerProfileImageId(String profileImageId, Integer customerId) {
+        delegate.updateCustomerProfileImageId(profileImageId, customerId);
+        evict(customerId, null);
+    }
+
+    @Override
+    public void updateCustomerPassword(Integer customerId, String password) {
+        delegate.updateCustomerPassword(customerId, password);
+        evict(customerId, null);
+    }
+
+    private Optional<Customer> cachedCustomer(Integer customerId) {
+        return load(customersById, customerId, delegate::selectCustomerById);
+    }
+
+    /**
+     * A synchronous Caffeine cache runs the loader inside {@code ConcurrentHashMap.compute},
+     * holding a monitor for the whole query, which pins a virtual thread to its carrier. Here
+     * only an empty future is inserted under the lock; the caller that inserted it runs the
+     * query and concurrent callers for the same key wait on the future.
+     */
+    private static <K, V> V load(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> cached = cache.get(key, (k, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException e) {
+                // failed loads are dropped from the cache
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops what is cached for a customer and, if given, for an email.
+     */
+    public void evict(Integer customerId, String email) {
+        if (customerId != null) {
+            customersById.synchronous().invalidate(customerId);
+        }
+        if (email != null) {
+            // also drops a cached miss for an email that now exists
+            customerIdsByEmail.synchronous().invalidate(email);
+        }
+    }
+
+    public void evictAll() {
+        customersById.synchronous().invalidateAll();
+        customerIdsByEmail.synchronous().invalidateAll();
+    }
+
+    private static Customer copy(Customer customer) {
+        return new Customer(
+                customer.getId(),
+                customer.getEmail(),
+                customer.getPassword(),
+                customer.getName(),
+                customer.getAge(),
+                customer.getGender(),
+                customer.getProfileImageId()
+        );
+    }
+
+    private static <K, V> Expiry<K, Optional<V>> expiry(Duration ttl, Duration negativeTtl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+                return (value.isPresent() ? ttl : negativeTtl).toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.amigoscode.customer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: quoted fields, doubled quotes and line breaks
+ * inside quotes are supported. Only the current record is held in memory.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+    private long lineNumber = 0;
+    // physical line of the next character, counting breaks inside quoted fields too
+    private long line = 1;
+    private int previous = -1;
+    private int pushedBack = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the line number the last returned record started on
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the next record, or {@code null} at the end of the input
+     */
+    List<String> readRecord() throws IOException {
+        long start = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber = start;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line %s".formatted(lineNumber));
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    // a following \n belongs to this break, and is not counted again
+                    int next = readAhead();
+                    if (next == '\n') {
+                        previous = next;
+                    } else {
+                        pushedBack = next;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c = readAhead();
+        // \r\n is one break
+        if (c == '\r' || (c == '\n' && previous != '\r')) {
+            line++;
+        }
+        previous = c;
+        return c;
+    }
+
+    private int readAhead() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
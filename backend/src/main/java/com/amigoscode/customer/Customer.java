@@ -25,11 +25,16 @@ import java.util.Objects;
 )
 public class Customer implements UserDetails {
 
+    /**
+     * Roles every customer is granted, as carried by {@link CustomerDTO} and issued tokens.
+     */
+    public static final List<String> ROLES = List.of("ROLE_USER");
+
     @Id
     @SequenceGenerator(
             name = "customer_id_seq",
             sequenceName = "customer_id_seq",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -120,7 +125,9 @@ public class Customer implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return ROLES.stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
     }
 
     public String getProfileImageId() {
@@ -136,8 +143,17 @@ public class Customer implements UserDetails {
         return this.password;
     }
 
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
     @Override
     public String getUsername() {
+        return usernameOf(email);
+    }
+
+    // customers sign in with their email
+    static String usernameOf(String email) {
         return email;
     }
 
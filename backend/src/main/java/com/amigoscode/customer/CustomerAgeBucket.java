@@ -0,0 +1,8 @@
+package com.amigoscode.customer;
+
+public record CustomerAgeBucket(
+        int fromAge,
+        int toAge,
+        long count
+) {
+}
@@ -0,0 +1,12 @@
+package com.amigoscode.customer;
+
+public record CustomerBatchRegistrationResult(
+        int index,
+        String email,
+        Status status,
+        String message
+) {
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+}
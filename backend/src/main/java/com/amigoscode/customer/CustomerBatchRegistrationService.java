@@ -0,0 +1,122 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.DuplicateResourceException;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.security.PasswordHashingPool;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.amigoscode.customer.CustomerBatchRegistrationResult.Status.CREATED;
+import static com.amigoscode.customer.CustomerBatchRegistrationResult.Status.DUPLICATE;
+import static com.amigoscode.customer.CustomerBatchRegistrationResult.Status.INVALID;
+
+/**
+ * Registers many customers in one call: a single duplicate check, passwords hashed in
+ * parallel on the password hashing pool and a batched insert.
+ */
+@Service
+public class CustomerBatchRegistrationService {
+
+    private final CustomerDAO customerDAO;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingPool passwordHashingPool;
+    private final CustomerSuggestionIndex suggestionIndex;
+    private final CustomerChangePublisher changePublisher;
+    private final int maxBatchSize;
+
+    public CustomerBatchRegistrationService(@Qualifier("cached") CustomerDAO customerDAO,
+                                            PasswordEncoder passwordEncoder,
+                                            PasswordHashingPool passwordHashingPool,
+                                            CustomerSuggestionIndex suggestionIndex,
+                                            CustomerChangePublisher changePublisher,
+                                            @Value("${customer.batch.max-size}") int maxBatchSize) {
+        this.customerDAO = customerDAO;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingPool = passwordHashingPool;
+        this.suggestionIndex = suggestionIndex;
+        this.changePublisher = changePublisher;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public List<CustomerBatchRegistrationResult> registerCustomers(List<CustomerRegistrationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RequestValidationException("Batch must contain at least one customer");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new RequestValidationException("Batch must not contain more than %s customers".formatted(maxBatchSize));
+        }
+
+        CustomerBatchRegistrationResult[] results = new CustomerBatchRegistrationResult[requests.size()];
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CustomerRegistrationRequest request = requests.get(i);
+            String error = CustomerRegistrationValidator.validate(request);
+            if (error != null) {
+                results[i] = result(i, request, INVALID, error);
+            } else if (!batchEmails.add(request.email())) {
+                results[i] = result(i, request, DUPLICATE, "Customer with email [%s] appears more than once in batch!".formatted(request.email()));
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingEmails = batchEmails.isEmpty() ? Set.of() : customerDAO.selectExistingEmails(batchEmails);
+        List<Integer> accepted = new ArrayList<>();
+        for (Integer i : candidates) {
+            CustomerRegistrationRequest request = requests.get(i);
+            if (existingEmails.contains(request.email())) {
+                results[i] = result(i, request, DUPLICATE, "Customer with email [%s] already exists!".formatted(request.email()));
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        // all or nothing, a saturated pool answers 429 rather than hashing part of the batch
+        List<CompletableFuture<Customer>> hashed = passwordHashingPool.submitAll(accepted.stream()
+                .map(requests::get)
+                .<Supplier<Customer>>map(request -> () -> new Customer(
+                        request.name(),
+                        request.email(),
+                        passwordEncoder.encode(request.password()),
+                        request.age(),
+                        request.gender()
+                ))
+                .toList());
+        List<Customer> customers = hashed.stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        if (!customers.isEmpty()) {
+            try {
+                customerDAO.insertCustomers(customers);
+            } catch (DataIntegrityViolationException e) {
+                // another request registered one of the emails after our duplicate check
+                throw new DuplicateResourceException("One or more customers in batch already exist, please retry!");
+            }
+            customers.forEach(customer -> {
+                suggestionIndex.put(customer.getId(), customer.getName(), customer.getEmail());
+                changePublisher.customerChanged(customer.getId(), customer.getEmail());
+            });
+        }
+        for (Integer i : accepted) {
+            results[i] = result(i, requests.get(i), CREATED, null);
+        }
+        return List.of(results);
+    }
+
+    private static CustomerBatchRegistrationResult result(int index, CustomerRegistrationRequest request,
+                                                          CustomerBatchRegistrationResult.Status status, String message) {
+        return new CustomerBatchRegistrationResult(index, request == null ? null : request.email(), status, message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.amigoscode.customer;
+
+/**
+ * Payload of a {@code customer_changed} notification: the id of the changed customer and,
+ * when it may have been cached as a miss, its email. {@code *} stands for every customer.
+ */
+public record CustomerChange(Integer customerId, String email) {
+
+    public static final String CHANNEL = "customer_changed";
+    public static final String ALL = "*";
+
+    public String encode() {
+        return email == null ? String.valueOf(customerId) : customerId + " " + email;
+    }
+
+    static CustomerChange decode(String payload) {
+        int separator = payload.indexOf(' ');
+        if (separator == -1) {
+            return new CustomerChange(Integer.valueOf(payload), null);
+        }
+        return new CustomerChange(
+                Integer.valueOf(payload.substring(0, separator)),
+                payload.substring(separator + 1)
+        );
+    }
+}
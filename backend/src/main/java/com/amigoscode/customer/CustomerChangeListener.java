@@ -0,0 +1,172 @@
+package com.amigoscode.customer;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Keeps this node's customer cache and suggestion index coherent with writes made on other
+ * nodes, servlet or reactive. A dedicated, unpooled connection {@code LISTEN}s on
+ * {@code customer_changed}, evicts the customers named in each notification and re-reads
+ * them into the suggestion index. Notifications sent while not listening are lost, so the
+ * whole cache is flushed every time the connection is (re)established or drops, and the
+ * index is reloaded once listening again.
+ */
+@Component
+public class CustomerChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerChangeListener.class);
+    private static final int POLL_MILLIS = 10_000;
+
+    private final DataSource dataSource;
+    private final CachingCustomerDAO cache;
+    private final CustomerSuggestionIndex suggestionIndex;
+    private final Duration reconnectDelay;
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    @Autowired
+    public CustomerChangeListener(DataSourceProperties dataSourceProperties, CachingCustomerDAO cache, CustomerSuggestionIndex suggestionIndex) {
+        this(
+                dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build(),
+                cache,
+                suggestionIndex,
+                Duration.ofSeconds(5)
+        );
+    }
+
+    CustomerChangeListener(DataSource dataSource, CachingCustomerDAO cache, CustomerSuggestionIndex suggestionIndex, Duration reconnectDelay) {
+        this.dataSource = dataSource;
+        this.cache = cache;
+        this.suggestionIndex = suggestionIndex;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "customer-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        closeConnection();
+    }
+
+    private void listen() {
+        // the index loads itself on startup, it only misses notifications after a drop
+        boolean resubscribing = false;
+        while (running) {
+            try (Connection listening = dataSource.getConnection()) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + CustomerChange.CHANNEL);
+                }
+                cache.evictAll();
+                if (resubscribing) {
+                    reloadSuggestionIndex();
+                }
+                resubscribing = true;
+                LOGGER.info("Listening for customer changes");
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications == null || notifications.length == 0) {
+                        // a silently dropped connection only shows up once we talk to the server
+                        try (Statement heartbeat = listening.createStatement()) {
+                            heartbeat.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.warn("Customer change listener lost its connection, flushing customer cache", e);
+                cache.evictAll();
+                sleep(reconnectDelay);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        if (CustomerChange.ALL.equals(payload)) {
+            cache.evictAll();
+            reloadSuggestionIndex();
+            return;
+        }
+        CustomerChange change;
+        try {
+            change = CustomerChange.decode(payload);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Ignoring malformed customer change [{}], flushing customer cache", payload);
+            cache.evictAll();
+            reloadSuggestionIndex();
+            return;
+        }
+        cache.evict(change.customerId(), change.email());
+        try {
+            suggestionIndex.refresh(change.customerId());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not refresh customer {} in suggestion index", change.customerId(), e);
+        }
+    }
+
+    private void reloadSuggestionIndex() {
+        // a failing reload must not stop the listener, evictions matter more
+        try {
+            suggestionIndex.load();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not reload customer suggestion index", e);
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                LOGGER.debug("Could not close customer change listener connection", e);
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.amigoscode.customer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells every node that a customer changed, so they can evict it from their caches.
+ * Notifications are only delivered once the surrounding transaction commits; outside of
+ * one the statement commits on its own, after the write it reports on.
+ */
+@Component
+public class CustomerChangePublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerChangePublisher.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerChangePublisher(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void customerChanged(Integer customerId, String email) {
+        publish(new CustomerChange(customerId, email).encode());
+    }
+
+    public void allCustomersChanged() {
+        publish(CustomerChange.ALL);
+    }
+
+    private void publish(String payload) {
+        try {
+            jdbcTemplate.query(
+                    "SELECT pg_notify(?, ?)",
+                    (ResultSetExtractor<Void>) rs -> null,
+                    CustomerChange.CHANNEL, payload
+            );
+        } catch (DataAccessException e) {
+            // the write itself has been committed; other nodes catch up when their entries expire
+            LOGGER.warn("Could not publish customer change [{}]", payload, e);
+        }
+    }
+}
@@ -1,29 +1,102 @@
 package com.amigoscode.customer;
 
 import com.amigoscode.jwt.JWTUtil;
+import com.amigoscode.s3.S3ObjectStream;
+import com.amigoscode.threads.AsyncRequestExecutor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/customers")
 public class CustomerController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CustomerService customerService;
+    private final CustomerExportService customerExportService;
+    private final CustomerBatchRegistrationService customerBatchRegistrationService;
+    private final CustomerImportService customerImportService;
+    private final CustomerStatisticsService customerStatisticsService;
     private final JWTUtil jwtUtil;
+    private final AsyncRequestExecutor asyncRequestExecutor;
 
-    public CustomerController(CustomerService customerService, JWTUtil jwtUtil) {
+    public CustomerController(CustomerService customerService, CustomerExportService customerExportService, CustomerBatchRegistrationService customerBatchRegistrationService, CustomerImportService customerImportService, CustomerStatisticsService customerStatisticsService, JWTUtil jwtUtil, AsyncRequestExecutor asyncRequestExecutor) {
         this.customerService = customerService;
+        this.customerExportService = customerExportService;
+        this.customerBatchRegistrationService = customerBatchRegistrationService;
+        this.customerImportService = customerImportService;
+        this.customerStatisticsService = customerStatisticsService;
         this.jwtUtil = jwtUtil;
+        this.asyncRequestExecutor = asyncRequestExecutor;
     }
 
     @GetMapping
-    public List<CustomerDTO> getCustomers(){
-        return customerService.getAllCustomers();
+    public ResponseEntity<List<CustomerDTO>> getCustomers(
+            @RequestParam(value = "gender", required = false) String gender,
+            @RequestParam(value = "minAge", required = false) Integer minAge,
+            @RequestParam(value = "maxAge", required = false) Integer maxAge,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "direction", required = false) String direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size){
+        CustomerFilter filter = new CustomerFilter(gender == null ? null : Gender.from(gender), minAge, maxAge);
+        CustomerPage page = customerService.getCustomers(filter, CustomerSort.from(sort, direction), cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if(page.nextCursor() != null){
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.customers());
+    }
+
+    @GetMapping("search")
+    public List<CustomerDTO> searchCustomers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit){
+        return customerService.searchCustomers(query, limit);
+    }
+
+    @GetMapping("suggest")
+    public List<CustomerSuggestion> suggestCustomers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit){
+        return customerService.suggestCustomers(query, limit);
+    }
+
+    @GetMapping("stats")
+    public CustomerStatistics getStatistics(
+            @RequestParam(value = "approximate", defaultValue = "false") boolean approximate){
+        return customerStatisticsService.getStatistics(approximate);
+    }
+
+    @GetMapping("export")
+    public void exportCustomers(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "parallelism", defaultValue = "1") int parallelism,
+            HttpServletResponse response) throws IOException {
+        CustomerExportFormat exportFormat = CustomerExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"customers.%s\"".formatted(exportFormat.getExtension())
+        );
+        customerExportService.exportCustomers(exportFormat, parallelism, response.getOutputStream());
     }
 
     @GetMapping("{customerId}")
@@ -33,13 +106,31 @@ public class CustomerController {
 
     @PostMapping
     public ResponseEntity<?> registerCustomer(@RequestBody CustomerRegistrationRequest request){
-        customerService.addCustomer(request);
-        String jwtToken = jwtUtil.issueToken(request.email(), "ROLE_USER");
+        Integer customerId = customerService.addCustomer(request);
+        String jwtToken = jwtUtil.issueToken(request.email(), customerId, Customer.ROLES);
         return ResponseEntity.ok()
                 .header(HttpHeaders.AUTHORIZATION, jwtToken)
                 .build();
     }
 
+    @PostMapping("batch")
+    public List<CustomerBatchRegistrationResult> registerCustomers(@RequestBody List<CustomerRegistrationRequest> requests){
+        return customerBatchRegistrationService.registerCustomers(requests);
+    }
+
+    @PostMapping(value = "imports", consumes = "text/csv")
+    public ResponseEntity<CustomerImportStatus> importCustomers(HttpServletRequest request) throws IOException {
+        CustomerImportStatus status = customerImportService.startImport(request.getInputStream());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/customers/imports/" + status.id()))
+                .body(status);
+    }
+
+    @GetMapping("imports/{importId}")
+    public CustomerImportStatus getCustomerImport(@PathVariable("importId") UUID importId){
+        return customerImportService.getImport(importId);
+    }
+
     @DeleteMapping("{customerId}")
     public void deleteCustomer(@PathVariable("customerId") Integer customerId){
         customerService.deleteCustomer(customerId);
@@ -56,15 +147,66 @@ public class CustomerController {
             value = "{customerId}/profile-image",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE
     )
-    public void uploadCustomerProfileImage(
+    public CompletableFuture<Void> uploadCustomerProfileImage(
             @PathVariable("customerId") Integer customerId,
             @RequestParam("file") MultipartFile file){
-        customerService.uploadCustomerProfileImage(customerId, file);
+        return customerService.uploadCustomerProfileImage(customerId, file);
     }
 
-    @GetMapping(value = "{customerId}/profile-image", produces = MediaType.IMAGE_JPEG_VALUE)
-    public byte[] getCustomerProfileImage(
-            @PathVariable("customerId") Integer customerId){
-        return customerService.getCustomerProfileImage(customerId);
+    /**
+     * Serves a variant of the current profile image, or of a given version of it, by default
+     * the largest. Revalidations are answered with 304 from the recorded metadata, without
+     * going to S3.
+     */
+    @GetMapping({"{customerId}/profile-image", "{customerId}/profile-image/{profileImageId}"})
+    public ResponseEntity<StreamingResponseBody> getCustomerProfileImage(
+            @PathVariable("customerId") Integer customerId,
+            @PathVariable(value = "profileImageId", required = false) String profileImageId,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        ProfileImageVariant variant = ProfileImageVariant.from(size);
+        // resolved once, so the validators and the bytes belong to the same version
+        ResolvedProfileImage profileImage = customerService.resolveProfileImage(customerId, profileImageId);
+        Optional<ProfileImage> metadata = profileImage.metadata();
+        CacheControl cacheControl = CustomerService.profileImageCacheControl(profileImageId);
+        if(metadata.isPresent() && metadata.get().isMatchedBy(ifNoneMatch, variant)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(metadata.get().eTag(variant))
+                    .lastModified(metadata.get().uploadedAt())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        // claimed before going to S3, so a saturated node does not open downloads it can not serve
+        asyncRequestExecutor.acquire();
+        S3ObjectStream image;
+        try {
+            image = customerService.getCustomerProfileImage(profileImage, variant, range);
+        } catch (RuntimeException e) {
+            asyncRequestExecutor.release();
+            throw e;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(image.contentRange() == null ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .cacheControl(cacheControl)
+                .contentType(CustomerService.profileImageContentType(image.contentType()));
+        metadata.ifPresent(recorded -> response
+                .eTag(recorded.eTag(variant))
+                .lastModified(recorded.uploadedAt()));
+        if(image.contentLength() != null){
+            response.contentLength(image.contentLength());
+        }
+        if(image.contentRange() != null){
+            response.header(HttpHeaders.CONTENT_RANGE, image.contentRange());
+        }
+        // copied on an AsyncRequestExecutor thread, a chunk at a time
+        return response.body(out -> {
+            try (image) {
+                image.transferTo(out);
+            } finally {
+                asyncRequestExecutor.release();
+            }
+        });
     }
 }
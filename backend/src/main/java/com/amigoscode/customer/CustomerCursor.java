@@ -0,0 +1,47 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor handed out to clients. It encodes the sort it was issued for and the
+ * sort value and id of the last customer of a page, so the next page can be read with
+ * {@code WHERE (field, id) > (?, ?)} (or {@code <} when descending).
+ */
+public record CustomerCursor(
+        CustomerSort sort,
+        Comparable<?> lastValue,
+        Integer lastId
+) {
+
+    private static final char SEPARATOR = ':';
+
+    public static CustomerCursor after(CustomerSort sort, CustomerDTO last) {
+        return new CustomerCursor(sort, sort.field().valueOf(last), last.id());
+    }
+
+    public String encode() {
+        // the value goes last as it is the only part that may contain the separator
+        String value = sort.field().name() + SEPARATOR + sort.direction().name() + SEPARATOR + lastId + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CustomerCursor decode(String cursor, CustomerSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(String.valueOf(SEPARATOR), 4);
+            if (parts.length != 4
+                    || !parts[0].equals(sort.field().name())
+                    || !parts[1].equals(sort.direction().name())) {
+                throw new IllegalArgumentException(cursor);
+            }
+            return new CustomerCursor(sort, sort.field().parse(parts[3]), Integer.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("Invalid cursor [%s]".formatted(cursor));
+        }
+    }
+}
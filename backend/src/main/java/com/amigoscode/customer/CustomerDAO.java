@@ -1,16 +1,25 @@
 package com.amigoscode.customer;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface CustomerDAO {
     List<Customer> selectAllCustomers();
+    List<CustomerDTO> selectCustomerDTOsAfter(Integer lastCustomerId, int limit);
+    List<CustomerDTO> selectCustomerDTOs(CustomerFilter filter, CustomerSort sort, CustomerCursor after, int limit);
     Optional<Customer> selectCustomerById(Integer customerId);
+    Optional<CustomerDTO> selectCustomerDTOById(Integer customerId);
+    List<CustomerDTO> searchCustomers(String query, int limit);
     void insertCustomer(Customer customer);
+    void insertCustomers(List<Customer> customers);
     void updateCustomer(Customer customer);
     boolean existsPersonWithEmail(String email);
+    Set<String> selectExistingEmails(Collection<String> emails);
     boolean existsPersonWithId(Integer customerId);
     void deleteCustomerById(Integer customerId);
     Optional<Customer> selectUserByEmail(String email);
     void updateCustomerProfileImageId(String profileImageId, Integer customerId);
+    void updateCustomerPassword(Integer customerId, String password);
 }
@@ -12,5 +12,11 @@ public record CustomerDTO(
         String username,
         String profileImageId
 ){
-
+    /**
+     * Projection constructor for read queries that skip the {@link Customer} entity. Roles and
+     * username are derived the same way {@link Customer} does.
+     */
+    public CustomerDTO(Integer id, String name, String email, Gender gender, Integer age, String profileImageId) {
+        this(id, name, email, gender, age, Customer.ROLES, Customer.usernameOf(email), profileImageId);
+    }
 }
@@ -0,0 +1,22 @@
+package com.amigoscode.customer;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class CustomerDTORowMapper implements RowMapper<CustomerDTO> {
+    @Override
+    public CustomerDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new CustomerDTO(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                Gender.valueOf(rs.getString("gender")),
+                rs.getInt("age"),
+                rs.getString("profile_image_id")
+        );
+    }
+}
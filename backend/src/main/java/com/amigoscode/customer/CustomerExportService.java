@@ -0,0 +1,213 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.TooManyRequestsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams the whole customer table to an output stream. Rows are read through a
+ * forward-only cursor (a read-only transaction plus a fetch size), so only one fetch
+ * batch per reader is ever held in memory regardless of the table size.
+ * <p>
+ * Every reader holds a connection for the length of the export, so all exports together
+ * share a budget of {@code customer.export.max-connections}. An export that needs more
+ * readers than are left is rejected with a {@link TooManyRequestsException} rather than
+ * queued behind the running ones.
+ */
+@Service
+public class CustomerExportService {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+    private static final String SELECT_COLUMNS = """
+            SELECT id, name, email, gender, age, profile_image_id
+            FROM customer
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxParallelism;
+    private final Semaphore connections;
+    private final ExecutorService executor;
+
+    public CustomerExportService(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${customer.export.fetch-size:1000}") int fetchSize,
+                                 @Value("${customer.export.max-parallelism:4}") int maxParallelism,
+                                 @Value("${customer.export.max-connections:8}") int maxConnections) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // PostgreSQL only honours the fetch size with auto-commit off, i.e. inside a transaction
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.maxParallelism = maxParallelism;
+        this.connections = new Semaphore(maxConnections);
+        AtomicInteger threadCount = new AtomicInteger();
+        // never more workers than connections in the budget, so none of them waits for a thread
+        this.executor = Executors.newFixedThreadPool(maxConnections, runnable -> {
+            Thread thread = new Thread(runnable, "customer-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void exportCustomers(CustomerExportFormat format, int parallelism, OutputStream out) throws IOException {
+        if (parallelism < 1 || parallelism > maxParallelism) {
+            throw new RequestValidationException(
+                    "Parallelism must be between 1 and %s".formatted(maxParallelism)
+            );
+        }
+        if (!connections.tryAcquire(parallelism)) {
+            throw new TooManyRequestsException("Too many concurrent customer exports, please retry later", RETRY_AFTER);
+        }
+        if (parallelism == 1) {
+            try {
+                exportSequentially(format, out);
+            } finally {
+                connections.release();
+            }
+        } else {
+            exportInParallel(format, parallelism, out);
+        }
+    }
+
+    private void exportSequentially(CustomerExportFormat format, OutputStream out) throws IOException {
+        CustomerExportWriter writer = CustomerExportWriter.create(format, out, objectMapper);
+        writer.writeHeader();
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query(SELECT_COLUMNS, rs -> {
+                    try {
+                        writer.writeRow(rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+        );
+        writer.flush();
+    }
+
+    /**
+     * Splits {@code [min(id), max(id)]} into equal ranges, each read by its own cursor on a
+     * worker thread. Workers serialize into a small private buffer and hand it over to the
+     * shared stream in chunks, so rows of different ranges are interleaved in no particular order.
+     * <p>
+     * The caller holds {@code parallelism} connections of the budget. Each worker gives its one
+     * back once its thread is done with it, even after the export was cancelled; the rest are
+     * given back here.
+     */
+    private void exportInParallel(CustomerExportFormat format, int parallelism, OutputStream out) throws IOException {
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            CustomerExportWriter headerWriter = CustomerExportWriter.create(format, out, objectMapper);
+            headerWriter.writeHeader();
+            headerWriter.flush();
+            IdRange range = jdbcTemplate.queryForObject(
+                    "SELECT min(id), max(id) FROM customer",
+                    (rs, rowNum) -> new IdRange(rs.getLong(1), rs.getLong(2))
+            );
+            if (range == null || range.max() == 0) {
+                out.flush();
+                return;
+            }
+            long step = (range.max() - range.min()) / parallelism + 1;
+            Lock outputLock = new ReentrantLock();
+            for (long from = range.min(); from <= range.max(); from += step) {
+                IdRange slice = new IdRange(from, Math.min(from + step - 1, range.max()));
+                FutureTask<Void> worker = new FutureTask<>(() -> exportRange(format, slice, out, outputLock), null);
+                // runs even once the worker is cancelled, which then returns right away
+                executor.execute(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        connections.release();
+                    }
+                });
+                workers.add(worker);
+            }
+        } finally {
+            connections.release(parallelism - workers.size());
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("customer export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("customer export failed", e.getCause());
+        } finally {
+            workers.forEach(worker -> worker.cancel(true));
+        }
+        out.flush();
+    }
+
+    private void exportRange(CustomerExportFormat format, IdRange range, OutputStream out, Lock outputLock) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE + 1024);
+        try {
+            CustomerExportWriter writer = CustomerExportWriter.create(format, buffer, objectMapper);
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.query(SELECT_COLUMNS + "WHERE id BETWEEN ? AND ?", rs -> {
+                        try {
+                            writer.writeRow(rs);
+                            if (buffer.size() >= CHUNK_SIZE) {
+                                writer.flush();
+                                drain(buffer, out, outputLock);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, range.min(), range.max())
+            );
+            writer.flush();
+            drain(buffer, out, outputLock);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void drain(ByteArrayOutputStream buffer, OutputStream out, Lock outputLock) throws IOException {
+        outputLock.lock();
+        try {
+            buffer.writeTo(out);
+        } finally {
+            outputLock.unlock();
+        }
+        buffer.reset();
+    }
+
+    private record IdRange(long min, long max) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.amigoscode.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Serializes export rows straight from a {@link ResultSet}, so no entity or DTO is built per row.
+ */
+abstract class CustomerExportWriter {
+
+    static CustomerExportWriter create(CustomerExportFormat format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(out, objectMapper);
+            case CSV -> new CsvWriter(out);
+        };
+    }
+
+    void writeHeader() throws IOException {
+    }
+
+    abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+
+    abstract void flush() throws IOException;
+
+    private static final class NdjsonWriter extends CustomerExportWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory()
+                    .createGenerator(out)
+                    .setRootValueSeparator(null)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getInt("id"));
+            generator.writeStringField("name", rs.getString("name"));
+            generator.writeStringField("email", rs.getString("email"));
+            generator.writeStringField("gender", rs.getString("gender"));
+            generator.writeNumberField("age", rs.getInt("age"));
+            generator.writeStringField("profileImageId", rs.getString("profile_image_id"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvWriter extends CustomerExportWriter {
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            writer.write("id,name,email,gender,age,profile_image_id\n");
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            writer.write(Integer.toString(rs.getInt("id")));
+            writer.write(',');
+            writeField(rs.getString("name"));
+            writer.write(',');
+            writeField(rs.getString("email"));
+            writer.write(',');
+            writer.write(rs.getString("gender"));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt("age")));
+            writer.write(',');
+            writeField(rs.getString("profile_image_id"));
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0
+                    || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
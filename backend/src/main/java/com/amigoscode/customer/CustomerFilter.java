@@ -0,0 +1,9 @@
+package com.amigoscode.customer;
+
+public record CustomerFilter(
+        Gender gender,
+        Integer minAge,
+        Integer maxAge
+) {
+    public static final CustomerFilter NONE = new CustomerFilter(null, null, null);
+}
@@ -0,0 +1,66 @@
+package com.amigoscode.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Customer ids for inserts that do not go through Hibernate. {@code customer_id_seq} increments
+ * by {@link #BLOCK_SIZE} so that {@link Customer}'s pooled generator reserves a block of ids
+ * with a single {@code nextval}; an insert taking the column default would use up a whole block
+ * for one row. Ids are handed out the same way instead: {@code nextval} returns the high end
+ * {@code hi} of a block, and {@code hi - 49} to {@code hi} are ours. What is left of the last
+ * block is kept for the next insert.
+ */
+public class CustomerIdPool {
+
+    /**
+     * Must match the sequence's increment (V3) and {@link Customer}'s allocation size.
+     */
+    public static final int BLOCK_SIZE = 50;
+
+    private long next = 1;
+    private long last = 0;
+
+    /**
+     * Takes up to {@code count} ids from the block at hand.
+     */
+    public synchronized List<Integer> take(int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        while (ids.size() < count && next <= last) {
+            ids.add(Math.toIntExact(next++));
+        }
+        return ids;
+    }
+
+    /**
+     * Number of blocks to reserve for {@code count} more ids.
+     */
+    public static int blocksFor(int count) {
+        return (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    /**
+     * Takes {@code count} ids from freshly reserved blocks, given by their high ends, and keeps
+     * the rest of the last one unless another caller has refilled the pool in the meantime.
+     */
+    public synchronized List<Integer> takeFrom(List<Long> highs, int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (long high : highs) {
+            long id = high - BLOCK_SIZE + 1;
+            while (id <= high && ids.size() < count) {
+                ids.add(Math.toIntExact(id++));
+            }
+            if (ids.size() == count) {
+                if (next > last && id <= high) {
+                    next = id;
+                    last = high;
+                }
+                break;
+            }
+        }
+        if (ids.size() < count) {
+            throw new IllegalArgumentException("%s blocks do not hold %s ids".formatted(highs.size(), count));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,8 @@
+package com.amigoscode.customer;
+
+public record CustomerImportError(
+        long line,
+        String email,
+        String message
+) {
+}
@@ -0,0 +1,105 @@
+package com.amigoscode.customer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a single import. Counters are updated by the import thread and read by
+ * status requests, rejected rows are kept up to {@code maxErrors}.
+ */
+class CustomerImportJob {
+
+    private final UUID id = UUID.randomUUID();
+    private final int maxErrors;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsStaged = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<CustomerImportError> errors = new ArrayList<>();
+    private volatile CustomerImportStatus.State state = CustomerImportStatus.State.QUEUED;
+    private volatile String failure;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    CustomerImportJob(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        state = CustomerImportStatus.State.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        state = CustomerImportStatus.State.COMPLETED;
+    }
+
+    void fail(String failure) {
+        this.failure = failure;
+        finishedAt = LocalDateTime.now();
+        state = CustomerImportStatus.State.FAILED;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowsStaged(long rows) {
+        rowsStaged.addAndGet(rows);
+    }
+
+    void rowsImported(long rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    void reject(long line, String email, String message) {
+        rowsRejected.incrementAndGet();
+        reportError(line, email, message);
+    }
+
+    /**
+     * Records the row without counting it, for rejections that are counted in bulk.
+     */
+    void reportError(long line, String email, String message) {
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new CustomerImportError(line, email, message));
+            }
+        }
+    }
+
+    long getRowsStaged() {
+        return rowsStaged.get();
+    }
+
+    void rejected(long rows) {
+        rowsRejected.addAndGet(rows);
+    }
+
+    CustomerImportStatus toStatus() {
+        List<CustomerImportError> errorsSnapshot;
+        synchronized (errors) {
+            errorsSnapshot = List.copyOf(errors);
+        }
+        return new CustomerImportStatus(
+                id,
+                state,
+                rowsRead.get(),
+                rowsStaged.get(),
+                rowsImported.get(),
+                rowsRejected.get(),
+                errorsSnapshot,
+                failure,
+                startedAt,
+                finishedAt
+        );
+    }
+}
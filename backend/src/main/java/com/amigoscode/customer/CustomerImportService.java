@@ -0,0 +1,346 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.ResourceNotFoundException;
+import com.amigoscode.security.PasswordHashingPool;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of customers from CSV. The upload is spooled to a temporary file, then read in
+ * chunks that are validated, hashed in parallel and streamed into {@code customer_import_staging}
+ * through PostgreSQL {@code COPY}. A single set-based statement finally merges the staged rows
+ * into {@code customer}, skipping emails that already exist.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerImportService.class);
+    private static final List<String> COLUMNS = List.of("name", "email", "password", "gender", "age");
+    // stored with the prefix, the same as passwordEncoder.encode does
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^(?:\\{bcrypt})?(\\$2[aby]?\\$\\d{2}\\$.{53})$");
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingPool passwordHashingPool;
+    private final CustomerSuggestionIndex suggestionIndex;
+    private final CustomerChangePublisher changePublisher;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "customer-import")
+    );
+    private final Map<UUID, CustomerImportJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, CustomerImportJob> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    };
+
+    public CustomerImportService(DataSource dataSource,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 PasswordEncoder passwordEncoder,
+                                 PasswordHashingPool passwordHashingPool,
+                                 CustomerSuggestionIndex suggestionIndex,
+                                 CustomerChangePublisher changePublisher,
+                                 @Value("${customer.import.chunk-size:1000}") int chunkSize,
+                                 @Value("${customer.import.max-errors:1000}") int maxErrors) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingPool = passwordHashingPool;
+        this.suggestionIndex = suggestionIndex;
+        this.changePublisher = changePublisher;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public CustomerImportStatus startImport(InputStream csv) {
+        Path file;
+        try {
+            file = Files.createTempFile("customer-import-", ".csv");
+            Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to store customer import", e);
+        }
+        CustomerImportJob job = new CustomerImportJob(maxErrors);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+        executor.submit(() -> runImport(job, file));
+        return job.toStatus();
+    }
+
+    public CustomerImportStatus getImport(UUID importId) {
+        CustomerImportJob job;
+        synchronized (jobs) {
+            job = jobs.get(importId);
+        }
+        if (job == null) {
+            throw new ResourceNotFoundException("Customer import with id [%s] not found!".formatted(importId));
+        }
+        return job.toStatus();
+    }
+
+    void runImport(CustomerImportJob job, Path file) {
+        job.start();
+        try {
+            stage(job, file);
+            if (merge(job) > 0) {
+                // the merge does not return the new ids, so pick them up with a reload
+                suggestionIndex.load();
+                changePublisher.allCustomersChanged();
+            }
+            job.complete();
+        } catch (Exception e) {
+            LOGGER.error("Customer import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            jdbcTemplate.update("DELETE FROM customer_import_staging WHERE import_id = ?", job.getId());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete customer import file {}", file, e);
+            }
+        }
+    }
+
+    private void stage(CustomerImportJob job, Path file) throws IOException, SQLException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             Connection connection = dataSource.getConnection()) {
+            CsvRecordReader csv = new CsvRecordReader(reader);
+            int[] columns = resolveColumns(csv.readRecord());
+            CopyIn copyIn = connection.unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn("""
+                            COPY customer_import_staging (import_id, line_number, name, email, password, gender, age)
+                            FROM STDIN WITH (FORMAT csv)
+                            """);
+            try {
+                List<StagedRow> chunk = new ArrayList<>(chunkSize);
+                List<String> record;
+                while ((record = csv.readRecord()) != null) {
+                    if (record.size() == 1 && record.get(0).isBlank()) {
+                        continue;
+                    }
+                    job.rowRead();
+                    StagedRow row = parse(job, csv.getLineNumber(), record, columns);
+                    if (row != null) {
+                        chunk.add(row);
+                    }
+                    if (chunk.size() == chunkSize) {
+                        copyChunk(job, chunk, copyIn);
+                        chunk.clear();
+                    }
+                }
+                copyChunk(job, chunk, copyIn);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    private static int[] resolveColumns(List<String> header) {
+        if (header == null) {
+            throw new RequestValidationException("Customer import is empty");
+        }
+        int[] columns = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            int index = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().equalsIgnoreCase(COLUMNS.get(i))) {
+                    index = j;
+                }
+            }
+            if (index == -1) {
+                throw new RequestValidationException("Customer import is missing column [%s]".formatted(COLUMNS.get(i)));
+            }
+            columns[i] = index;
+        }
+        return columns;
+    }
+
+    private static StagedRow parse(CustomerImportJob job, long line, List<String> record, int[] columns) {
+        String email = field(record, columns[1]);
+        Gender gender;
+        Integer age;
+        try {
+            String value = field(record, columns[3]);
+            gender = value == null ? null : Gender.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            job.reject(line, email, "Customer gender must be one of MALE, FEMALE");
+            return null;
+        }
+        try {
+            String value = field(record, columns[4]);
+            age = value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            job.reject(line, email, "Customer age must be a number");
+            return null;
+        }
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                field(record, columns[0]),
+                email,
+                field(record, columns[2]),
+                age,
+                gender
+        );
+        String error = CustomerRegistrationValidator.validate(request);
+        if (error != null) {
+            job.reject(line, email, error);
+            return null;
+        }
+        return new StagedRow(line, request);
+    }
+
+    private CompletableFuture<String> hash(String password) {
+        Matcher hash = BCRYPT_HASH.matcher(password);
+        if (hash.matches()) {
+            return CompletableFuture.completedFuture("{bcrypt}" + hash.group(1));
+        }
+        return passwordHashingPool.submit(() -> passwordEncoder.encode(password));
+    }
+
+    private static String field(List<String> record, int index) {
+        return index < record.size() ? record.get(index) : null;
+    }
+
+    private void copyChunk(CustomerImportJob job, List<StagedRow> chunk, CopyIn copyIn) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<String>> passwords = chunk.stream()
+                .map(row -> row.request().password())
+                .map(this::hash)
+                .toList();
+        StringBuilder buffer = new StringBuilder(chunk.size() * 128);
+        for (int i = 0; i < chunk.size(); i++) {
+            StagedRow row = chunk.get(i);
+            CustomerRegistrationRequest request = row.request();
+            buffer.append(job.getId()).append(',')
+                    .append(row.line()).append(',');
+            appendQuoted(buffer, request.name()).append(',');
+            appendQuoted(buffer, request.email()).append(',');
+            appendQuoted(buffer, passwords.get(i).join()).append(',')
+                    .append(request.gender().name()).append(',')
+                    .append(request.age()).append('\n');
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        job.rowsStaged(chunk.size());
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+
+    private int merge(CustomerImportJob job) {
+        Integer merged = transactionTemplate.execute(status -> {
+            jdbcTemplate.query("""
+                    SELECT s.line_number, s.email,
+                           EXISTS (SELECT 1 FROM customer c WHERE c.email = s.email) AS existing
+                    FROM customer_import_staging s
+                    WHERE s.import_id = ?
+                      AND (EXISTS (SELECT 1 FROM customer c WHERE c.email = s.email)
+                           OR EXISTS (SELECT 1 FROM customer_import_staging d
+                                      WHERE d.import_id = s.import_id
+                                        AND d.email = s.email
+                                        AND d.line_number < s.line_number))
+                    ORDER BY s.line_number
+                    LIMIT ?
+                    """, rs -> {
+                String email = rs.getString("email");
+                job.reportError(
+                        rs.getLong("line_number"),
+                        email,
+                        rs.getBoolean("existing")
+                                ? "Customer with email [%s] already exists!".formatted(email)
+                                : "Customer with email [%s] appears more than once in import!".formatted(email)
+                );
+            }, job.getId(), maxErrors);
+            // ids come from one sequence block per 50 new customers, see CustomerIdPool
+            int imported = jdbcTemplate.update("""
+                    WITH candidates AS (
+                        SELECT DISTINCT ON (email) name, email, password, age, gender
+                        FROM customer_import_staging s
+                        WHERE import_id = ?
+                          AND NOT EXISTS (SELECT 1 FROM customer c WHERE c.email = s.email)
+                        ORDER BY email, line_number
+                    ), numbered AS (
+                        SELECT row_number() OVER () - 1 AS position, *
+                        FROM candidates
+                    ), blocks AS (
+                        SELECT row_number() OVER () - 1 AS block, high
+                        FROM (
+                            SELECT nextval('customer_id_seq') AS high
+                            FROM generate_series(1, (SELECT (count(*) + %1$d - 1) / %1$d FROM candidates))
+                        ) reserved
+                    )
+                    INSERT INTO customer (id, name, email, password, age, gender)
+                    SELECT b.high - %1$d + 1 + n.position %% %1$d, n.name, n.email, n.password, n.age, n.gender
+                    FROM numbered n
+                    JOIN blocks b ON b.block = n.position / %1$d
+                    ON CONFLICT (email) DO NOTHING
+                    """.formatted(CustomerIdPool.BLOCK_SIZE), job.getId());
+            job.rowsImported(imported);
+            job.rejected(job.getRowsStaged() - imported);
+            return imported;
+        });
+        return merged == null ? 0 : merged;
+    }
+
+    private record StagedRow(long line, CustomerRegistrationRequest request) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.amigoscode.customer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record CustomerImportStatus(
+        UUID id,
+        State state,
+        long rowsRead,
+        long rowsStaged,
+        long rowsImported,
+        long rowsRejected,
+        List<CustomerImportError> errors,
+        String failure,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -2,19 +2,29 @@ package com.amigoscode.customer;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository("jdbc")
 public class CustomerJDBCDataAccessService implements CustomerDAO{
 
+    private static final int BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
+    private final CustomerDTORowMapper customerDTORowMapper;
+    private final CustomerIdPool idPool = new CustomerIdPool();
 
-    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper) {
+    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper, CustomerDTORowMapper customerDTORowMapper) {
         this.jdbcTemplate = jdbcTemplate;
         this.customerRowMapper = customerRowMapper;
+        this.customerDTORowMapper = customerDTORowMapper;
     }
 
     @Override
@@ -27,6 +37,64 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
         return jdbcTemplate.query(sql, this.customerRowMapper);
     }
 
+    @Override
+    public List<CustomerDTO> selectCustomerDTOsAfter(Integer lastCustomerId, int limit) {
+        var sql = """
+                SELECT id, name, email, age, gender, profile_image_id
+                FROM customer
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, this.customerDTORowMapper, lastCustomerId, limit);
+    }
+
+    @Override
+    public List<CustomerDTO> selectCustomerDTOs(CustomerFilter filter, CustomerSort sort, CustomerCursor after, int limit) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (filter.gender() != null) {
+            conditions.add("gender = ?");
+            args.add(filter.gender().name());
+        }
+        if (filter.minAge() != null) {
+            conditions.add("age >= ?");
+            args.add(filter.minAge());
+        }
+        if (filter.maxAge() != null) {
+            conditions.add("age <= ?");
+            args.add(filter.maxAge());
+        }
+        String comparison = sort.descending() ? "<" : ">";
+        String direction = sort.direction().name();
+        String orderBy;
+        if (sort.field() == CustomerSort.Field.ID) {
+            if (after != null) {
+                conditions.add("id %s ?".formatted(comparison));
+                args.add(after.lastId());
+            }
+            orderBy = "id " + direction;
+        } else {
+            String column = sort.field().getColumn();
+            if (after != null) {
+                // a row comparison is a single index range condition on (column, id)
+                conditions.add("(%s, id) %s (?, ?)".formatted(column, comparison));
+                args.add(after.lastValue());
+                args.add(after.lastId());
+            }
+            orderBy = "%s %s, id %s".formatted(column, direction, direction);
+        }
+        args.add(limit);
+        var sql = """
+                SELECT id, name, email, age, gender, profile_image_id
+                FROM customer
+                %s
+                ORDER BY %s
+                LIMIT ?
+                """.formatted(conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions), orderBy);
+        return jdbcTemplate.query(sql, this.customerDTORowMapper, args.toArray());
+    }
+
     @Override
     public Optional<Customer> selectCustomerById(Integer id) {
         var sql = """
@@ -39,14 +107,41 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
                 .findFirst();
     }
 
+    @Override
+    public Optional<CustomerDTO> selectCustomerDTOById(Integer id) {
+        var sql = """
+                SELECT id, name, email, age, gender, profile_image_id
+                FROM customer
+                WHERE id = ?
+                """;
+        return jdbcTemplate.query(sql, this.customerDTORowMapper, id)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<CustomerDTO> searchCustomers(String query, int limit) {
+        var sql = """
+                SELECT id, name, email, age, gender, profile_image_id
+                FROM customer
+                WHERE name ILIKE ? OR email ILIKE ?
+                ORDER BY greatest(similarity(name, ?), similarity(email, ?)) DESC, id
+                LIMIT ?
+                """;
+        String pattern = CustomerSearchPattern.contains(query);
+        return jdbcTemplate.query(sql, this.customerDTORowMapper, pattern, pattern, query, query, limit);
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         var sql = """
-                INSERT INTO customer (name, email, password, age, gender)
-                VALUES(?, ?, ?, ?, ?)
+                INSERT INTO customer (id, name, email, password, age, gender)
+                VALUES(?, ?, ?, ?, ?, ?)
                 """;
+        customer.setId(nextIds(1).get(0));
         jdbcTemplate.update(
                 sql,
+                customer.getId(),
                 customer.getName(),
                 customer.getEmail(),
                 customer.getPassword(),
@@ -55,6 +150,45 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
         );
     }
 
+    /**
+     * Inserts all customers or none of them, setting their ids.
+     */
+    @Override
+    @Transactional
+    public void insertCustomers(List<Customer> customers) {
+        var sql = """
+                INSERT INTO customer (id, name, email, password, age, gender)
+                VALUES(?, ?, ?, ?, ?, ?)
+                """;
+        List<Integer> ids = nextIds(customers.size());
+        for (int i = 0; i < customers.size(); i++) {
+            customers.get(i).setId(ids.get(i));
+        }
+        jdbcTemplate.batchUpdate(sql, customers, BATCH_SIZE, (ps, customer) -> {
+            ps.setInt(1, customer.getId());
+            ps.setString(2, customer.getName());
+            ps.setString(3, customer.getEmail());
+            ps.setString(4, customer.getPassword());
+            ps.setInt(5, customer.getAge());
+            ps.setString(6, customer.getGender().toString());
+        });
+    }
+
+    // see CustomerIdPool for why the column default is not used
+    private List<Integer> nextIds(int count) {
+        List<Integer> ids = idPool.take(count);
+        int missing = count - ids.size();
+        if (missing > 0) {
+            List<Long> highs = jdbcTemplate.queryForList(
+                    "SELECT nextval('customer_id_seq') FROM generate_series(1, ?)",
+                    Long.class,
+                    CustomerIdPool.blocksFor(missing)
+            );
+            ids.addAll(idPool.takeFrom(highs, missing));
+        }
+        return ids;
+    }
+
     @Override
     public void updateCustomer(Customer customer) {
         var sql = """
@@ -89,6 +223,16 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
         return count != null && count > 0;
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        var sql = """
+                SELECT email
+                FROM customer
+                WHERE email = ANY(?)
+                """;
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, (Object) emails.toArray(String[]::new)));
+    }
+
     @Override
     public boolean existsPersonWithId(Integer id) {
         var sql = """
@@ -130,4 +274,14 @@ public class CustomerJDBCDataAccessService implements CustomerDAO{
                 """;
         jdbcTemplate.update(sql, profile_image_id, customerId);
     }
+
+    @Override
+    public void updateCustomerPassword(Integer customerId, String password) {
+        var sql = """
+                UPDATE customer
+                SET password = ?
+                WHERE id = ?
+                """;
+        jdbcTemplate.update(sql, password, customerId);
+    }
 }
@@ -1,19 +1,33 @@
 package com.amigoscode.customer;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository("jpa")
 public class CustomerJPADataAccessService implements CustomerDAO{
 
     private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
 
-    public CustomerJPADataAccessService(CustomerRepository customerRepository) {
+    public CustomerJPADataAccessService(CustomerRepository customerRepository, EntityManager entityManager) {
         this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -22,16 +36,112 @@ public class CustomerJPADataAccessService implements CustomerDAO{
         return page.getContent();
     }
 
+    @Override
+    public List<CustomerDTO> selectCustomerDTOsAfter(Integer lastCustomerId, int limit) {
+        return this.customerRepository.findCustomerDTOsByIdGreaterThan(lastCustomerId, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> selectCustomerDTOs(CustomerFilter filter, CustomerSort sort, CustomerCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CustomerDTO> query = cb.createQuery(CustomerDTO.class);
+        Root<Customer> customer = query.from(Customer.class);
+        query.select(cb.construct(
+                CustomerDTO.class,
+                customer.get("id"),
+                customer.get("name"),
+                customer.get("email"),
+                customer.get("gender"),
+                customer.get("age"),
+                customer.get("profileImageId")
+        ));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.gender() != null) {
+            predicates.add(cb.equal(customer.get("gender"), filter.gender()));
+        }
+        if (filter.minAge() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(customer.get("age"), filter.minAge()));
+        }
+        if (filter.maxAge() != null) {
+            predicates.add(cb.lessThanOrEqualTo(customer.get("age"), filter.maxAge()));
+        }
+        Expression<Integer> id = customer.get("id");
+        if (after != null) {
+            predicates.add(switch (sort.field()) {
+                case ID -> beyond(cb, id, after.lastId(), sort.descending(), false);
+                case NAME -> beyond(cb, customer.get("name"), (String) after.lastValue(), id, after.lastId(), sort.descending());
+                case AGE -> beyond(cb, customer.get("age"), (Integer) after.lastValue(), id, after.lastId(), sort.descending());
+            });
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        List<Order> orders = new ArrayList<>();
+        if (sort.field() != CustomerSort.Field.ID) {
+            Expression<?> field = customer.get(sort.field().getColumn());
+            orders.add(sort.descending() ? cb.desc(field) : cb.asc(field));
+        }
+        orders.add(sort.descending() ? cb.desc(id) : cb.asc(id));
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // (field, id) > (value, lastId), spelled out; the inclusive bound on field alone is
+    // redundant but lets the database use it as an index range condition
+    private static <Y extends Comparable<? super Y>> Predicate beyond(CriteriaBuilder cb, Expression<Y> field, Y value,
+                                                                     Expression<Integer> id, Integer lastId,
+                                                                     boolean descending) {
+        return cb.and(
+                beyond(cb, field, value, descending, true),
+                cb.or(
+                        beyond(cb, field, value, descending, false),
+                        cb.and(
+                                cb.equal(field, value),
+                                beyond(cb, id, lastId, descending, false)
+                        )
+                )
+        );
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate beyond(CriteriaBuilder cb, Expression<Y> expression, Y value,
+                                                                     boolean descending, boolean inclusive) {
+        if (descending) {
+            return inclusive ? cb.lessThanOrEqualTo(expression, value) : cb.lessThan(expression, value);
+        }
+        return inclusive ? cb.greaterThanOrEqualTo(expression, value) : cb.greaterThan(expression, value);
+    }
+
     @Override
     public Optional<Customer> selectCustomerById(Integer id) {
         return this.customerRepository.findById(id);
     }
 
+    @Override
+    public Optional<CustomerDTO> selectCustomerDTOById(Integer id) {
+        return this.customerRepository.findCustomerDTOById(id);
+    }
+
+    @Override
+    public List<CustomerDTO> searchCustomers(String query, int limit) {
+        return this.customerRepository.searchCustomerDTOs(
+                query, CustomerSearchPattern.contains(query), PageRequest.ofSize(limit)
+        );
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         this.customerRepository.save(customer);
     }
 
+    @Override
+    public void insertCustomers(List<Customer> customers) {
+        this.customerRepository.saveAll(customers);
+    }
+
     @Override
     public void updateCustomer(Customer customer) {
         this.customerRepository.save(customer);
@@ -42,6 +152,11 @@ public class CustomerJPADataAccessService implements CustomerDAO{
         return this.customerRepository.existsCustomerByEmail(email);
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return this.customerRepository.findExistingEmails(emails);
+    }
+
     @Override
     public boolean existsPersonWithId(Integer id) {
         return this.customerRepository.existsCustomerById(id);
@@ -59,4 +174,9 @@ public class CustomerJPADataAccessService implements CustomerDAO{
     public void updateCustomerProfileImageId(String profileImageId, Integer customerId) {
         this.customerRepository.updateProfileImageId(profileImageId, customerId);
     }
+
+    @Override
+    public void updateCustomerPassword(Integer customerId, String password) {
+        this.customerRepository.updatePassword(customerId, password);
+    }
 }
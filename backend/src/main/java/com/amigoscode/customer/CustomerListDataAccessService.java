@@ -3,8 +3,12 @@ package com.amigoscode.customer;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Repository("list")
 public class CustomerListDataAccessService implements CustomerDAO{
@@ -33,6 +37,43 @@ public class CustomerListDataAccessService implements CustomerDAO{
         return customers;
     }
 
+    @Override
+    public List<CustomerDTO> selectCustomerDTOsAfter(Integer lastCustomerId, int limit) {
+        return customers.stream()
+                .filter(customer -> customer.getId() > lastCustomerId)
+                .sorted(Comparator.comparing(Customer::getId))
+                .limit(limit)
+                .map(CustomerListDataAccessService::toDTO)
+                .toList();
+    }
+
+    @Override
+    public List<CustomerDTO> selectCustomerDTOs(CustomerFilter filter, CustomerSort sort, CustomerCursor after, int limit) {
+        Comparator<CustomerDTO> order = switch (sort.field()) {
+            case ID -> Comparator.comparing(CustomerDTO::id);
+            case NAME -> Comparator.comparing(CustomerDTO::name).thenComparing(CustomerDTO::id);
+            case AGE -> Comparator.comparing(CustomerDTO::age).thenComparing(CustomerDTO::id);
+        };
+        if (sort.descending()) {
+            order = order.reversed();
+        }
+        Comparator<CustomerDTO> comparator = order;
+        CustomerDTO cursor = after == null ? null : switch (sort.field()) {
+            case ID -> new CustomerDTO(after.lastId(), null, null, null, null, null);
+            case NAME -> new CustomerDTO(after.lastId(), (String) after.lastValue(), null, null, null, null);
+            case AGE -> new CustomerDTO(after.lastId(), null, null, null, (Integer) after.lastValue(), null);
+        };
+        return customers.stream()
+                .map(CustomerListDataAccessService::toDTO)
+                .filter(customer -> filter.gender() == null || filter.gender() == customer.gender())
+                .filter(customer -> filter.minAge() == null || customer.age() >= filter.minAge())
+                .filter(customer -> filter.maxAge() == null || customer.age() <= filter.maxAge())
+                .filter(customer -> cursor == null || comparator.compare(customer, cursor) > 0)
+                .sorted(comparator)
+                .limit(limit)
+                .toList();
+    }
+
     @Override
     public Optional<Customer> selectCustomerById(Integer id) {
         return customers.stream()
@@ -40,6 +81,23 @@ public class CustomerListDataAccessService implements CustomerDAO{
                 .findFirst();
     }
 
+    @Override
+    public Optional<CustomerDTO> selectCustomerDTOById(Integer id) {
+        return selectCustomerById(id).map(CustomerListDataAccessService::toDTO);
+    }
+
+    @Override
+    public List<CustomerDTO> searchCustomers(String query, int limit) {
+        String needle = query.toLowerCase();
+        return customers.stream()
+                .filter(customer -> customer.getName().toLowerCase().contains(needle)
+                        || customer.getEmail().toLowerCase().contains(needle))
+                .sorted(Comparator.comparing(Customer::getId))
+                .limit(limit)
+                .map(CustomerListDataAccessService::toDTO)
+                .toList();
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         Long id = customers.stream().count() + 1;
@@ -47,6 +105,11 @@ public class CustomerListDataAccessService implements CustomerDAO{
         customers.add(customer);
     }
 
+    @Override
+    public void insertCustomers(List<Customer> newCustomers) {
+        newCustomers.forEach(this::insertCustomer);
+    }
+
     @Override
     public void updateCustomer(Customer customer) {
         int index = 0;
@@ -66,6 +129,14 @@ public class CustomerListDataAccessService implements CustomerDAO{
                 .anyMatch(customer -> customer.getEmail().equals(email));
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return customers.stream()
+                .map(Customer::getEmail)
+                .filter(emails::contains)
+                .collect(Collectors.toSet());
+    }
+
     @Override
     public boolean existsPersonWithId(Integer id) {
         return customers.stream()
@@ -88,4 +159,23 @@ public class CustomerListDataAccessService implements CustomerDAO{
     public void updateCustomerProfileImageId(String profileImageId, Integer customerId) {
         //todo: Implement this :)
     }
+
+    @Override
+    public void updateCustomerPassword(Integer customerId, String password) {
+        customers.stream()
+                .filter(c -> c.getId().equals(customerId))
+                .findFirst()
+                .ifPresent(c -> c.setPassword(password));
+    }
+
+    private static CustomerDTO toDTO(Customer customer) {
+        return new CustomerDTO(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getGender(),
+                customer.getAge(),
+                customer.getProfileImageId()
+        );
+    }
 }
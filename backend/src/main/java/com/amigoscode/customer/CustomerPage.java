@@ -0,0 +1,9 @@
+package com.amigoscode.customer;
+
+import java.util.List;
+
+public record CustomerPage(
+        List<CustomerDTO> customers,
+        String nextCursor
+) {
+}
@@ -0,0 +1,32 @@
+package com.amigoscode.customer;
+
+public final class CustomerRegistrationValidator {
+
+    private CustomerRegistrationValidator() {
+    }
+
+    /**
+     * @return the reason the request is invalid, or {@code null} when it can be registered
+     */
+    public static String validate(CustomerRegistrationRequest request) {
+        if (request == null) {
+            return "Customer must not be null";
+        }
+        if (request.name() == null || request.name().isBlank()) {
+            return "Customer name is required";
+        }
+        if (request.email() == null || request.email().isBlank()) {
+            return "Customer email is required";
+        }
+        if (request.password() == null || request.password().isBlank()) {
+            return "Customer password is required";
+        }
+        if (request.age() == null || request.age() < 1) {
+            return "Customer age must be greater than zero";
+        }
+        if (request.gender() == null) {
+            return "Customer gender is required";
+        }
+        return null;
+    }
+}
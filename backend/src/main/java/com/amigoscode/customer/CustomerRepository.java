@@ -1,18 +1,53 @@
 package com.amigoscode.customer;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Transactional
 public interface CustomerRepository extends JpaRepository <Customer, Integer> {
     boolean existsCustomerByEmail(String email);
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN ?1")
+    Set<String> findExistingEmails(Collection<String> emails);
     boolean existsCustomerById(Integer id);
     Optional<Customer> findCustomerByEmail(String email);
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.amigoscode.customer.CustomerDTO(c.id, c.name, c.email, c.gender, c.age, c.profileImageId)
+            FROM Customer c
+            WHERE c.id > ?1
+            ORDER BY c.id
+            """)
+    List<CustomerDTO> findCustomerDTOsByIdGreaterThan(Integer id, Pageable pageable);
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.amigoscode.customer.CustomerDTO(c.id, c.name, c.email, c.gender, c.age, c.profileImageId)
+            FROM Customer c
+            WHERE c.id = ?1
+            """)
+    Optional<CustomerDTO> findCustomerDTOById(Integer id);
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.amigoscode.customer.CustomerDTO(c.id, c.name, c.email, c.gender, c.age, c.profileImageId)
+            FROM Customer c
+            WHERE c.name ILIKE ?2 ESCAPE '\\' OR c.email ILIKE ?2 ESCAPE '\\'
+            ORDER BY greatest(
+                    cast(function('similarity', c.name, ?1) as Float),
+                    cast(function('similarity', c.email, ?1) as Float)
+            ) DESC, c.id
+            """)
+    List<CustomerDTO> searchCustomerDTOs(String query, String pattern, Pageable pageable);
     @Modifying(clearAutomatically = true)
     @Query("UPDATE Customer c SET c.profileImageId = ?1 WHERE c.id = ?2")
     int updateProfileImageId(String profileImageId, Integer customerId);
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Customer c SET c.password = ?2 WHERE c.id = ?1")
+    int updatePassword(Integer customerId, String password);
 }
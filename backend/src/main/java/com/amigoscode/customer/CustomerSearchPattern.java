@@ -0,0 +1,26 @@
+package com.amigoscode.customer;
+
+/**
+ * Builds the {@code ILIKE} pattern for customer search. Wildcards typed by the user are
+ * escaped so they match literally, and the pattern is never anchored, which keeps it
+ * answerable by the trigram indexes on {@code name} and {@code email}.
+ */
+final class CustomerSearchPattern {
+
+    static final char ESCAPE = '\\';
+
+    private CustomerSearchPattern() {
+    }
+
+    static String contains(String query) {
+        StringBuilder pattern = new StringBuilder(query.length() + 2).append('%');
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
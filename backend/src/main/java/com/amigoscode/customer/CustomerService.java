@@ -4,49 +4,120 @@ import com.amigoscode.exception.DuplicateResourceException;
 import com.amigoscode.exception.RequestValidationException;
 import com.amigoscode.exception.ResourceNotFoundException;
 import com.amigoscode.s3.S3Buckets;
+import com.amigoscode.s3.S3AsyncService;
+import com.amigoscode.s3.S3ObjectStream;
+import com.amigoscode.s3.S3ObjectCache;
 import com.amigoscode.s3.S3Service;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class CustomerService {
 
+    // shorter queries produce no trigram, so the search indexes could not be used
+    static final int MIN_SEARCH_LENGTH = 3;
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
+
     private final CustomerDAO customerDAO;
     private final PasswordEncoder passwordEncoder;
-    private final CustomerDTOMapper customerDTOMapper;
-    private final S3Service s3Service;
+    private final S3ObjectCache s3ObjectCache;
+    private final S3AsyncService s3AsyncService;
     private final S3Buckets buckets;
+    private final CustomerPagingProperties pagingProperties;
+    private final CustomerSuggestionIndex suggestionIndex;
+    private final CustomerChangePublisher changePublisher;
+    private final ProfileImageJDBCDataAccessService profileImageDAO;
+    private final ProfileImageProcessor profileImageProcessor;
+    // runs the database work that follows an upload, off the S3 client's threads
+    private final Executor taskExecutor;
 
-    public CustomerService(@Qualifier("jpa") CustomerDAO customerDAO, PasswordEncoder passwordEncoder, CustomerDTOMapper customerDTOMapper, S3Service s3Service, S3Buckets buckets) {
+    public CustomerService(@Qualifier("cached") CustomerDAO customerDAO, PasswordEncoder passwordEncoder, S3ObjectCache s3ObjectCache, S3AsyncService s3AsyncService, S3Buckets buckets, CustomerPagingProperties pagingProperties, CustomerSuggestionIndex suggestionIndex, CustomerChangePublisher changePublisher, ProfileImageJDBCDataAccessService profileImageDAO, ProfileImageProcessor profileImageProcessor, @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
         this.customerDAO = customerDAO;
         this.passwordEncoder = passwordEncoder;
-        this.customerDTOMapper = customerDTOMapper;
-        this.s3Service = s3Service;
+        this.s3ObjectCache = s3ObjectCache;
+        this.s3AsyncService = s3AsyncService;
         this.buckets = buckets;
+        this.pagingProperties = pagingProperties;
+        this.suggestionIndex = suggestionIndex;
+        this.changePublisher = changePublisher;
+        this.profileImageDAO = profileImageDAO;
+        this.profileImageProcessor = profileImageProcessor;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public CustomerPage getCustomers(CustomerFilter filter, CustomerSort sort, String cursor, Integer size){
+        if(filter.minAge() != null && filter.maxAge() != null && filter.minAge() > filter.maxAge()){
+            throw new RequestValidationException("Minimum age must not be greater than maximum age");
+        }
+        int pageSize = resolvePageSize(size);
+        CustomerCursor after = cursor == null || cursor.isBlank() ? null : CustomerCursor.decode(cursor, sort);
+        // read one extra row so the last page does not hand out a cursor to an empty page
+        List<CustomerDTO> customers = customerDAO.selectCustomerDTOs(filter, sort, after, pageSize + 1);
+        String nextCursor = null;
+        if(customers.size() > pageSize){
+            customers = customers.subList(0, pageSize);
+            nextCursor = CustomerCursor.after(sort, customers.get(pageSize - 1)).encode();
+        }
+        return new CustomerPage(customers, nextCursor);
+    }
+
+    public List<CustomerDTO> searchCustomers(String query, Integer limit){
+        String trimmed = query == null ? "" : query.trim();
+        if(trimmed.length() < MIN_SEARCH_LENGTH){
+            throw new RequestValidationException(
+                    "Search query must be at least %s characters".formatted(MIN_SEARCH_LENGTH)
+            );
+        }
+        return customerDAO.searchCustomers(trimmed, resolvePageSize(limit));
+    }
+
+    public List<CustomerSuggestion> suggestCustomers(String query, Integer limit){
+        if(limit != null && limit < 1){
+            throw new RequestValidationException("Limit must be greater than zero");
+        }
+        return suggestionIndex.suggest(query, limit == null ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS));
     }
 
-    public List<CustomerDTO> getAllCustomers(){
-        return customerDAO
-                .selectAllCustomers()
-                .stream()
-                .map(customerDTOMapper)
-                .collect(Collectors.toList());
+    private int resolvePageSize(Integer size){
+        if(size == null){
+            return pagingProperties.getDefaultSize();
+        }
+        if(size < 1){
+            throw new RequestValidationException("Page size must be greater than zero");
+        }
+        return Math.min(size, pagingProperties.getMaxSize());
     }
     public CustomerDTO getCustomer(Integer id){
-        return customerDAO.selectCustomerById(id)
-                .map(customerDTOMapper)
+        return customerDAO.selectCustomerDTOById(id)
                 .orElseThrow(
                 () -> new ResourceNotFoundException("Customer with id [%s] not found!".formatted(id))
         );
     }
-    public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest){
+    public Integer addCustomer(CustomerRegistrationRequest customerRegistrationRequest){
+        // reject bad requests before they cost a password hash
+        String error = CustomerRegistrationValidator.validate(customerRegistrationRequest);
+        if(error != null){
+            throw new RequestValidationException(error);
+        }
         String email = customerRegistrationRequest.email();
         if(customerDAO.existsPersonWithEmail(email)){
             throw new DuplicateResourceException("Customer with email [%s] already exists!".formatted(email));
@@ -59,6 +130,10 @@ public class CustomerService {
                 customerRegistrationRequest.gender()
         );
         customerDAO.insertCustomer(customer);
+        suggestionIndex.put(customer.getId(), customer.getName(), customer.getEmail());
+        // other nodes may have cached the email as unknown
+        changePublisher.customerChanged(customer.getId(), customer.getEmail());
+        return customer.getId();
     }
 
     public void updateCustomer(Integer id, CustomerUpdateRequest customerUpdateRequest){
@@ -91,6 +166,8 @@ public class CustomerService {
             throw new RequestValidationException("Customer information not change");
         }
         customerDAO.updateCustomer(customer);
+        suggestionIndex.put(customer.getId(), customer.getName(), customer.getEmail());
+        changePublisher.customerChanged(customer.getId(), customer.getEmail());
     }
 
     public void deleteCustomer(Integer id){
@@ -98,30 +175,138 @@ public class CustomerService {
             throw new ResourceNotFoundException("Customer with id [%s] not found!".formatted(id));
         }
         customerDAO.deleteCustomerById(id);
+        suggestionIndex.remove(id);
+        changePublisher.customerChanged(id, null);
     }
 
-    public void uploadCustomerProfileImage(Integer customerId, MultipartFile file) {
+    /**
+     * Checks the customer and stages the file on the calling thread. The variants are produced
+     * on the {@link ProfileImageProcessor}'s pool and uploaded in parallel, and the profile image
+     * id is updated once all of them are stored.
+     */
+    public CompletableFuture<Void> uploadCustomerProfileImage(Integer customerId, MultipartFile file) {
         if(!customerDAO.existsPersonWithId(customerId)){
             throw new ResourceNotFoundException("Customer with id [%s] not found!".formatted(customerId));
         }
         String profileImageId = UUID.randomUUID().toString();
+        String bucket = buckets.getCustomer();
+        Path upload = stageProfileImage(file);
+        ProfileImage profileImage;
+        CompletableFuture<Map<ProfileImageVariant, Path>> variants;
         try {
-            s3Service.putObject(buckets.getCustomer(), "profile-images/%s/%s".formatted(customerId, profileImageId), file.getBytes());
+            profileImage = new ProfileImage(
+                    profileImageId, customerId, ProfileImage.contentHash(upload), MediaType.IMAGE_JPEG_VALUE, Instant.now(), true
+            );
+            variants = profileImageProcessor.process(upload);
         } catch (IOException e) {
+            deleteStagedProfileImage(upload);
             throw new RuntimeException("failed to upload customer profile image", e);
+        } catch (RuntimeException e) {
+            deleteStagedProfileImage(upload);
+            throw e;
         }
-        customerDAO.updateCustomerProfileImageId(profileImageId, customerId);
+        return variants
+                .whenComplete((result, e) -> deleteStagedProfileImage(upload))
+                .thenCompose(files -> CompletableFuture.allOf(files.entrySet().stream()
+                                .map(variant -> s3AsyncService.putObject(
+                                        bucket, variant.getKey().key(customerId, profileImageId), variant.getValue(), profileImage.contentType()
+                                ))
+                                .toArray(CompletableFuture[]::new))
+                        .whenComplete((result, e) -> ProfileImageProcessor.delete(files.values())))
+                .thenRunAsync(() -> {
+                    profileImageDAO.insertProfileImage(profileImage);
+                    customerDAO.updateCustomerProfileImageId(profileImageId, customerId);
+                    // earlier versions are rarely wanted once replaced
+                    s3ObjectCache.invalidate(bucket, ProfileImage.keyPrefix(customerId));
+                    changePublisher.customerChanged(customerId, null);
+                }, taskExecutor);
     }
 
-    public byte[] getCustomerProfileImage(Integer customerId) {
+    /**
+     * Moves the uploaded part to a file of our own, as the container deletes its copy once the
+     * request completes. Parts are already on disk, so this is usually a rename.
+     */
+    private static Path stageProfileImage(MultipartFile file) {
+        Path upload = null;
+        try {
+            upload = Files.createTempFile("profile-image-", null);
+            file.transferTo(upload.toFile());
+            return upload;
+        } catch (IOException e) {
+            if(upload != null){
+                deleteStagedProfileImage(upload);
+            }
+            throw new RuntimeException("failed to upload customer profile image", e);
+        }
+    }
+
+    private static void deleteStagedProfileImage(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Opens a variant of the resolved profile image, or the requested range of it, for
+     * streaming to the client. Images uploaded before variants existed are served as uploaded.
+     */
+    public S3ObjectStream getCustomerProfileImage(ResolvedProfileImage profileImage, ProfileImageVariant variant, String range) {
+        return s3ObjectCache.getObjectStream(
+                buckets.getCustomer(),
+                profileImage.key(variant),
+                S3Service.singleByteRange(range)
+        );
+    }
+
+    /**
+     * Looks up the customer's current profile image, or the requested version of it, along
+     * with what is recorded about it.
+     */
+    public ResolvedProfileImage resolveProfileImage(Integer customerId, String profileImageId) {
         Customer customer = customerDAO.selectCustomerById(customerId)
                 .orElseThrow(
                         () -> new ResourceNotFoundException("Customer with id [%s] not found!".formatted(customerId))
                 );
-        String profileImageId = customer.getProfileImageId();
-        if(profileImageId == null || profileImageId.isBlank()){
-            throw new ResourceNotFoundException("Customer with id [%s] profile image not found!".formatted(customerId));
+        String currentProfileImageId = customer.getProfileImageId();
+        if(profileImageId == null || profileImageId.equals(currentProfileImageId)){
+            if(currentProfileImageId == null || currentProfileImageId.isBlank()){
+                throw new ResourceNotFoundException("Customer with id [%s] profile image not found!".formatted(customerId));
+            }
+            return new ResolvedProfileImage(customerId, currentProfileImageId, profileImageDAO.selectProfileImageById(currentProfileImageId));
+        }
+        // earlier uploads stay available under their own id
+        ProfileImage earlier = profileImageDAO.selectProfileImageById(profileImageId)
+                .filter(profileImage -> customerId.equals(profileImage.customerId()))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Customer with id [%s] profile image [%s] not found!".formatted(customerId, profileImageId)
+                ));
+        return new ResolvedProfileImage(customerId, profileImageId, Optional.of(earlier));
+    }
+
+    /**
+     * Images uploaded before variants existed are served with the content type their client
+     * sent, so anything that is not an image is replaced with JPEG. Images stored before content
+     * types were recorded come back as {@code binary/octet-stream} and are JPEGs too.
+     */
+    public static MediaType profileImageContentType(String contentType) {
+        try {
+            MediaType mediaType = contentType == null ? null : MediaType.parseMediaType(contentType);
+            return mediaType != null && "image".equals(mediaType.getType()) && !mediaType.isWildcardSubtype()
+                    ? mediaType
+                    : MediaType.IMAGE_JPEG;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.IMAGE_JPEG;
         }
-        return s3Service.getObject(buckets.getCustomer(), "profile-images/%s/%s".formatted(customerId, customer.getProfileImageId()));
+    }
+
+    /**
+     * A given version of a profile image never changes and may be cached for good, while the
+     * current image has to be revalidated on every use.
+     */
+    public static CacheControl profileImageCacheControl(String profileImageId) {
+        return profileImageId == null
+                ? CacheControl.noCache().cachePublic()
+                : CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
     }
 }
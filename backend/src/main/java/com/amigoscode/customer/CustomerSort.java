@@ -0,0 +1,71 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+
+import java.util.Arrays;
+
+/**
+ * Sort order of the customer listing. Every order is made total by breaking ties on
+ * {@code id}, which is what keyset pagination over {@code (field, id)} relies on.
+ */
+public record CustomerSort(
+        Field field,
+        Direction direction
+) {
+    public static final CustomerSort DEFAULT = new CustomerSort(Field.ID, Direction.ASC);
+
+    public enum Field {
+        ID("id"),
+        NAME("name"),
+        AGE("age");
+
+        // column and entity attribute share the name
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        Comparable<?> valueOf(CustomerDTO customer) {
+            return switch (this) {
+                case ID -> customer.id();
+                case NAME -> customer.name();
+                case AGE -> customer.age();
+            };
+        }
+
+        Comparable<?> parse(String value) {
+            return switch (this) {
+                case ID, AGE -> Integer.valueOf(value);
+                case NAME -> value;
+            };
+        }
+    }
+
+    public enum Direction {
+        ASC,
+        DESC
+    }
+
+    public boolean descending() {
+        return direction == Direction.DESC;
+    }
+
+    public static CustomerSort from(String field, String direction) {
+        return new CustomerSort(
+                field == null ? DEFAULT.field() : parse(Field.values(), field, "sort"),
+                direction == null ? DEFAULT.direction() : parse(Direction.values(), direction, "direction")
+        );
+    }
+
+    private static <E extends Enum<E>> E parse(E[] values, String value, String name) {
+        return Arrays.stream(values)
+                .filter(candidate -> candidate.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException("Unsupported %s [%s]".formatted(name, value)));
+    }
+}
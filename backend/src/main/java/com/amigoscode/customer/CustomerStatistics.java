@@ -0,0 +1,12 @@
+package com.amigoscode.customer;
+
+import java.util.List;
+import java.util.Map;
+
+public record CustomerStatistics(
+        long total,
+        boolean approximate,
+        Map<Gender, Long> genders,
+        List<CustomerAgeBucket> ages
+) {
+}
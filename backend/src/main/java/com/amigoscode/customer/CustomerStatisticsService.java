@@ -0,0 +1,118 @@
+package com.amigoscode.customer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serves customer statistics from {@code customer_statistics}, a summary table with one row per
+ * gender and age decade that database triggers keep in step with every write to {@code customer}.
+ * Reading it costs the same whatever the size of the customer table.
+ */
+@Service
+public class CustomerStatisticsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerStatisticsService.class);
+    static final int AGE_BUCKET_SIZE = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerStatisticsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public CustomerStatistics getStatistics(boolean approximate) {
+        if (approximate) {
+            // planner estimate maintained by VACUUM / ANALYZE, -1 while the table was never analyzed
+            Long estimate = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = 'customer'::regclass",
+                    Long.class
+            );
+            if (estimate != null && estimate >= 0) {
+                return new CustomerStatistics(estimate, true, Map.of(), List.of());
+            }
+        }
+        Map<Gender, Long> genders = new EnumMap<>(Gender.class);
+        Map<Integer, Long> ages = new TreeMap<>();
+        jdbcTemplate.query("""
+                SELECT gender, age_bucket, customer_count
+                FROM customer_statistics
+                WHERE customer_count <> 0
+                """, rs -> {
+            long count = rs.getLong("customer_count");
+            genders.merge(Gender.valueOf(rs.getString("gender")), count, Long::sum);
+            ages.merge(rs.getInt("age_bucket"), count, Long::sum);
+        });
+        List<CustomerAgeBucket> histogram = new ArrayList<>(ages.size());
+        ages.forEach((from, count) -> histogram.add(new CustomerAgeBucket(from, from + AGE_BUCKET_SIZE - 1, count)));
+        long total = genders.values().stream().mapToLong(Long::longValue).sum();
+        return new CustomerStatistics(total, false, genders, histogram);
+    }
+
+    /**
+     * Repairs any drift between the summary and the customer table (e.g. after a manual
+     * {@code TRUNCATE}, which the triggers do not see). Only one node reconciles at a time, and
+     * writers are not blocked: the drift is measured in a single statement, so the recount and
+     * the summary are read from the same snapshot, and then added to the live counts. Writes
+     * committed in between changed both sides alike, so the drift still holds. The recount is
+     * an index-only scan over {@code (gender, age, id)}.
+     */
+    @Scheduled(
+            fixedDelayString = "${customer.statistics.reconcile-interval:PT1H}",
+            initialDelayString = "${customer.statistics.reconcile-interval:PT1H}"
+    )
+    public void reconcile() {
+        long started = System.nanoTime();
+        Integer drifted = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtext('customer_statistics_reconcile'))",
+                    Boolean.class
+            );
+            if (!Boolean.TRUE.equals(locked)) {
+                return null;
+            }
+            jdbcTemplate.execute("""
+                    CREATE TEMPORARY TABLE customer_statistics_drift ON COMMIT DROP AS
+                    SELECT gender, age_bucket, sum(customer_count) AS drift
+                    FROM (
+                        SELECT gender, (age / %d) * %d AS age_bucket, count(*) AS customer_count
+                        FROM customer
+                        GROUP BY 1, 2
+                        UNION ALL
+                        SELECT gender, age_bucket, -customer_count
+                        FROM customer_statistics
+                    ) counts
+                    GROUP BY 1, 2
+                    HAVING sum(customer_count) <> 0
+                    """.formatted(AGE_BUCKET_SIZE, AGE_BUCKET_SIZE));
+            // buckets in key order, like the triggers, so neither side can deadlock the other
+            return jdbcTemplate.update("""
+                    INSERT INTO customer_statistics AS s (gender, age_bucket, customer_count)
+                    SELECT gender, age_bucket, drift
+                    FROM customer_statistics_drift
+                    ORDER BY 1, 2
+                    ON CONFLICT (gender, age_bucket) DO UPDATE SET customer_count = s.customer_count + EXCLUDED.customer_count
+                    """);
+        });
+        if (drifted == null) {
+            LOGGER.debug("Customer statistics are being reconciled by another node");
+            return;
+        }
+        if (drifted > 0) {
+            LOGGER.warn("Customer statistics had drifted, repaired {} buckets", drifted);
+        }
+        LOGGER.debug("Reconciled customer statistics in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+}
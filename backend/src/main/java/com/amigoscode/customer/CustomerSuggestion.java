@@ -0,0 +1,8 @@
+package com.amigoscode.customer;
+
+public record CustomerSuggestion(
+        Integer id,
+        String name,
+        String email
+) {
+}
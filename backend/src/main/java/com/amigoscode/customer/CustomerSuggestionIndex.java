@@ -0,0 +1,234 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process prefix index for customer typeahead. Every customer contributes a few search
+ * terms (the full name, each later word of the name and the email), stored lower-cased as
+ * packed {@code term + '\0' + id} keys in one sorted set, so a prefix lookup is a single
+ * ordered range scan that stops at the first key no longer starting with the prefix.
+ * <p>
+ * Lookups are lock-free. Writes are serialized, which is fine for the rate at which
+ * customers change. A skip list node costs about 72 bytes per key on top of the text; a packed
+ * sorted array would cost less but has to be rebuilt on every write.
+ */
+@Component
+public class CustomerSuggestionIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerSuggestionIndex.class);
+    private static final char SEPARATOR = '\0';
+    private static final int LOAD_PAGE_SIZE = 1000;
+    // rough shallow sizes on a 64-bit JVM with compressed oops: String + byte[] headers and a
+    // skip list node (plus its share of index nodes) per key; record, map node and Integer per customer
+    private static final long KEY_OVERHEAD_BYTES = 72;
+    private static final long CUSTOMER_OVERHEAD_BYTES = 160;
+
+    private final CustomerDAO customerDAO;
+    private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+    private final Map<Integer, CustomerSuggestion> customers = new ConcurrentHashMap<>();
+    private final AtomicInteger keyCount = new AtomicInteger();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    // customers deleted while a load is paging, which a page read before the delete still holds
+    private final Set<Integer> tombstones = new HashSet<>();
+    private int loading;
+    private final Timer lookupTimer;
+
+    public CustomerSuggestionIndex(@Qualifier("jpa") CustomerDAO customerDAO, MeterRegistry meterRegistry) {
+        this.customerDAO = customerDAO;
+        this.lookupTimer = Timer.builder("customer.suggest.lookup")
+                .description("Time to answer a customer typeahead lookup from the prefix index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("customer.suggest.index.memory", estimatedBytes, AtomicLong::get)
+                .description("Estimated heap used by the customer prefix index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("customer.suggest.index.keys", keyCount, AtomicInteger::get)
+                .description("Number of search terms in the customer prefix index")
+                .register(meterRegistry);
+        Gauge.builder("customer.suggest.index.customers", customers, Map::size)
+                .description("Number of customers in the customer prefix index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * (Re)loads every customer by paging through the table. Entries are upserted, so writes
+     * that happen while loading are not lost, and customers deleted while loading are not
+     * brought back. Customers indexed before that are no longer in the table are dropped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        Set<Integer> stale;
+        synchronized (this) {
+            loading++;
+            stale = new HashSet<>(customers.keySet());
+        }
+        try {
+            int lastCustomerId = 0;
+            List<CustomerDTO> page;
+            do {
+                page = customerDAO.selectCustomerDTOsAfter(lastCustomerId, LOAD_PAGE_SIZE);
+                for (CustomerDTO customer : page) {
+                    putLoaded(customer);
+                    stale.remove(customer.id());
+                    lastCustomerId = customer.id();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+            stale.forEach(this::remove);
+        } finally {
+            synchronized (this) {
+                // ids are never reused, so a tombstone only has to outlive the loads it overlaps
+                if (--loading == 0) {
+                    tombstones.clear();
+                }
+            }
+        }
+        LOGGER.info("Loaded {} customers into suggestion index in {} ms",
+                customers.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public List<CustomerSuggestion> suggest(String prefix, int limit) {
+        return lookupTimer.record(() -> {
+            String normalized = normalize(prefix);
+            if (normalized.isEmpty()) {
+                return List.of();
+            }
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (String key : keys.tailSet(normalized)) {
+                if (!key.startsWith(normalized) || ids.size() == limit) {
+                    break;
+                }
+                ids.add(Integer.valueOf(key.substring(key.lastIndexOf(SEPARATOR) + 1)));
+            }
+            List<CustomerSuggestion> suggestions = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                CustomerSuggestion suggestion = customers.get(id);
+                // a concurrent delete may have removed the customer after its key was read
+                if (suggestion != null) {
+                    suggestions.add(suggestion);
+                }
+            }
+            return suggestions;
+        });
+    }
+
+    /**
+     * Re-reads a customer that may have been changed or deleted on another node.
+     */
+    public void refresh(Integer id) {
+        customerDAO.selectCustomerDTOById(id).ifPresentOrElse(
+                customer -> put(customer.id(), customer.name(), customer.email()),
+                () -> remove(id)
+        );
+    }
+
+    private synchronized void putLoaded(CustomerDTO customer) {
+        if (!tombstones.contains(customer.id())) {
+            put(customer.id(), customer.name(), customer.email());
+        }
+    }
+
+    public synchronized void put(Integer id, String name, String email) {
+        CustomerSuggestion previous = customers.put(id, new CustomerSuggestion(id, name, email));
+        Set<String> previousKeys = previous == null ? Set.of() : keysOf(previous);
+        Set<String> currentKeys = keysOf(customers.get(id));
+        for (String key : previousKeys) {
+            if (!currentKeys.contains(key) && keys.remove(key)) {
+                keyCount.decrementAndGet();
+                estimatedBytes.addAndGet(-sizeOf(key));
+            }
+        }
+        for (String key : currentKeys) {
+            if (keys.add(key)) {
+                keyCount.incrementAndGet();
+                estimatedBytes.addAndGet(sizeOf(key));
+            }
+        }
+        estimatedBytes.addAndGet(sizeOf(customers.get(id)) - (previous == null ? 0 : sizeOf(previous)));
+    }
+
+    public synchronized void remove(Integer id) {
+        if (loading > 0) {
+            tombstones.add(id);
+        }
+        CustomerSuggestion previous = customers.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String key : keysOf(previous)) {
+            if (keys.remove(key)) {
+                keyCount.decrementAndGet();
+                estimatedBytes.addAndGet(-sizeOf(key));
+            }
+        }
+        estimatedBytes.addAndGet(-sizeOf(previous));
+    }
+
+    private static Set<String> keysOf(CustomerSuggestion customer) {
+        Set<String> terms = new HashSet<>();
+        String name = normalize(customer.name());
+        if (!name.isEmpty()) {
+            terms.add(name);
+            String[] words = name.split("\\s+");
+            for (int i = 1; i < words.length; i++) {
+                terms.add(words[i]);
+            }
+        }
+        String email = normalize(customer.email());
+        if (!email.isEmpty()) {
+            terms.add(email);
+        }
+        Set<String> packed = new HashSet<>(terms.size());
+        for (String term : terms) {
+            packed.add(term + SEPARATOR + customer.id());
+        }
+        return packed;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long sizeOf(String key) {
+        return KEY_OVERHEAD_BYTES + stringBytes(key);
+    }
+
+    private static long sizeOf(CustomerSuggestion customer) {
+        return CUSTOMER_OVERHEAD_BYTES + stringBytes(customer.name()) + stringBytes(customer.email());
+    }
+
+    private static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        // compact strings store Latin-1 text with one byte per character, anything else with two
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return 2L * value.length();
+            }
+        }
+        return value.length();
+    }
+}
@@ -2,16 +2,19 @@ package com.amigoscode.customer;
 
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomerUserDetailsService implements UserDetailsService {
+public class CustomerUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final CustomerDAO customerDAO;
+    private final CustomerChangePublisher changePublisher;
 
-    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDAO customerDAO) {
+    public CustomerUserDetailsService(@Qualifier("cached") CustomerDAO customerDAO, CustomerChangePublisher changePublisher) {
         this.customerDAO = customerDAO;
+        this.changePublisher = changePublisher;
     }
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -19,4 +22,17 @@ public class CustomerUserDetailsService implements UserDetailsService {
                 () -> new UsernameNotFoundException("Username " + username + " not found!")
         );
     }
+
+    /**
+     * Stores a password rehashed after a successful login, when the stored hash uses an
+     * outdated encoding or a lower work factor than the current encoder.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Customer customer = (Customer) user;
+        customerDAO.updateCustomerPassword(customer.getId(), newPassword);
+        changePublisher.customerChanged(customer.getId(), null);
+        customer.setPassword(newPassword);
+        return customer;
+    }
 }
@@ -1,5 +1,16 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.exception.RequestValidationException;
+
+import java.util.Arrays;
+
 public enum Gender {
-    MALE, FEMALE
+    MALE, FEMALE;
+
+    public static Gender from(String value) {
+        return Arrays.stream(values())
+                .filter(gender -> gender.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException("Unsupported gender [%s]".formatted(value)));
+    }
 }
@@ -0,0 +1,86 @@
+package com.amigoscode.customer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * What is recorded about an uploaded profile image, so it can be validated without fetching it
+ * from S3. Every upload is stored under a fresh id and never changes, and its variants are
+ * written once, from it alone, and never rewritten. The hash is of the upload, not of what is
+ * served: an entity tag identifies the source image and the variant, which together pin down
+ * the served bytes. Images uploaded before variants existed are a single object, the upload
+ * itself.
+ */
+public record ProfileImage(
+        String id,
+        Integer customerId,
+        String contentHash,
+        String contentType,
+        Instant uploadedAt,
+        boolean hasVariants
+) {
+
+    public String key(ProfileImageVariant variant) {
+        return hasVariants
+                ? variant.key(customerId, id)
+                : "profile-images/%s/%s".formatted(customerId, id);
+    }
+
+    public String eTag(ProfileImageVariant variant) {
+        return hasVariants
+                ? "\"%s-%s\"".formatted(contentHash, variant.name().toLowerCase())
+                : "\"%s\"".formatted(contentHash);
+    }
+
+    /**
+     * Evaluates an {@code If-None-Match} header against a variant of this image; the weak
+     * comparison applies, as it does for GET requests.
+     */
+    public boolean isMatchedBy(String ifNoneMatch, ProfileImageVariant variant) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String eTag = eTag(variant);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Common to the keys of all of a customer's profile images and their variants.
+     */
+    public static String keyPrefix(Integer customerId) {
+        return "profile-images/%s/".formatted(customerId);
+    }
+
+    /**
+     * Hex encoded SHA-256 of the file, read a buffer at a time.
+     */
+    public static String contentHash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,46 @@
+package com.amigoscode.customer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+@Repository
+public class ProfileImageJDBCDataAccessService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProfileImageRowMapper profileImageRowMapper;
+
+    public ProfileImageJDBCDataAccessService(JdbcTemplate jdbcTemplate, ProfileImageRowMapper profileImageRowMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.profileImageRowMapper = profileImageRowMapper;
+    }
+
+    public void insertProfileImage(ProfileImage profileImage) {
+        var sql = """
+                INSERT INTO profile_image(id, customer_id, content_hash, content_type, uploaded_at, has_variants)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+        jdbcTemplate.update(
+                sql,
+                profileImage.id(),
+                profileImage.customerId(),
+                profileImage.contentHash(),
+                profileImage.contentType(),
+                Timestamp.from(profileImage.uploadedAt()),
+                profileImage.hasVariants()
+        );
+    }
+
+    public Optional<ProfileImage> selectProfileImageById(String id) {
+        var sql = """
+                SELECT id, customer_id, content_hash, content_type, uploaded_at, has_variants
+                FROM profile_image
+                WHERE id = ?
+                """;
+        return jdbcTemplate.query(sql, profileImageRowMapper, id)
+                .stream()
+                .findFirst();
+    }
+}
@@ -0,0 +1,231 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns an uploaded image into the stored {@link ProfileImageVariant}s: decoded once, flattened
+ * to RGB, turned upright by its EXIF orientation, scaled down step by step from the largest
+ * variant to the smallest and written as baseline JPEGs. Nothing else of the upload's metadata
+ * (EXIF, ICC profiles, comments) is carried over.
+ * <p>
+ * Decoding is CPU and memory heavy, so it runs on a bounded pool sized to the number of cores.
+ * Uploads beyond its queue are rejected with a {@link TooManyRequestsException}. Images much
+ * larger than the largest variant are subsampled while being decoded, so a full resolution
+ * bitmap is never held.
+ */
+@Component
+public class ProfileImageProcessor {
+
+    private static final ProfileImageVariant LARGEST = ProfileImageVariant.LARGE;
+    private static final List<ProfileImageVariant> LARGEST_FIRST = List.of(
+            ProfileImageVariant.LARGE, ProfileImageVariant.MEDIUM, ProfileImageVariant.SMALL
+    );
+
+    private final ProfileImageProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final Timer timer;
+
+    public ProfileImageProcessor(ProfileImageProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getThreads(),
+                properties.getThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "profile-image-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.timer = Timer.builder("customer.profile-image.processing")
+                .description("Time to decode an uploaded profile image and write its variants")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("customer.profile-image.queue", executor, e -> e.getQueue().size())
+                .description("Uploaded profile images waiting to be processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the variants of the image to temporary files, which the caller deletes with
+     * {@link #delete} once they are stored.
+     */
+    public CompletableFuture<Map<ProfileImageVariant, Path>> process(Path image) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(() -> processNow(image)), executor);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many profile images being processed, please retry later", Duration.ofSeconds(1));
+        }
+    }
+
+    Map<ProfileImageVariant, Path> processNow(Path image) {
+        Map<ProfileImageVariant, Path> variants = new EnumMap<>(ProfileImageVariant.class);
+        try {
+            BufferedImage scaled = decode(image);
+            for (ProfileImageVariant variant : LARGEST_FIRST) {
+                scaled = scale(scaled, variant.getMaxEdge());
+                Path file = Files.createTempFile("profile-image-" + variant.name().toLowerCase() + "-", ".jpg");
+                variants.put(variant, file);
+                encode(scaled, file);
+            }
+            return variants;
+        } catch (IOException e) {
+            delete(variants.values());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            delete(variants.values());
+            throw e;
+        }
+    }
+
+    public static void delete(Collection<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private BufferedImage decode(Path image) throws IOException {
+        // read ahead, as the metadata is skipped while decoding
+        int orientation = ExifOrientation.read(image);
+        try (ImageInputStream in = ImageIO.createImageInputStream(image.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new RequestValidationException("Profile image must be a JPEG, PNG, GIF or BMP image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > properties.getMaxPixels()) {
+                    throw new RequestValidationException(
+                            "Profile image must not have more than %s pixels".formatted(properties.getMaxPixels())
+                    );
+                }
+                // keeps at least the largest variant's resolution
+                int subsampling = Math.max(1, Math.max(width, height) / LARGEST.getMaxEdge());
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return ExifOrientation.apply(toRgb(reader.read(0, param)), orientation);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new RequestValidationException("Profile image could not be read");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // drops alpha onto white, JPEG has none
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Fits the image within the edge, halving it while it is more than twice as large, as a
+     * single bilinear step from far away skips most of the source pixels. Never scales up.
+     */
+    static BufferedImage scale(BufferedImage image, int maxEdge) {
+        int edge = Math.max(image.getWidth(), image.getHeight());
+        if (edge <= maxEdge) {
+            return image;
+        }
+        double ratio = (double) maxEdge / edge;
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage scaled = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            scaled = draw(scaled, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return scaled;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void encode(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            JPEGImageWriteParam param = (JPEGImageWriteParam) writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getQuality());
+            param.setOptimizeHuffmanTables(true);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.amigoscode.customer;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class ProfileImageRowMapper implements RowMapper<ProfileImage> {
+    @Override
+    public ProfileImage mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ProfileImage(
+                rs.getString("id"),
+                rs.getInt("customer_id"),
+                rs.getString("content_hash"),
+                rs.getString("content_type"),
+                rs.getTimestamp("uploaded_at").toInstant(),
+                rs.getBoolean("has_variants")
+        );
+    }
+}
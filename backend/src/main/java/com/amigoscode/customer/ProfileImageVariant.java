@@ -0,0 +1,41 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+
+import java.util.Arrays;
+
+/**
+ * Sizes a profile image is stored in, each a JPEG that fits within a square of the given edge.
+ */
+public enum ProfileImageVariant {
+    SMALL(192),
+    MEDIUM(512),
+    LARGE(1600);
+
+    private final int maxEdge;
+
+    ProfileImageVariant(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+
+    public String key(Integer customerId, String profileImageId) {
+        return "profile-images/%s/%s/%s".formatted(customerId, profileImageId, name().toLowerCase());
+    }
+
+    /**
+     * @param value a variant name, case insensitive; the largest variant when absent
+     */
+    public static ProfileImageVariant from(String value) {
+        if (value == null) {
+            return LARGE;
+        }
+        return Arrays.stream(values())
+                .filter(variant -> variant.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException("Unsupported profile image size [%s]".formatted(value)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.amigoscode.customer;
+
+import java.util.Optional;
+
+/**
+ * The profile image a download resolved to, looked up once so its headers and its body come
+ * from the same version, even when a new image is uploaded in between. Images uploaded before
+ * their metadata was recorded have none.
+ */
+public record ResolvedProfileImage(Integer customerId, String id, Optional<ProfileImage> metadata) {
+
+    /**
+     * Key of the variant, or of the image as uploaded when it predates variants.
+     */
+    public String key(ProfileImageVariant variant) {
+        return metadata
+                .map(profileImage -> profileImage.key(variant))
+                .orElse("profile-images/%s/%s".formatted(customerId, id));
+    }
+}
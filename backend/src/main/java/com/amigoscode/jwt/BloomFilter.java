@@ -0,0 +1,54 @@
+package com.amigoscode.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size Bloom filter over strings. Both hashes are computed straight from the
+ * characters and the bits live in one {@link AtomicLongArray}, so a lookup allocates nothing.
+ * Concurrent lookups and insertions are safe; entries can not be removed.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Math.max(optimalBits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.numHashes = (int) Math.max(1, Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    void put(String value) {
+        int hash1 = value.hashCode();
+        int hash2 = secondHash(value);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = Math.floorMod(hash1 + i * hash2, numBits);
+            long mask = 1L << bit;
+            bits.accumulateAndGet(bit >>> 6, mask, (current, set) -> current | set);
+        }
+    }
+
+    boolean mightContain(String value) {
+        int hash1 = value.hashCode();
+        int hash2 = secondHash(value);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = Math.floorMod(hash1 + i * hash2, numBits);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a, forced odd so that the probe step is never zero
+    private static int secondHash(String value) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash | 1;
+    }
+}
@@ -1,13 +1,14 @@
 package com.amigoscode.jwt;
 
 import com.amigoscode.customer.CustomerUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -22,10 +23,17 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     private final JWTUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenDenylist tokenDenylist;
+    private final JWTAuthenticationMode mode;
 
-    public JWTAuthenticationFilter(JWTUtil jwtUtil, CustomerUserDetailsService userDetailsService) {
+    public JWTAuthenticationFilter(JWTUtil jwtUtil,
+                                   CustomerUserDetailsService userDetailsService,
+                                   TokenDenylist tokenDenylist,
+                                   @Value("${jwt.authentication-mode:STATELESS}") JWTAuthenticationMode mode) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenDenylist = tokenDenylist;
+        this.mode = mode;
     }
 
     @Override
@@ -42,16 +50,30 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         String jwt = authHeader.substring(7);
-        String subject = jwtUtil.getSubject(jwt);
+        // verifies signature and expiry once; the claims are all we need afterwards
+        Claims claims = jwtUtil.getClaims(jwt);
+        if(tokenDenylist.isRevoked(claims.getId(), claims.getExpiration())){
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String subject = claims.getSubject();
         if(subject != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
-            if(jwtUtil.isTokenValid(jwt, userDetails.getUsername())){
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                  userDetails, null, userDetails.getAuthorities()
-                );
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
+            UsernamePasswordAuthenticationToken authenticationToken = switch (mode) {
+                case STATELESS -> {
+                    JWTPrincipal principal = jwtUtil.getPrincipal(claims);
+                    yield new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.getAuthorities()
+                    );
+                }
+                case DATABASE -> {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+                    yield new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities()
+                    );
+                }
+            };
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,15 @@
+package com.amigoscode.jwt;
+
+/**
+ * How {@link JWTAuthenticationFilter} turns a verified token into an authenticated principal.
+ */
+public enum JWTAuthenticationMode {
+    /**
+     * The principal is built from the token claims, without touching the database.
+     */
+    STATELESS,
+    /**
+     * The customer named by the token subject is loaded on every request.
+     */
+    DATABASE
+}
@@ -1,6 +1,7 @@
 package com.amigoscode.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -10,20 +11,38 @@ import java.security.Key;
 import java.sql.Date;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class JWTUtil {
     private static final String SECRET_KEY = "foobar_123456789_foobar_123456789_foobar_123456789_foobar_123456789";
+    static final String ID_CLAIM = "id";
+    static final String SCOPES_CLAIM = "scopes";
+
+    // both are immutable and thread safe, so the key is derived and the parser built only once
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+
     public String issueToken(String subject){
         return issueToken(subject, Map.of());
     }
     public String issueToken(String subject, String ...scopes){
-        return issueToken(subject, Map.of("scopes", scopes));
+        return issueToken(subject, Map.of(SCOPES_CLAIM, scopes));
     }
     public String issueToken(String subject, List<String> scopes){
-        return issueToken(subject, Map.of("scopes", scopes));
+        return issueToken(subject, Map.of(SCOPES_CLAIM, scopes));
+    }
+    public String issueToken(String subject, Integer id, List<String> scopes){
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ID_CLAIM, id);
+        claims.put(SCOPES_CLAIM, scopes);
+        return issueToken(subject, claims);
     }
     public String issueToken(
             String subject,
@@ -31,38 +50,49 @@ public class JWTUtil {
         String token = Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuer("https://amigoscode.com")
                 .setIssuedAt(Date.from(Instant.now()))
                 .setExpiration(Date.from(
                             Instant.now().plus(15, ChronoUnit.DAYS)
                         )
-                ).signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                ).signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
         return token;
     }
-    private Key getSigningKey(){
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
-    }
     public String getSubject(String token){
         Claims claims = getClaims(token);
         return claims.getSubject();
     }
 
-    private Claims getClaims(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims;
+    /**
+     * Verifies the token and returns its claims. Throws a {@code JwtException} when the
+     * signature does not match or the token has expired.
+     */
+    public Claims getClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Builds the principal from the token alone, without looking the customer up.
+     */
+    public JWTPrincipal getPrincipal(Claims claims) {
+        Object scopes = claims.get(SCOPES_CLAIM);
+        return new JWTPrincipal(
+                claims.get(ID_CLAIM, Integer.class),
+                claims.getSubject(),
+                scopes instanceof Collection<?> values
+                        ? values.stream().map(String::valueOf).toList()
+                        : List.of()
+        );
     }
 
     public boolean isTokenValid(String jwt, String username) {
-        String subject = getSubject(jwt);
-        return subject.equals(username) && !isTokenExpired(jwt);
+        Claims claims = getClaims(jwt);
+        return claims.getSubject().equals(username) && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String jwt) {
-        return getClaims(jwt).getExpiration().before(Date.from(Instant.now()));
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(Date.from(Instant.now()));
     }
 }
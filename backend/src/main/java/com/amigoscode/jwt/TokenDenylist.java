@@ -0,0 +1,174 @@
+package com.amigoscode.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ids ({@code jti}) of revoked tokens that have not expired yet. Entries are grouped into
+ * buckets by expiry, so once every token of a bucket has expired the whole bucket is dropped
+ * at once. A Bloom filter in front of the buckets answers the common "not revoked" case
+ * without allocating; it is rebuilt from the remaining entries whenever buckets are dropped.
+ * <p>
+ * Revocations are stored in {@code revoked_token}. Every node loads the table on startup and
+ * then keeps polling it for revocations made elsewhere. Writers are serialized with a lock
+ * rather than {@code synchronized}, which would pin a virtual thread to its carrier for the
+ * whole database round trip.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenDenylist.class);
+    // revoked_at is the start of the inserting transaction, so rows can show up a bit late
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long bucketMillis;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final NavigableMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+    private final Counter falsePositives;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile BloomFilter bloomFilter;
+    private long bloomFilterCapacity;
+    private Instant lastRevokedAt = Instant.EPOCH;
+
+    public TokenDenylist(JdbcTemplate jdbcTemplate, TokenDenylistProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketMillis = properties.getBucketWidth().toMillis();
+        this.expectedRevocations = properties.getExpectedRevocations();
+        this.falsePositiveRate = properties.getFalsePositiveRate();
+        this.bloomFilterCapacity = expectedRevocations;
+        this.bloomFilter = new BloomFilter(bloomFilterCapacity, falsePositiveRate);
+        this.falsePositives = Counter.builder("jwt.denylist.false-positives")
+                .description("Token checks that passed the Bloom filter but were not revoked")
+                .register(meterRegistry);
+        Gauge.builder("jwt.denylist.tokens", this, TokenDenylist::size)
+                .description("Number of revoked tokens that have not expired yet")
+                .register(meterRegistry);
+        Gauge.builder("jwt.denylist.buckets", buckets, Map::size)
+                .description("Number of expiry buckets in the token denylist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tokens without an id were issued before revocation existed and can not be revoked.
+     */
+    public boolean isRevoked(String tokenId, Date expiration) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Set<String> bucket = buckets.get(bucketOf(expiration.getTime()));
+        if (bucket != null && bucket.contains(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        lock.lock();
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO revoked_token (jti, expires_at)
+                    VALUES (?, ?)
+                    ON CONFLICT (jti) DO NOTHING
+                    """, tokenId, Timestamp.from(expiresAt));
+            add(tokenId, expiresAt.toEpochMilli());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks up tokens revoked on other nodes, then drops buckets whose tokens have all expired.
+     */
+    @PostConstruct
+    @Scheduled(
+            fixedDelayString = "${jwt.denylist.sync-interval:PT10S}",
+            initialDelayString = "${jwt.denylist.sync-interval:PT10S}"
+    )
+    public void sync() {
+        lock.lock();
+        try {
+            jdbcTemplate.query("""
+                    SELECT jti, expires_at, revoked_at
+                    FROM revoked_token
+                    WHERE revoked_at >= ?
+                      AND expires_at > now()
+                    """, rs -> {
+                add(rs.getString("jti"), rs.getTimestamp("expires_at").getTime());
+                Instant revokedAt = rs.getTimestamp("revoked_at").toInstant();
+                if (revokedAt.isAfter(lastRevokedAt)) {
+                    lastRevokedAt = revokedAt;
+                }
+            }, Timestamp.from(lastRevokedAt.minus(SYNC_OVERLAP)));
+            expire();
+            if (size() > bloomFilterCapacity) {
+                // past its capacity the false positive rate climbs quickly
+                rebuildBloomFilter();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void expire() {
+        lock.lock();
+        try {
+            Map<Long, Set<String>> expired = buckets.headMap(bucketOf(System.currentTimeMillis()));
+            if (expired.isEmpty()) {
+                return;
+            }
+            int dropped = expired.values().stream().mapToInt(Set::size).sum();
+            expired.clear();
+            rebuildBloomFilter();
+            int deleted = jdbcTemplate.update("DELETE FROM revoked_token WHERE expires_at <= now()");
+            LOGGER.info("Dropped {} expired tokens from denylist, deleted {} rows", dropped, deleted);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void add(String tokenId, long expiresAtMillis) {
+        buckets.computeIfAbsent(bucketOf(expiresAtMillis), bucket -> ConcurrentHashMap.newKeySet())
+                .add(tokenId);
+        bloomFilter.put(tokenId);
+    }
+
+    private void rebuildBloomFilter() {
+        bloomFilterCapacity = Math.max(expectedRevocations, 2L * size());
+        BloomFilter rebuilt = new BloomFilter(bloomFilterCapacity, falsePositiveRate);
+        buckets.values().forEach(bucket -> bucket.forEach(rebuilt::put));
+        bloomFilter = rebuilt;
+    }
+
+    // a bucket holds tokens expiring before (bucket + 1) * bucketMillis
+    private long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, bucketMillis);
+    }
+}
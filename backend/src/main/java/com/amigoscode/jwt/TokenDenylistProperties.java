@@ -0,0 +1,47 @@
+package com.amigoscode.jwt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "jwt.denylist")
+public class TokenDenylistProperties {
+    private Duration bucketWidth = Duration.ofHours(1);
+    private long expectedRevocations = 100_000;
+    private double falsePositiveRate = 0.01;
+    private Duration syncInterval = Duration.ofSeconds(10);
+
+    public Duration getBucketWidth() {
+        return bucketWidth;
+    }
+
+    public void setBucketWidth(Duration bucketWidth) {
+        this.bucketWidth = bucketWidth;
+    }
+
+    public long getExpectedRevocations() {
+        return expectedRevocations;
+    }
+
+    public void setExpectedRevocations(long expectedRevocations) {
+        this.expectedRevocations = expectedRevocations;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+}
@@ -0,0 +1,52 @@
+package com.amigoscode.reactive;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the client address of a request that may have passed the load balancer, the way
+ * Tomcat's {@code RemoteIpValve} does for the servlet stack: {@code X-Forwarded-For} is walked
+ * from the right and only entries appended by a trusted proxy are skipped, so a client can not
+ * choose its own address by sending the header. Proxies are trusted by the same
+ * {@code server.tomcat.remoteip.internal-proxies} pattern on both stacks.
+ */
+@Component
+class ClientAddressResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final Pattern internalProxies;
+
+    ClientAddressResolver(ServerProperties serverProperties) {
+        this(serverProperties.getTomcat().getRemoteip().getInternalProxies());
+    }
+
+    ClientAddressResolver(String internalProxies) {
+        this.internalProxies = Pattern.compile(internalProxies);
+    }
+
+    String resolve(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String clientIp = remoteAddress == null ? null : remoteAddress.getAddress().getHostAddress();
+        List<String> forwardedFor = request.getHeaders().getOrEmpty(X_FORWARDED_FOR);
+        for (int i = forwardedFor.size() - 1; i >= 0 && isTrusted(clientIp); i--) {
+            String[] hops = forwardedFor.get(i).split(",");
+            for (int j = hops.length - 1; j >= 0 && isTrusted(clientIp); j--) {
+                String hop = hops[j].trim();
+                if (!hop.isEmpty()) {
+                    clientIp = hop;
+                }
+            }
+        }
+        return clientIp;
+    }
+
+    private boolean isTrusted(String address) {
+        return address != null && internalProxies.matcher(address).matches();
+    }
+}
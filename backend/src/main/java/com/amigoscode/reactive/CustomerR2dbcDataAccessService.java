@@ -0,0 +1,246 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerCursor;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.CustomerFilter;
+import com.amigoscode.customer.CustomerIdPool;
+import com.amigoscode.customer.CustomerSort;
+import com.amigoscode.customer.Gender;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository("r2dbc")
+public class CustomerR2dbcDataAccessService implements ReactiveCustomerDAO {
+
+    private final DatabaseClient databaseClient;
+    private final CustomerIdPool idPool = new CustomerIdPool();
+
+    public CustomerR2dbcDataAccessService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<CustomerDTO> selectCustomerDTOs(CustomerFilter filter, CustomerSort sort, CustomerCursor after, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> args = new LinkedHashMap<>();
+        if (filter.gender() != null) {
+            conditions.add("gender = :gender");
+            args.put("gender", filter.gender().name());
+        }
+        if (filter.minAge() != null) {
+            conditions.add("age >= :minAge");
+            args.put("minAge", filter.minAge());
+        }
+        if (filter.maxAge() != null) {
+            conditions.add("age <= :maxAge");
+            args.put("maxAge", filter.maxAge());
+        }
+        String comparison = sort.descending() ? "<" : ">";
+        String direction = sort.direction().name();
+        String orderBy;
+        if (sort.field() == CustomerSort.Field.ID) {
+            if (after != null) {
+                conditions.add("id %s :lastId".formatted(comparison));
+                args.put("lastId", after.lastId());
+            }
+            orderBy = "id " + direction;
+        } else {
+            String column = sort.field().getColumn();
+            if (after != null) {
+                conditions.add("(%s, id) %s (:lastValue, :lastId)".formatted(column, comparison));
+                args.put("lastValue", after.lastValue());
+                args.put("lastId", after.lastId());
+            }
+            orderBy = "%s %s, id %s".formatted(column, direction, direction);
+        }
+        args.put("limit", limit);
+        var sql = """
+                SELECT id, name, email, age, gender, profile_image_id
+                FROM customer
+                %s
+                ORDER BY %s
+                LIMIT :limit
+                """.formatted(conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions), orderBy);
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql);
+        for (Map.Entry<String, Object> arg : args.entrySet()) {
+            statement = statement.bind(arg.getKey(), arg.getValue());
+        }
+        return statement.map(CustomerR2dbcDataAccessService::toCustomerDTO).all();
+    }
+
+    @Override
+    public Mono<Customer> selectCustomerById(Integer id) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, profile_image_id
+                FROM customer
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(CustomerR2dbcDataAccessService::toCustomer)
+                .one();
+    }
+
+    @Override
+    public Mono<CustomerDTO> selectCustomerDTOById(Integer id) {
+        var sql = """
+                SELECT id, name, email, age, gender, profile_image_id
+                FROM customer
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(CustomerR2dbcDataAccessService::toCustomerDTO)
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> selectUserByEmail(String email) {
+        var sql = """
+                SELECT id, name, email, password, age, gender, profile_image_id
+                FROM customer
+                WHERE email = :email
+                """;
+        return databaseClient.sql(sql)
+                .bind("email", email)
+                .map(CustomerR2dbcDataAccessService::toCustomer)
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> existsPersonWithEmail(String email) {
+        var sql = """
+                SELECT EXISTS (SELECT 1 FROM customer WHERE email = :email) AS present
+                """;
+        return databaseClient.sql(sql)
+                .bind("email", email)
+                .map(row -> row.get("present", Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> existsPersonWithId(Integer id) {
+        var sql = """
+                SELECT EXISTS (SELECT 1 FROM customer WHERE id = :id) AS present
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(row -> row.get("present", Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Integer> insertCustomer(Customer customer) {
+        var sql = """
+                INSERT INTO customer (id, name, email, password, age, gender)
+                VALUES (:id, :name, :email, :password, :age, :gender)
+                """;
+        return nextId().flatMap(id -> databaseClient.sql(sql)
+                .bind("id", id)
+                .bind("name", customer.getName())
+                .bind("email", customer.getEmail())
+                .bind("password", customer.getPassword())
+                .bind("age", customer.getAge())
+                .bind("gender", customer.getGender().name())
+                .then()
+                .thenReturn(id));
+    }
+
+    // see CustomerIdPool for why the column default is not used
+    private Mono<Integer> nextId() {
+        List<Integer> ids = idPool.take(1);
+        if (!ids.isEmpty()) {
+            return Mono.just(ids.get(0));
+        }
+        return databaseClient.sql("SELECT nextval('customer_id_seq') AS high")
+                .map(row -> row.get("high", Long.class))
+                .one()
+                .map(high -> idPool.takeFrom(List.of(high), 1).get(0));
+    }
+
+    @Override
+    public Mono<Void> updateCustomer(Customer update) {
+        var sql = """
+                UPDATE customer
+                SET name = :name, email = :email, age = :age
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("name", update.getName())
+                .bind("email", update.getEmail())
+                .bind("age", update.getAge())
+                .bind("id", update.getId())
+                .then();
+    }
+
+    @Override
+    public Mono<Boolean> deleteCustomerById(Integer id) {
+        var sql = """
+                DELETE FROM customer
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    @Override
+    public Mono<Void> updateCustomerProfileImageId(String profileImageId, Integer customerId) {
+        var sql = """
+                UPDATE customer
+                SET profile_image_id = :profileImageId
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("profileImageId", profileImageId)
+                .bind("id", customerId)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> updateCustomerPassword(Integer customerId, String password) {
+        var sql = """
+                UPDATE customer
+                SET password = :password
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("password", password)
+                .bind("id", customerId)
+                .then();
+    }
+
+    private static Customer toCustomer(Readable row) {
+        return new Customer(
+                row.get("id", Integer.class),
+                row.get("email", String.class),
+                row.get("password", String.class),
+                row.get("name", String.class),
+                row.get("age", Integer.class),
+                Gender.valueOf(row.get("gender", String.class)),
+                row.get("profile_image_id", String.class)
+        );
+    }
+
+    private static CustomerDTO toCustomerDTO(Readable row) {
+        return new CustomerDTO(
+                row.get("id", Integer.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                Gender.valueOf(row.get("gender", String.class)),
+                row.get("age", Integer.class),
+                row.get("profile_image_id", String.class)
+        );
+    }
+}
@@ -0,0 +1,75 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.jwt.JWTAuthenticationFilter;
+import com.amigoscode.jwt.JWTAuthenticationMode;
+import com.amigoscode.jwt.JWTPrincipal;
+import com.amigoscode.jwt.JWTUtil;
+import com.amigoscode.jwt.TokenDenylist;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Reactive counterpart of {@link JWTAuthenticationFilter}. Not a bean, so that it only runs as
+ * part of the security chain and is not registered as a plain web filter as well.
+ */
+class JWTAuthenticationWebFilter implements WebFilter {
+
+    private final JWTUtil jwtUtil;
+    private final ReactiveUserDetailsService userDetailsService;
+    private final TokenDenylist tokenDenylist;
+    private final JWTAuthenticationMode mode;
+
+    JWTAuthenticationWebFilter(JWTUtil jwtUtil,
+                               ReactiveUserDetailsService userDetailsService,
+                               TokenDenylist tokenDenylist,
+                               JWTAuthenticationMode mode) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenDenylist = tokenDenylist;
+        this.mode = mode;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if(authHeader == null || !authHeader.startsWith("Bearer ")){
+            return chain.filter(exchange);
+        }
+        // verifies signature and expiry once; the claims are all we need afterwards
+        Claims claims = jwtUtil.getClaims(authHeader.substring(7));
+        if(claims.getSubject() == null || tokenDenylist.isRevoked(claims.getId(), claims.getExpiration())){
+            return chain.filter(exchange);
+        }
+        return authentication(claims)
+                .map(ReactiveSecurityContextHolder::withAuthentication)
+                .defaultIfEmpty(Context.empty())
+                .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+
+    private Mono<Authentication> authentication(Claims claims) {
+        return switch (mode) {
+            case STATELESS -> {
+                JWTPrincipal principal = jwtUtil.getPrincipal(claims);
+                yield Mono.just(new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.getAuthorities()
+                ));
+            }
+            case DATABASE -> userDetailsService.findByUsername(claims.getSubject())
+                    .map(userDetails -> new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities()
+                    ));
+        };
+    }
+}
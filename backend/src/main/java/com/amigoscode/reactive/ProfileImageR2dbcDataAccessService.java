@@ -0,0 +1,62 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.customer.ProfileImage;
+import com.amigoscode.customer.ProfileImageJDBCDataAccessService;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Non-blocking counterpart of {@link ProfileImageJDBCDataAccessService}.
+ */
+@Repository
+public class ProfileImageR2dbcDataAccessService {
+
+    private final DatabaseClient databaseClient;
+
+    public ProfileImageR2dbcDataAccessService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> insertProfileImage(ProfileImage profileImage) {
+        var sql = """
+                INSERT INTO profile_image(id, customer_id, content_hash, content_type, uploaded_at, has_variants)
+                VALUES (:id, :customerId, :contentHash, :contentType, :uploadedAt, :hasVariants)
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", profileImage.id())
+                .bind("customerId", profileImage.customerId())
+                .bind("contentHash", profileImage.contentHash())
+                .bind("contentType", profileImage.contentType())
+                .bind("uploadedAt", profileImage.uploadedAt().atOffset(ZoneOffset.UTC))
+                .bind("hasVariants", profileImage.hasVariants())
+                .then();
+    }
+
+    public Mono<ProfileImage> selectProfileImageById(String id) {
+        var sql = """
+                SELECT id, customer_id, content_hash, content_type, uploaded_at, has_variants
+                FROM profile_image
+                WHERE id = :id
+                """;
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(ProfileImageR2dbcDataAccessService::toProfileImage)
+                .one();
+    }
+
+    private static ProfileImage toProfileImage(Readable row) {
+        return new ProfileImage(
+                row.get("id", String.class),
+                row.get("customer_id", Integer.class),
+                row.get("content_hash", String.class),
+                row.get("content_type", String.class),
+                row.get("uploaded_at", OffsetDateTime.class).toInstant(),
+                row.get("has_variants", Boolean.class)
+        );
+    }
+}
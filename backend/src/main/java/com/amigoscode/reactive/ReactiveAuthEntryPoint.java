@@ -0,0 +1,47 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.exception.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Answers unauthenticated requests with the same 403 {@link ApiError} body as the servlet stack.
+ */
+@Component
+public class ReactiveAuthEntryPoint implements ServerAuthenticationEntryPoint {
+    private final ObjectMapper objectMapper;
+
+    public ReactiveAuthEntryPoint(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException ex) {
+        ApiError apiError = new ApiError(
+                exchange.getRequest().getPath().value(),
+                ex.getMessage(),
+                HttpStatus.FORBIDDEN.value(),
+                LocalDateTime.now()
+        );
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.FORBIDDEN);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return Mono.fromCallable(() -> response.bufferFactory().wrap(body(apiError)))
+                .flatMap(buffer -> response.writeWith(Mono.<DataBuffer>just(buffer)));
+    }
+
+    private byte[] body(ApiError apiError) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiError);
+    }
+}
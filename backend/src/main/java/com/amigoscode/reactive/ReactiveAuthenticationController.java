@@ -0,0 +1,50 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.auth.AuthenticationRequest;
+import com.amigoscode.auth.AuthenticationResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("api/v1/auth")
+public class ReactiveAuthenticationController {
+    private final ReactiveAuthenticationService authenticationService;
+    private final ClientAddressResolver clientAddressResolver;
+
+    public ReactiveAuthenticationController(ReactiveAuthenticationService authenticationService, ClientAddressResolver clientAddressResolver) {
+        this.authenticationService = authenticationService;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @PostMapping("login")
+    public Mono<ResponseEntity<AuthenticationResponse>> login(@RequestBody AuthenticationRequest request, ServerHttpRequest httpRequest){
+        return authenticationService.login(request, clientAddressResolver.resolve(httpRequest))
+                .map(ReactiveAuthenticationController::withToken);
+    }
+
+    @PostMapping("refresh")
+    public Mono<ResponseEntity<AuthenticationResponse>> refresh(Authentication authentication){
+        return authenticationService.refresh(authentication.getName())
+                .map(ReactiveAuthenticationController::withToken);
+    }
+
+    @PostMapping("logout")
+    public Mono<ResponseEntity<Void>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization){
+        return authenticationService.logout(authorization.substring("Bearer ".length()))
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    private static ResponseEntity<AuthenticationResponse> withToken(AuthenticationResponse response){
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AUTHORIZATION, response.token())
+                .body(response);
+    }
+}
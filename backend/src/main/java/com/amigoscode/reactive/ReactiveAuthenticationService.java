@@ -0,0 +1,114 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.auth.AuthenticationRequest;
+import com.amigoscode.auth.AuthenticationResponse;
+import com.amigoscode.auth.AuthenticationService;
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.TooManyRequestsException;
+import com.amigoscode.jwt.JWTUtil;
+import com.amigoscode.jwt.TokenDenylist;
+import com.amigoscode.security.LoginThrottle;
+import com.amigoscode.security.LoginThrottleProperties;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link AuthenticationService}. Logins are throttled here rather than
+ * in a filter, as the username is only known once the body has been decoded.
+ */
+@Service
+public class ReactiveAuthenticationService {
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final ReactiveCustomerUserDetailsService userDetailsService;
+    private final JWTUtil jwtUtil;
+    private final TokenDenylist tokenDenylist;
+    private final LoginThrottle loginThrottle;
+    private final LoginThrottleProperties loginThrottleProperties;
+
+    public ReactiveAuthenticationService(ReactiveCustomerUserDetailsService userDetailsService, PasswordEncoder passwordEncoder, JWTUtil jwtUtil, TokenDenylist tokenDenylist, LoginThrottle loginThrottle, LoginThrottleProperties loginThrottleProperties) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        // password checks run on the bounded elastic scheduler
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        // upgrades outdated hashes after a successful login
+        authenticationManager.setUserDetailsPasswordService(userDetailsService);
+        this.authenticationManager = authenticationManager;
+        this.userDetailsService = userDetailsService;
+        this.jwtUtil = jwtUtil;
+        this.tokenDenylist = tokenDenylist;
+        this.loginThrottle = loginThrottle;
+        this.loginThrottleProperties = loginThrottleProperties;
+    }
+
+    public Mono<AuthenticationResponse> login(AuthenticationRequest request, String clientIp){
+        return Mono.defer(() -> {
+            if(loginThrottleProperties.isEnabled()){
+                Duration retryAfter = loginThrottle.acquire(clientIp, request.username());
+                if(!retryAfter.isZero()){
+                    return Mono.error(new TooManyRequestsException("Too many login attempts, please retry later", retryAfter));
+                }
+            }
+            // no point in paying for a password check that can not succeed
+            if(request.username() == null || request.username().isBlank()
+                    || request.password() == null || request.password().isEmpty()){
+                return Mono.error(new BadCredentialsException("Bad credentials"));
+            }
+            return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                            request.username(),
+                            request.password()
+                    ))
+                    .map(authentication -> issueToken((Customer) authentication.getPrincipal()));
+        });
+    }
+
+    public Mono<AuthenticationResponse> refresh(String username){
+        return userDetailsService.findByUsername(username)
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Customer " + username + " no longer exists")))
+                .map(customer -> issueToken((Customer) customer));
+    }
+
+    /**
+     * Revokes the token on every node until it expires. The denylist is shared with the
+     * servlet stack and written through JDBC, so this runs on the bounded elastic scheduler.
+     */
+    public Mono<Void> logout(String token){
+        return Mono.<Void>fromRunnable(() -> {
+                    Claims claims = jwtUtil.getClaims(token);
+                    if(claims.getId() == null){
+                        throw new RequestValidationException("Token has no id and can not be revoked");
+                    }
+                    tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private AuthenticationResponse issueToken(Customer customer){
+        CustomerDTO customerDTO = new CustomerDTO(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getGender(),
+                customer.getAge(),
+                customer.getAuthorities()
+                        .stream()
+                        .map(authority -> authority.getAuthority())
+                        .toList(),
+                customer.getUsername(),
+                customer.getProfileImageId()
+        );
+        String jwtToken = jwtUtil.issueToken(customerDTO.username(), customerDTO.id(), customerDTO.roles());
+        return new AuthenticationResponse(jwtToken, customerDTO);
+    }
+}
@@ -0,0 +1,38 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.customer.CustomerChange;
+import com.amigoscode.customer.CustomerChangePublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link CustomerChangePublisher} over R2DBC, so servlet nodes running next to reactive ones
+ * evict customers changed here from their caches.
+ */
+@Component
+public class ReactiveCustomerChangePublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveCustomerChangePublisher.class);
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCustomerChangePublisher(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> customerChanged(Integer customerId, String email) {
+        String payload = new CustomerChange(customerId, email).encode();
+        return databaseClient.sql("SELECT pg_notify(:channel, :payload)")
+                .bind("channel", CustomerChange.CHANNEL)
+                .bind("payload", payload)
+                .then()
+                // the write itself has been committed; other nodes catch up when their entries expire
+                .onErrorResume(e -> {
+                    LOGGER.warn("Could not publish customer change [{}]", payload, e);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,142 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.CustomerFilter;
+import com.amigoscode.customer.CustomerRegistrationRequest;
+import com.amigoscode.customer.CustomerService;
+import com.amigoscode.customer.CustomerSort;
+import com.amigoscode.customer.CustomerUpdateRequest;
+import com.amigoscode.customer.Gender;
+import com.amigoscode.customer.ProfileImage;
+import com.amigoscode.customer.ProfileImageVariant;
+import com.amigoscode.jwt.JWTUtil;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1/customers")
+public class ReactiveCustomerController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ReactiveCustomerService customerService;
+    private final JWTUtil jwtUtil;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService, JWTUtil jwtUtil) {
+        this.customerService = customerService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<CustomerDTO>>> getCustomers(
+            @RequestParam(value = "gender", required = false) String gender,
+            @RequestParam(value = "minAge", required = false) Integer minAge,
+            @RequestParam(value = "maxAge", required = false) Integer maxAge,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "direction", required = false) String direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size){
+        CustomerFilter filter = new CustomerFilter(gender == null ? null : Gender.from(gender), minAge, maxAge);
+        return customerService.getCustomers(filter, CustomerSort.from(sort, direction), cursor, size)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if(page.nextCursor() != null){
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(page.customers());
+                });
+    }
+
+    @GetMapping("{customerId}")
+    public Mono<CustomerDTO> getCustomer(@PathVariable("customerId") Integer customerId){
+        return customerService.getCustomer(customerId);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> registerCustomer(@RequestBody CustomerRegistrationRequest request){
+        return customerService.addCustomer(request)
+                .map(customerId -> ResponseEntity.ok()
+                        .header(HttpHeaders.AUTHORIZATION, jwtUtil.issueToken(request.email(), customerId, Customer.ROLES))
+                        .build());
+    }
+
+    @DeleteMapping("{customerId}")
+    public Mono<Void> deleteCustomer(@PathVariable("customerId") Integer customerId){
+        return customerService.deleteCustomer(customerId);
+    }
+
+    @PutMapping("{customerId}")
+    public Mono<Void> updateCustomer(
+            @PathVariable("customerId") Integer customerId,
+            @RequestBody CustomerUpdateRequest customerUpdateRequest
+    ){
+        return customerService.updateCustomer(customerId, customerUpdateRequest);
+    }
+
+    @PostMapping(
+            value = "{customerId}/profile-image",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE
+    )
+    public Mono<Void> uploadCustomerProfileImage(
+            @PathVariable("customerId") Integer customerId,
+            @RequestPart("file") FilePart file){
+        return customerService.uploadCustomerProfileImage(customerId, file);
+    }
+
+    @GetMapping({"{customerId}/profile-image", "{customerId}/profile-image/{profileImageId}"})
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getCustomerProfileImage(
+            @PathVariable("customerId") Integer customerId,
+            @PathVariable(value = "profileImageId", required = false) String profileImageId,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        ProfileImageVariant variant = ProfileImageVariant.from(size);
+        CacheControl cacheControl = CustomerService.profileImageCacheControl(profileImageId);
+        // resolved once, so the validators and the bytes belong to the same version
+        return customerService.resolveProfileImage(customerId, profileImageId)
+                .flatMap(resolved -> {
+                    Optional<ProfileImage> profileImage = resolved.metadata();
+                    if(profileImage.isPresent() && profileImage.get().isMatchedBy(ifNoneMatch, variant)){
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(profileImage.get().eTag(variant))
+                                .lastModified(profileImage.get().uploadedAt())
+                                .cacheControl(cacheControl)
+                                .<Flux<DataBuffer>>build());
+                    }
+                    return customerService.getCustomerProfileImage(resolved, variant, range)
+                            .map(image -> {
+                                GetObjectResponse metadata = image.response();
+                                ResponseEntity.BodyBuilder response = ResponseEntity
+                                        .status(metadata.contentRange() == null ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT)
+                                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                                        .cacheControl(cacheControl)
+                                        .contentType(CustomerService.profileImageContentType(metadata.contentType()));
+                                profileImage.ifPresent(recorded -> response
+                                        .eTag(recorded.eTag(variant))
+                                        .lastModified(recorded.uploadedAt()));
+                                if(metadata.contentLength() != null){
+                                    response.contentLength(metadata.contentLength());
+                                }
+                                if(metadata.contentRange() != null){
+                                    response.header(HttpHeaders.CONTENT_RANGE, metadata.contentRange());
+                                }
+                                // written as the chunks arrive, nothing is collected
+                                return response.body(Flux.from(image).map(DefaultDataBufferFactory.sharedInstance::wrap));
+                            });
+                });
+    }
+}
@@ -0,0 +1,34 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerCursor;
+import com.amigoscode.customer.CustomerDAO;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.CustomerFilter;
+import com.amigoscode.customer.CustomerSort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link CustomerDAO}, limited to what the reactive API serves.
+ * Lookups complete empty when there is no such customer.
+ */
+public interface ReactiveCustomerDAO {
+    Flux<CustomerDTO> selectCustomerDTOs(CustomerFilter filter, CustomerSort sort, CustomerCursor after, int limit);
+    Mono<Customer> selectCustomerById(Integer id);
+    Mono<CustomerDTO> selectCustomerDTOById(Integer id);
+    Mono<Customer> selectUserByEmail(String email);
+    Mono<Boolean> existsPersonWithEmail(String email);
+    Mono<Boolean> existsPersonWithId(Integer id);
+    /**
+     * @return the generated id
+     */
+    Mono<Integer> insertCustomer(Customer customer);
+    Mono<Void> updateCustomer(Customer update);
+    /**
+     * @return whether there was a customer to delete
+     */
+    Mono<Boolean> deleteCustomerById(Integer id);
+    Mono<Void> updateCustomerProfileImageId(String profileImageId, Integer customerId);
+    Mono<Void> updateCustomerPassword(Integer customerId, String password);
+}
@@ -0,0 +1,260 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerCursor;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.CustomerFilter;
+import com.amigoscode.customer.CustomerPage;
+import com.amigoscode.customer.CustomerPagingProperties;
+import com.amigoscode.customer.CustomerRegistrationRequest;
+import com.amigoscode.customer.CustomerRegistrationValidator;
+import com.amigoscode.customer.CustomerService;
+import com.amigoscode.customer.CustomerSort;
+import com.amigoscode.customer.CustomerUpdateRequest;
+import com.amigoscode.customer.ProfileImage;
+import com.amigoscode.customer.ProfileImageProcessor;
+import com.amigoscode.customer.ProfileImageVariant;
+import com.amigoscode.customer.ResolvedProfileImage;
+import com.amigoscode.exception.DuplicateResourceException;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.ResourceNotFoundException;
+import com.amigoscode.s3.S3AsyncService;
+import com.amigoscode.s3.S3Buckets;
+import com.amigoscode.s3.S3ObjectCache;
+import com.amigoscode.s3.S3Service;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reactive counterpart of {@link CustomerService} with the same validation and errors.
+ * Nothing here blocks: BCrypt runs on the bounded elastic scheduler, away from the event loop.
+ */
+@Service
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerDAO customerDAO;
+    private final PasswordEncoder passwordEncoder;
+    private final S3AsyncService s3Service;
+    private final S3ObjectCache s3ObjectCache;
+    private final S3Buckets buckets;
+    private final CustomerPagingProperties pagingProperties;
+    private final ReactiveCustomerChangePublisher changePublisher;
+    private final ProfileImageR2dbcDataAccessService profileImageDAO;
+    private final ProfileImageProcessor profileImageProcessor;
+
+    public ReactiveCustomerService(ReactiveCustomerDAO customerDAO, PasswordEncoder passwordEncoder, S3AsyncService s3Service, S3ObjectCache s3ObjectCache, S3Buckets buckets, CustomerPagingProperties pagingProperties, ReactiveCustomerChangePublisher changePublisher, ProfileImageR2dbcDataAccessService profileImageDAO, ProfileImageProcessor profileImageProcessor) {
+        this.customerDAO = customerDAO;
+        this.passwordEncoder = passwordEncoder;
+        this.s3Service = s3Service;
+        this.s3ObjectCache = s3ObjectCache;
+        this.buckets = buckets;
+        this.pagingProperties = pagingProperties;
+        this.changePublisher = changePublisher;
+        this.profileImageDAO = profileImageDAO;
+        this.profileImageProcessor = profileImageProcessor;
+    }
+
+    public Mono<CustomerPage> getCustomers(CustomerFilter filter, CustomerSort sort, String cursor, Integer size){
+        return Mono.defer(() -> {
+            if(filter.minAge() != null && filter.maxAge() != null && filter.minAge() > filter.maxAge()){
+                return Mono.error(new RequestValidationException("Minimum age must not be greater than maximum age"));
+            }
+            int pageSize = resolvePageSize(size);
+            CustomerCursor after = cursor == null || cursor.isBlank() ? null : CustomerCursor.decode(cursor, sort);
+            // read one extra row so the last page does not hand out a cursor to an empty page
+            return customerDAO.selectCustomerDTOs(filter, sort, after, pageSize + 1)
+                    .collectList()
+                    .map(customers -> {
+                        if(customers.size() <= pageSize){
+                            return new CustomerPage(customers, null);
+                        }
+                        List<CustomerDTO> page = customers.subList(0, pageSize);
+                        return new CustomerPage(page, CustomerCursor.after(sort, page.get(pageSize - 1)).encode());
+                    });
+        });
+    }
+
+    private int resolvePageSize(Integer size){
+        if(size == null){
+            return pagingProperties.getDefaultSize();
+        }
+        if(size < 1){
+            throw new RequestValidationException("Page size must be greater than zero");
+        }
+        return Math.min(size, pagingProperties.getMaxSize());
+    }
+
+    public Mono<CustomerDTO> getCustomer(Integer id){
+        return customerDAO.selectCustomerDTOById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    public Mono<Integer> addCustomer(CustomerRegistrationRequest customerRegistrationRequest){
+        // reject bad requests before they cost a password hash
+        String error = CustomerRegistrationValidator.validate(customerRegistrationRequest);
+        if(error != null){
+            return Mono.error(new RequestValidationException(error));
+        }
+        String email = customerRegistrationRequest.email();
+        return customerDAO.existsPersonWithEmail(email)
+                .flatMap(exists -> exists
+                        ? Mono.error(new DuplicateResourceException("Customer with email [%s] already exists!".formatted(email)))
+                        : encode(customerRegistrationRequest.password()))
+                .map(password -> new Customer(
+                        customerRegistrationRequest.name(),
+                        email,
+                        password,
+                        customerRegistrationRequest.age(),
+                        customerRegistrationRequest.gender()
+                ))
+                .flatMap(customerDAO::insertCustomer)
+                // registered concurrently after the check above
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new DuplicateResourceException("Customer with email [%s] already exists!".formatted(email)))
+                // other nodes may have cached the email as unknown
+                .flatMap(id -> changePublisher.customerChanged(id, email).thenReturn(id));
+    }
+
+    public Mono<Void> updateCustomer(Integer id, CustomerUpdateRequest customerUpdateRequest){
+        return customerDAO.selectCustomerById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(customer -> {
+                    boolean changes = false;
+
+                    if (customerUpdateRequest.name() != null && !customerUpdateRequest.name().equals(customer.getName())) {
+                        customer.setName(customerUpdateRequest.name());
+                        changes = true;
+                    }
+
+                    Mono<Boolean> emailTaken = Mono.just(false);
+                    if (customerUpdateRequest.email() != null && !customerUpdateRequest.email().equals(customer.getEmail())) {
+                        emailTaken = customerDAO.existsPersonWithEmail(customerUpdateRequest.email());
+                        customer.setEmail(customerUpdateRequest.email());
+                        changes = true;
+                    }
+
+                    if (customerUpdateRequest.age() != null && !customerUpdateRequest.age().equals(customer.getAge())) {
+                        customer.setAge(customerUpdateRequest.age());
+                        changes = true;
+                    }
+                    if(!changes){
+                        return Mono.error(new RequestValidationException("Customer information not change"));
+                    }
+                    return emailTaken.flatMap(taken -> taken
+                            ? Mono.error(new DuplicateResourceException("Customer with email [%s] already exists!".formatted(customer.getEmail())))
+                            : customerDAO.updateCustomer(customer)
+                                    .then(changePublisher.customerChanged(customer.getId(), customer.getEmail())));
+                });
+    }
+
+    public Mono<Void> deleteCustomer(Integer id){
+        return customerDAO.deleteCustomerById(id)
+                .flatMap(deleted -> deleted
+                        ? changePublisher.customerChanged(id, null)
+                        : Mono.error(notFound(id)));
+    }
+
+    /**
+     * Writes the part to a temporary file as it arrives, so the image is never held in memory,
+     * and uploads the variants produced from it in parallel.
+     */
+    public Mono<Void> uploadCustomerProfileImage(Integer customerId, FilePart file) {
+        String profileImageId = UUID.randomUUID().toString();
+        return customerDAO.existsPersonWithId(customerId)
+                .flatMap(exists -> exists
+                        ? Mono.<ProfileImage, Path>usingWhen(
+                                Mono.fromCallable(() -> Files.createTempFile("profile-image-", null))
+                                        .subscribeOn(Schedulers.boundedElastic()),
+                                upload -> file.transferTo(upload)
+                                        .then(Mono.fromCallable(() -> new ProfileImage(
+                                                profileImageId, customerId, ProfileImage.contentHash(upload), MediaType.IMAGE_JPEG_VALUE, Instant.now(), true
+                                        )).subscribeOn(Schedulers.boundedElastic()))
+                                        .flatMap(profileImage -> Mono.<Void, Map<ProfileImageVariant, Path>>usingWhen(
+                                                Mono.fromFuture(() -> profileImageProcessor.process(upload)),
+                                                variants -> Flux.fromIterable(variants.entrySet())
+                                                        .flatMap(variant -> Mono.fromFuture(() -> s3Service.putObject(
+                                                                buckets.getCustomer(),
+                                                                variant.getKey().key(customerId, profileImageId),
+                                                                variant.getValue(),
+                                                                profileImage.contentType()
+                                                        )))
+                                                        .then(),
+                                                variants -> Mono.fromRunnable(() -> ProfileImageProcessor.delete(variants.values()))
+                                                        .subscribeOn(Schedulers.boundedElastic())
+                                        ).thenReturn(profileImage)),
+                                upload -> Mono.fromCallable(() -> Files.deleteIfExists(upload))
+                                        .subscribeOn(Schedulers.boundedElastic())
+                        )
+                        : Mono.error(notFound(customerId)))
+                .flatMap(profileImageDAO::insertProfileImage)
+                .then(customerDAO.updateCustomerProfileImageId(profileImageId, customerId))
+                // earlier versions are rarely wanted once replaced
+                .then(Mono.fromRunnable(() -> s3ObjectCache.invalidate(buckets.getCustomer(), ProfileImage.keyPrefix(customerId))))
+                .then(changePublisher.customerChanged(customerId, null));
+    }
+
+    /**
+     * Streams a variant of the resolved profile image, or the requested range of it, as it
+     * arrives from S3. Images uploaded before variants existed are served as uploaded.
+     */
+    public Mono<ResponsePublisher<GetObjectResponse>> getCustomerProfileImage(ResolvedProfileImage profileImage, ProfileImageVariant variant, String range) {
+        return Mono.fromFuture(() -> s3ObjectCache.getObjectPublisher(
+                buckets.getCustomer(),
+                profileImage.key(variant),
+                S3Service.singleByteRange(range)
+        ));
+    }
+
+    /**
+     * Looks up the customer's current profile image, or the requested version of it, along
+     * with what is recorded about it.
+     */
+    public Mono<ResolvedProfileImage> resolveProfileImage(Integer customerId, String profileImageId) {
+        return customerDAO.selectCustomerById(customerId)
+                .switchIfEmpty(Mono.error(() -> notFound(customerId)))
+                .flatMap(customer -> {
+                    String currentProfileImageId = customer.getProfileImageId();
+                    if(profileImageId == null || profileImageId.equals(currentProfileImageId)){
+                        if(currentProfileImageId == null || currentProfileImageId.isBlank()){
+                            return Mono.error(new ResourceNotFoundException("Customer with id [%s] profile image not found!".formatted(customerId)));
+                        }
+                        return profileImageDAO.selectProfileImageById(currentProfileImageId)
+                                .map(Optional::of)
+                                .defaultIfEmpty(Optional.empty())
+                                .map(metadata -> new ResolvedProfileImage(customerId, currentProfileImageId, metadata));
+                    }
+                    // earlier uploads stay available under their own id
+                    return profileImageDAO.selectProfileImageById(profileImageId)
+                            .filter(profileImage -> customerId.equals(profileImage.customerId()))
+                            .map(profileImage -> new ResolvedProfileImage(customerId, profileImageId, Optional.of(profileImage)))
+                            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                                    "Customer with id [%s] profile image [%s] not found!".formatted(customerId, profileImageId)
+                            )));
+                });
+    }
+
+    private Mono<String> encode(String password){
+        return Mono.fromCallable(() -> passwordEncoder.encode(password))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static ResourceNotFoundException notFound(Integer id){
+        return new ResourceNotFoundException("Customer with id [%s] not found!".formatted(id));
+    }
+}
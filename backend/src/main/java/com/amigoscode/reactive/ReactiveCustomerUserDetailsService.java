@@ -0,0 +1,38 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.customer.Customer;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveCustomerUserDetailsService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+    private final ReactiveCustomerDAO customerDAO;
+    private final ReactiveCustomerChangePublisher changePublisher;
+
+    public ReactiveCustomerUserDetailsService(ReactiveCustomerDAO customerDAO, ReactiveCustomerChangePublisher changePublisher) {
+        this.customerDAO = customerDAO;
+        this.changePublisher = changePublisher;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return customerDAO.selectUserByEmail(username).cast(UserDetails.class);
+    }
+
+    /**
+     * Stores a password rehashed after a successful login, like the servlet stack does.
+     */
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        Customer customer = (Customer) user;
+        return customerDAO.updateCustomerPassword(customer.getId(), newPassword)
+                .then(changePublisher.customerChanged(customer.getId(), null))
+                .then(Mono.fromSupplier(() -> {
+                    customer.setPassword(newPassword);
+                    return customer;
+                }));
+    }
+}
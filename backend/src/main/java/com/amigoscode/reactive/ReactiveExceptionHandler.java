@@ -0,0 +1,106 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.exception.ApiError;
+import com.amigoscode.exception.DefaultExceptionHandler;
+import com.amigoscode.exception.DuplicateResourceException;
+import com.amigoscode.exception.RangeNotSatisfiableException;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.ResourceNotFoundException;
+import com.amigoscode.exception.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+
+/**
+ * Same mappings as {@link DefaultExceptionHandler}, for the reactive stack.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+    @ExceptionHandler(InsufficientAuthenticationException.class)
+    public ResponseEntity<ApiError> handleException(
+            InsufficientAuthenticationException e,
+            ServerWebExchange exchange
+    ){
+        return apiError(e, exchange, HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ApiError> handleException(
+            ResourceNotFoundException e,
+            ServerWebExchange exchange
+    ){
+        return apiError(e, exchange, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(RequestValidationException.class)
+    public ResponseEntity<ApiError> handleException(
+            RequestValidationException e,
+            ServerWebExchange exchange
+    ){
+        return apiError(e, exchange, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(DuplicateResourceException.class)
+    public ResponseEntity<ApiError> handleException(
+            DuplicateResourceException e,
+            ServerWebExchange exchange
+    ){
+        return apiError(e, exchange, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RangeNotSatisfiableException.class)
+    public ResponseEntity<ApiError> handleException(
+            RangeNotSatisfiableException e,
+            ServerWebExchange exchange
+    ){
+        return apiError(e, exchange, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleException(
+            TooManyRequestsException e,
+            ServerWebExchange exchange
+    ){
+        // Retry-After takes whole seconds
+        long retryAfterSeconds = (e.getRetryAfter().toMillis() + 999) / 1000;
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(body(e, exchange, HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @ExceptionHandler(BadCredentialsException.class)
+    public ResponseEntity<ApiError> handleException(
+            BadCredentialsException e,
+            ServerWebExchange exchange
+    ){
+        return apiError(e, exchange, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiError> handleException(
+            Exception e,
+            ServerWebExchange exchange
+    ){
+        return apiError(e, exchange, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static ResponseEntity<ApiError> apiError(Exception e, ServerWebExchange exchange, HttpStatus status){
+        return new ResponseEntity<>(body(e, exchange, status), status);
+    }
+
+    private static ApiError body(Exception e, ServerWebExchange exchange, HttpStatus status){
+        return new ApiError(
+                exchange.getRequest().getPath().value(),
+                e.getMessage(),
+                status.value(),
+                LocalDateTime.now()
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.jwt.TokenDenylist;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring Boot backs off from a JDBC {@code DataSource} once R2DBC is configured. Flyway and
+ * the {@link TokenDenylist} shared with the servlet stack still need one, so a small pool is
+ * declared here; everything customer related goes through R2DBC.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveJdbcConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.Main;
+import com.amigoscode.PingPongController;
+import com.amigoscode.customer.CustomerPagingProperties;
+import com.amigoscode.customer.ProfileImageProcessor;
+import com.amigoscode.customer.ProfileImageProperties;
+import com.amigoscode.jwt.JWTUtil;
+import com.amigoscode.jwt.TokenDenylist;
+import com.amigoscode.jwt.TokenDenylistProperties;
+import com.amigoscode.s3.S3AsyncService;
+import com.amigoscode.s3.S3Buckets;
+import com.amigoscode.s3.S3Config;
+import com.amigoscode.s3.S3ObjectCache;
+import com.amigoscode.s3.S3ObjectCacheProperties;
+import com.amigoscode.s3.S3Service;
+import com.amigoscode.security.LoginThrottle;
+import com.amigoscode.security.LoginThrottleProperties;
+import com.amigoscode.security.PasswordEncoderProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Non-blocking deployment of the {@code /api/v1/customers} and {@code /api/v1/auth} API:
+ * WebFlux on Netty, customer data on R2DBC and profile images through the asynchronous S3
+ * client. It is started instead of {@link Main} and runs with the {@code reactive} profile.
+ * <p>
+ * Only this package is scanned. Stack independent beans are imported from the servlet
+ * application, so both stacks issue and accept the same tokens and share the revocation list.
+ */
+@SpringBootApplication
+@EnableScheduling
+@Import({
+        PingPongController.class,
+        JWTUtil.class,
+        TokenDenylist.class,
+        TokenDenylistProperties.class,
+        LoginThrottle.class,
+        LoginThrottleProperties.class,
+        PasswordEncoderProperties.class,
+        CustomerPagingProperties.class,
+        ProfileImageProcessor.class,
+        ProfileImageProperties.class,
+        S3Config.class,
+        S3Buckets.class,
+        S3AsyncService.class,
+        S3Service.class,
+        S3ObjectCache.class,
+        S3ObjectCacheProperties.class
+})
+public class ReactiveMain {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveMain.class);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+}
@@ -0,0 +1,69 @@
+package com.amigoscode.reactive;
+
+import com.amigoscode.jwt.JWTAuthenticationMode;
+import com.amigoscode.jwt.JWTUtil;
+import com.amigoscode.jwt.TokenDenylist;
+import com.amigoscode.security.PasswordEncoderProperties;
+import com.amigoscode.security.SecurityConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordEncoderProperties properties){
+        return SecurityConfig.delegatingPasswordEncoder(properties);
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(
+            ServerHttpSecurity http,
+            JWTUtil jwtUtil,
+            ReactiveCustomerUserDetailsService userDetailsService,
+            TokenDenylist tokenDenylist,
+            ReactiveAuthEntryPoint authenticationEntryPoint,
+            @Value("${jwt.authentication-mode:STATELESS}") JWTAuthenticationMode mode){
+        return http
+                .csrf().disable()
+                .cors(Customizer.withDefaults())
+                .httpBasic().disable()
+                .formLogin().disable()
+                .logout().disable()
+                // stateless, like the servlet stack
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange()
+                .pathMatchers(HttpMethod.POST, "/api/v1/customers")
+                .permitAll()
+                .pathMatchers(HttpMethod.POST, "/api/v1/auth/login")
+                .permitAll()
+                .pathMatchers(HttpMethod.GET, "/ping", "/api/v1/customers/*/profile-image", "/api/v1/customers/*/profile-image/*")
+                .permitAll()
+                .pathMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**", "/actuator/info")
+                .permitAll()
+                // metrics, and the login throttle with client IPs and usernames
+                .pathMatchers("/actuator/**")
+                .hasRole(SecurityConfig.OPERATOR_ROLE)
+                .anyExchange()
+                .authenticated()
+                .and()
+                .addFilterAt(
+                        new JWTAuthenticationWebFilter(jwtUtil, userDetailsService, tokenDenylist, mode),
+                        SecurityWebFiltersOrder.AUTHENTICATION
+                )
+                .exceptionHandling()
+                .authenticationEntryPoint(authenticationEntryPoint)
+                .and()
+                .build();
+    }
+}
@@ -1,21 +1,55 @@
 package com.amigoscode.s3;
 
-import org.apache.commons.io.FileUtils;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
-import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.utils.IoUtils;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 
+/**
+ * Local and offline stand-in for S3, keeping objects in a {@link LocalObjectStore} under
+ * {@code ~/.amigoscode/s3}. Supports what the application and load tests use: put, ranged get,
+ * head, delete and list, failing with the exceptions S3 would.
+ */
 public class FakeS3 implements S3Client {
-    private static final String PATH = System.getProperty("user.home") + "/.amigoscode/s3";
+    private final LocalObjectStore store;
+
+    public FakeS3() {
+        this(LocalObjectStore.DEFAULT_ROOT);
+    }
+
+    public FakeS3(Path root) {
+        this.store = new LocalObjectStore(root);
+    }
+
     @Override
     public String serviceName() {
         return "fake";
@@ -26,34 +60,166 @@ public class FakeS3 implements S3Client {
 
     }
 
+    LocalObjectStore store() {
+        return store;
+    }
+
     @Override
     public PutObjectResponse putObject(PutObjectRequest putObjectRequest, RequestBody requestBody) throws AwsServiceException, SdkClientException {
-        InputStream inputStream = requestBody.contentStreamProvider().newStream();
-        try {
-            byte[] fileContent = IoUtils.toByteArray(inputStream);
-            FileUtils.writeByteArrayToFile(
-                    new File(buildObjectFullPath(putObjectRequest.bucket(), putObjectRequest.key())),
-                    fileContent
-            );
+        Path upload = store.createUpload(putObjectRequest.bucket());
+        try (InputStream inputStream = requestBody.contentStreamProvider().newStream()) {
+            Files.copy(inputStream, upload, StandardCopyOption.REPLACE_EXISTING);
+            store.completeUpload(upload, putObjectRequest.bucket(), putObjectRequest.key());
             return PutObjectResponse.builder().build();
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw SdkClientException.create("Failed to write object " + putObjectRequest.key(), e);
+        } finally {
+            deleteQuietly(upload);
         }
     }
 
+    /**
+     * Serves the object, or the requested range of it, straight from its file; see
+     * {@link FileRegionInputStream}.
+     */
     @Override
-    public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest getObjectRequest) throws AwsServiceException, SdkClientException {
+    public <ReturnT> ReturnT getObject(GetObjectRequest getObjectRequest,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) throws AwsServiceException, SdkClientException {
+        FileChannel channel = store.open(getObjectRequest.bucket(), getObjectRequest.key());
         try {
-            FileInputStream fileStream = new FileInputStream(
-                    buildObjectFullPath(getObjectRequest.bucket(), getObjectRequest.key())
+            long size = channel.size();
+            ObjectRange range = ObjectRange.resolve(getObjectRequest.range(), size);
+            ReturnT result = responseTransformer.transform(
+                    ObjectRange.response(range, size),
+                    AbortableInputStream.create(new FileRegionInputStream(
+                            channel,
+                            range == null ? 0 : range.first(),
+                            range == null ? size : range.last() + 1
+                    ))
             );
-            return new ResponseInputStream<>(GetObjectResponse.builder().build(), fileStream);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
+            if (!responseTransformer.needsConnectionLeftOpen()) {
+                channel.close();
+            }
+            return result;
+        } catch (Exception e) {
+            IoUtils.closeQuietly(channel, null);
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw SdkClientException.create("Failed to read object " + getObjectRequest.key(), e);
+        }
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest headObjectRequest) throws AwsServiceException, SdkClientException {
+        BasicFileAttributes attributes = store.attributes(headObjectRequest.bucket(), headObjectRequest.key());
+        return HeadObjectResponse.builder()
+                .acceptRanges("bytes")
+                .contentLength(attributes.size())
+                .lastModified(attributes.lastModifiedTime().toInstant())
+                .build();
+    }
+
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest deleteObjectRequest) throws AwsServiceException, SdkClientException {
+        store.delete(deleteObjectRequest.bucket(), deleteObjectRequest.key());
+        return DeleteObjectResponse.builder().build();
+    }
+
+    /**
+     * Lists in key order, a page of at most {@code maxKeys} (1000 by default) at a time. With a
+     * delimiter, keys sharing a prefix up to it are rolled up into one common prefix, which
+     * counts against the page like a key does.
+     */
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request listObjectsV2Request) throws AwsServiceException, SdkClientException {
+        String prefix = listObjectsV2Request.prefix() == null ? "" : listObjectsV2Request.prefix();
+        String delimiter = listObjectsV2Request.delimiter();
+        int maxKeys = listObjectsV2Request.maxKeys() == null ? 1000 : listObjectsV2Request.maxKeys();
+        String startAfter = listObjectsV2Request.continuationToken() != null
+                ? decodeContinuationToken(listObjectsV2Request.continuationToken())
+                : listObjectsV2Request.startAfter();
+        List<S3Object> contents = new ArrayList<>();
+        List<CommonPrefix> commonPrefixes = new ArrayList<>();
+        String last = null;
+        boolean truncated = false;
+        for (S3Object object : store.list(listObjectsV2Request.bucket(), prefix, startAfter)) {
+            String commonPrefix = commonPrefix(object.key(), prefix, delimiter);
+            if (commonPrefix != null && last != null && last.equals(commonPrefix)) {
+                continue;
+            }
+            if (contents.size() + commonPrefixes.size() == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (commonPrefix != null) {
+                commonPrefixes.add(CommonPrefix.builder().prefix(commonPrefix).build());
+                last = commonPrefix;
+            } else {
+                contents.add(object);
+                last = object.key();
+            }
+        }
+        return ListObjectsV2Response.builder()
+                .name(listObjectsV2Request.bucket())
+                .prefix(listObjectsV2Request.prefix())
+                .delimiter(delimiter)
+                .maxKeys(maxKeys)
+                .contents(contents)
+                .commonPrefixes(commonPrefixes)
+                .keyCount(contents.size() + commonPrefixes.size())
+                .isTruncated(truncated)
+                .continuationToken(listObjectsV2Request.continuationToken())
+                .nextContinuationToken(truncated ? encodeContinuationToken(lastKey(last, delimiter)) : null)
+                .startAfter(listObjectsV2Request.startAfter())
+                .build();
+    }
+
+    private static String commonPrefix(String key, String prefix, String delimiter) {
+        if (delimiter == null || delimiter.isEmpty()) {
+            return null;
+        }
+        int index = key.indexOf(delimiter, prefix.length());
+        return index == -1 ? null : key.substring(0, index + delimiter.length());
+    }
+
+    // resumes after every key under a common prefix, not just the prefix itself
+    private static String lastKey(String last, String delimiter) {
+        return delimiter != null && !delimiter.isEmpty() && last.endsWith(delimiter)
+                ? last + Character.MAX_VALUE
+                : last;
+    }
+
+    private static String encodeContinuationToken(String key) {
+        return Base64.getUrlEncoder().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeContinuationToken(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw (S3Exception) S3Exception.builder()
+                    .statusCode(400)
+                    .message("The continuation token provided is incorrect")
+                    .awsErrorDetails(AwsErrorDetails.builder()
+                            .errorCode("InvalidArgument")
+                            .errorMessage("The continuation token provided is incorrect")
+                            .build())
+                    .build();
+        }
+    }
+
+    static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
         }
     }
 
-    private String buildObjectFullPath(String bucketName, String key){
-        return PATH + "/" + bucketName + "/" + key;
+    static NoSuchKeyException noSuchKey(String key){
+        return NoSuchKeyException.builder()
+                .statusCode(404)
+                .message("The specified key does not exist: " + key)
+                .build();
     }
 }
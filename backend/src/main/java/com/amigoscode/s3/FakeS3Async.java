@@ -0,0 +1,147 @@
+package com.amigoscode.s3;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.utils.IoUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous {@link FakeS3}: objects live in the same {@link LocalObjectStore}, so either
+ * client reads what the other wrote. File access happens on the bounded elastic scheduler.
+ */
+public class FakeS3Async implements S3AsyncClient {
+    private final FakeS3 sync;
+    private final LocalObjectStore store;
+
+    public FakeS3Async() {
+        this(LocalObjectStore.DEFAULT_ROOT);
+    }
+
+    public FakeS3Async(Path root) {
+        this.sync = new FakeS3(root);
+        this.store = sync.store();
+    }
+
+    @Override
+    public String serviceName() {
+        return "fake";
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public CompletableFuture<PutObjectResponse> putObject(PutObjectRequest putObjectRequest, AsyncRequestBody requestBody) {
+        return Mono.usingWhen(
+                        Mono.fromCallable(() -> store.createUpload(putObjectRequest.bucket())),
+                        upload -> Mono.using(
+                                () -> FileChannel.open(upload, StandardOpenOption.WRITE),
+                                // one buffer in flight at a time, each written as it arrives
+                                channel -> Flux.from(requestBody)
+                                        .publishOn(Schedulers.boundedElastic(), 1)
+                                        .doOnNext(buffer -> write(channel, buffer))
+                                        .then(),
+                                channel -> IoUtils.closeQuietly(channel, null)
+                        ).then(Mono.fromCallable(() -> {
+                            store.completeUpload(upload, putObjectRequest.bucket(), putObjectRequest.key());
+                            return PutObjectResponse.builder().build();
+                        })),
+                        upload -> Mono.fromRunnable(() -> FakeS3.deleteQuietly(upload))
+                )
+                .onErrorMap(UncheckedIOException.class, e -> SdkClientException.create(
+                        "Failed to write object " + putObjectRequest.key(), e.getCause()
+                ))
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture();
+    }
+
+    /**
+     * Publishes the object, or the requested range of it, as a single memory-mapped buffer, so
+     * it is neither read onto the heap nor copied before it is written out.
+     */
+    @Override
+    public <T> CompletableFuture<T> getObject(GetObjectRequest getObjectRequest,
+                                              AsyncResponseTransformer<GetObjectResponse, T> transformer) {
+        return Mono.fromCallable(() -> {
+                    try (FileChannel channel = store.open(getObjectRequest.bucket(), getObjectRequest.key())) {
+                        long size = channel.size();
+                        ObjectRange range = ObjectRange.resolve(getObjectRequest.range(), size);
+                        // the mapping stays valid once the channel is closed
+                        ByteBuffer body = range == null
+                                ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                                : channel.map(FileChannel.MapMode.READ_ONLY, range.first(), range.length());
+                        return new MappedObject(ObjectRange.response(range, size), body);
+                    } catch (IOException e) {
+                        throw SdkClientException.create("Failed to read object " + getObjectRequest.key(), e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture()
+                .thenCompose(object -> {
+                    CompletableFuture<T> result = transformer.prepare();
+                    transformer.onResponse(object.response());
+                    transformer.onStream(SdkPublisher.adapt(Mono.just(object.body())));
+                    return result;
+                });
+    }
+
+    @Override
+    public CompletableFuture<HeadObjectResponse> headObject(HeadObjectRequest headObjectRequest) {
+        return onBoundedElastic(() -> sync.headObject(headObjectRequest));
+    }
+
+    @Override
+    public CompletableFuture<DeleteObjectResponse> deleteObject(DeleteObjectRequest deleteObjectRequest) {
+        return onBoundedElastic(() -> sync.deleteObject(deleteObjectRequest));
+    }
+
+    @Override
+    public CompletableFuture<ListObjectsV2Response> listObjectsV2(ListObjectsV2Request listObjectsV2Request) {
+        return onBoundedElastic(() -> sync.listObjectsV2(listObjectsV2Request));
+    }
+
+    private static <T> CompletableFuture<T> onBoundedElastic(Callable<T> call) {
+        return Mono.fromCallable(call)
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture();
+    }
+
+    private record MappedObject(GetObjectResponse response, ByteBuffer body) {
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.amigoscode.s3;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * The directory {@link FakeS3} and {@link FakeS3Async} keep objects in. An object is a file at
+ * {@code {bucket}/{shard}/{encoded key}}: the key is percent-encoded into a single file name, so
+ * no key can reach outside its bucket, and spread over 256 shard directories by its hash, so
+ * no directory grows too large to list quickly.
+ * <p>
+ * Objects are written to a temporary file under {@code {bucket}/.uploads} and renamed into
+ * place, so a reader sees either the old or the new object in full. A reader that already
+ * opened an object keeps reading it when it is replaced or deleted. Nothing is locked.
+ */
+final class LocalObjectStore {
+
+    static final Path DEFAULT_ROOT = Path.of(System.getProperty("user.home"), ".amigoscode", "s3");
+
+    private static final String UPLOADS = ".uploads";
+    private static final Pattern BUCKET_NAME = Pattern.compile("[a-z0-9][a-z0-9.-]{1,61}[a-z0-9]");
+    private static final String UNRESERVED = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_.~";
+
+    private final Path root;
+
+    LocalObjectStore(Path root) {
+        this.root = root;
+    }
+
+    Path path(String bucket, String key) {
+        return bucket(bucket).resolve(shard(key)).resolve(encode(key));
+    }
+
+    /**
+     * Creates the file an object is written to before {@link #completeUpload} puts it in place.
+     */
+    Path createUpload(String bucket) {
+        try {
+            Path uploads = Files.createDirectories(bucket(bucket).resolve(UPLOADS));
+            return Files.createTempFile(uploads, "upload-", null);
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to create upload in bucket " + bucket, e);
+        }
+    }
+
+    void completeUpload(Path upload, String bucket, String key) {
+        Path path = path(bucket, key);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.move(upload, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to write object " + key, e);
+        }
+    }
+
+    FileChannel open(String bucket, String key) {
+        try {
+            return FileChannel.open(path(bucket, key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw FakeS3.noSuchKey(key);
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to read object " + key, e);
+        }
+    }
+
+    BasicFileAttributes attributes(String bucket, String key) {
+        try {
+            return Files.readAttributes(path(bucket, key), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw FakeS3.noSuchKey(key);
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to read object " + key, e);
+        }
+    }
+
+    /**
+     * Like S3, deleting a key that does not exist succeeds.
+     */
+    void delete(String bucket, String key) {
+        try {
+            Files.deleteIfExists(path(bucket, key));
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to delete object " + key, e);
+        }
+    }
+
+    /**
+     * The objects whose keys start with the prefix and sort after {@code startAfter}, in key
+     * order. Every shard is read, so this is meant for tools and tests, not request paths.
+     */
+    List<S3Object> list(String bucket, String prefix, String startAfter) {
+        Path directory = bucket(bucket);
+        TreeMap<String, S3Object> objects = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, LocalObjectStore::isShard)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        String key = decode(file.getFileName().toString());
+                        if (key.startsWith(prefix) && (startAfter == null || key.compareTo(startAfter) > 0)) {
+                            object(file, key).ifPresent(object -> objects.put(key, object));
+                        }
+                    }
+                } catch (NoSuchFileException ignored) {
+                    // removed while listing
+                }
+            }
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to list bucket " + bucket, e);
+        }
+        return new ArrayList<>(objects.values());
+    }
+
+    private static Optional<S3Object> object(Path file, String key) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Optional.of(S3Object.builder()
+                    .key(key)
+                    .size(attributes.size())
+                    .lastModified(attributes.lastModifiedTime().toInstant())
+                    .build());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw SdkClientException.create("Failed to read object " + key, e);
+        }
+    }
+
+    private Path bucket(String bucket) {
+        if (bucket == null || !BUCKET_NAME.matcher(bucket).matches() || bucket.contains("..")) {
+            throw (S3Exception) S3Exception.builder()
+                    .statusCode(400)
+                    .message("The specified bucket is not valid: " + bucket)
+                    .awsErrorDetails(AwsErrorDetails.builder()
+                            .errorCode("InvalidBucketName")
+                            .errorMessage("The specified bucket is not valid")
+                            .build())
+                    .build();
+        }
+        return root.resolve(bucket);
+    }
+
+    // String.hashCode is specified, so keys land in the same shard on every JVM
+    static String shard(String key) {
+        return HexFormat.of().toHexDigits((byte) key.hashCode());
+    }
+
+    private static boolean isShard(Path path) {
+        String name = path.getFileName().toString();
+        return name.length() == 2 && HexFormat.isHexDigit(name.charAt(0)) && HexFormat.isHexDigit(name.charAt(1))
+                && Files.isDirectory(path);
+    }
+
+    /**
+     * Percent-encodes all but unreserved characters, and a leading dot, so a key never becomes a
+     * path separator, {@code ..} or a hidden file.
+     */
+    static String encode(String key) {
+        StringBuilder encoded = new StringBuilder();
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            char c = (char) (bytes[i] & 0xff);
+            if (UNRESERVED.indexOf(c) >= 0 && !(i == 0 && c == '.')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HexFormat.of().withUpperCase().toHexDigits(bytes[i]));
+            }
+        }
+        return encoded.toString();
+    }
+
+    static String decode(String name) {
+        return URLDecoder.decode(name, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package com.amigoscode.s3;
+
+import org.springframework.http.HttpRange;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.List;
+
+/**
+ * The byte range of an object a get is answered with, inclusive at both ends. Shared by the
+ * fake clients and {@link S3ObjectCache}, which serve ranges themselves and have to answer them
+ * the way S3 does.
+ */
+record ObjectRange(long first, long last) {
+
+    long length() {
+        return last - first + 1;
+    }
+
+    /**
+     * Resolves a {@code Range} the way S3 does: only a single byte range is honoured, anything
+     * else returns the whole object ({@code null}), and a range that starts past the end is
+     * rejected.
+     */
+    static ObjectRange resolve(String range, long size) {
+        if (range == null) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (ranges.size() != 1) {
+            return null;
+        }
+        HttpRange httpRange = ranges.get(0);
+        long first = httpRange.getRangeStart(size);
+        if (first >= size) {
+            throw (S3Exception) S3Exception.builder()
+                    .statusCode(416)
+                    .message("The requested range is not satisfiable")
+                    .awsErrorDetails(AwsErrorDetails.builder()
+                            .errorCode("InvalidRange")
+                            .errorMessage("The requested range is not satisfiable")
+                            .build())
+                    .build();
+        }
+        return new ObjectRange(first, httpRange.getRangeEnd(size));
+    }
+
+    /**
+     * The response S3 gives for the range of an object of the given size, or for all of it
+     * when the range is {@code null}.
+     */
+    static GetObjectResponse response(ObjectRange range, long size) {
+        return range == null
+                ? GetObjectResponse.builder()
+                        .acceptRanges("bytes")
+                        .contentLength(size)
+                        .build()
+                : GetObjectResponse.builder()
+                        .acceptRanges("bytes")
+                        .contentLength(range.length())
+                        .contentRange("bytes %s-%s/%s".formatted(range.first(), range.last(), size))
+                        .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.amigoscode.s3;
+
+import com.amigoscode.exception.RangeNotSatisfiableException;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking counterpart of {@link S3Service}. The returned futures complete on the
+ * client's threads, so callers should hand blocking follow-up work to an executor of their own.
+ */
+@Service
+public class S3AsyncService {
+    private final S3AsyncClient s3;
+
+    public S3AsyncService(S3AsyncClient s3AsyncClient) {
+        this.s3 = s3AsyncClient;
+    }
+
+    /**
+     * Uploads the file as it is read from disk, so its size does not count against the heap.
+     * The file must stay in place until the returned future completes.
+     */
+    public CompletableFuture<Void> putObject(String bucketName, String key, Path file, String contentType){
+        PutObjectRequest objectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build();
+
+        return s3.putObject(objectRequest, AsyncRequestBody.fromFile(file))
+                .thenApply(response -> null);
+    }
+
+    /**
+     * Streams the object, or a byte range of it, as it arrives instead of collecting it first.
+     *
+     * @param range an HTTP {@code Range} header value as returned by {@link S3Service#singleByteRange}, or {@code null}
+     */
+    public CompletableFuture<ResponsePublisher<GetObjectResponse>> getObjectPublisher(String bucketName, String key, String range){
+        GetObjectRequest objectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .range(range)
+                .build();
+
+        return s3.getObject(objectRequest, AsyncResponseTransformer.<GetObjectResponse>toPublisher())
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if(cause instanceof S3Exception s3Exception && s3Exception.statusCode() == 416){
+                        throw new RangeNotSatisfiableException("Range [%s] is not satisfiable".formatted(range));
+                    }
+                    throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+                });
+    }
+}
@@ -3,7 +3,9 @@ package com.amigoscode.s3;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
 @Configuration
@@ -12,6 +14,8 @@ public class S3Config {
     private String awsRegion;
     @Value("${aws.s3.mock}")
     private boolean mock;
+    @Value("${aws.s3.part-size:8MB}")
+    private DataSize partSize;
     @Bean
     public S3Client s3Client(){
         if(mock){
@@ -21,4 +25,16 @@ public class S3Config {
                 .region(Region.of(awsRegion))
                 .build();
     }
+    @Bean
+    public S3AsyncClient s3AsyncClient(){
+        if(mock){
+            return new FakeS3Async();
+        }
+        // native, non-blocking client; transfers do not hold a thread while in flight, and
+        // objects larger than a part are sent as a multipart upload with parts in parallel
+        return S3AsyncClient.crtBuilder()
+                .region(Region.of(awsRegion))
+                .minimumPartSizeInBytes(partSize.toBytes())
+                .build();
+    }
 }
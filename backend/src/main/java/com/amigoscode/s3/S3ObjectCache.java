@@ -0,0 +1,272 @@
+package com.amigoscode.s3;
+
+import com.amigoscode.exception.RangeNotSatisfiableException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of small, immutable objects in front of {@link S3Service} and
+ * {@link S3AsyncService}. Bounded by the total size of the cached objects rather than their
+ * number, with W-TinyLFU eviction, so rarely requested objects do not push out popular ones.
+ * Concurrent misses for the same object wait for a single load.
+ * <p>
+ * Objects are kept in read-only direct buffers, outside of the heap the collector copies
+ * around. Every request reads its own slice of the buffer, so a hit is served without copying
+ * the object. An evicted buffer stays allocated until the last request reading it is done and
+ * the collector has found it unreachable, which a heap with little pressure may put off for a
+ * long time; {@code s3.objects.resident} counts these too. Direct memory is capped by
+ * {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size; set it to leave
+ * room above {@code maximum-size} for evicted buffers, next to what the HTTP server's own
+ * buffers take.
+ * <p>
+ * Only whole objects up to {@code maximum-object-size} are cached, and only once all of their
+ * {@code Content-Length} bytes have arrived. Ranges are served from a cached object, but a
+ * range miss goes to S3 without populating the cache.
+ */
+@Service
+public class S3ObjectCache {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final S3Service s3Service;
+    private final S3AsyncService s3AsyncService;
+    private final long maximumObjectSize;
+    private final AsyncCache<ObjectKey, CachedObject> objects;
+    private final AtomicLong residentBytes = new AtomicLong();
+
+    public S3ObjectCache(S3Service s3Service,
+                         S3AsyncService s3AsyncService,
+                         S3ObjectCacheProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.s3Service = s3Service;
+        this.s3AsyncService = s3AsyncService;
+        this.maximumObjectSize = Math.min(
+                properties.getMaximumObjectSize().toBytes(),
+                properties.getMaximumSize().toBytes()
+        );
+        this.objects = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((ObjectKey key, CachedObject object) -> object.content().limit())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, objects, "s3.objects");
+        Gauge.builder("s3.objects.resident", residentBytes, AtomicLong::get)
+                .description("Bytes of S3 objects held off-heap, cached or evicted and not yet freed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("s3.objects.hit.ratio", objects, cache -> cache.synchronous().stats().hitRate())
+                .description("Share of S3 object requests served from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached counterpart of {@link S3Service#getObjectStream}.
+     */
+    public S3ObjectStream getObjectStream(String bucketName, String key, String range) {
+        ObjectKey objectKey = new ObjectKey(bucketName, key);
+        if (range != null) {
+            CachedObject cached = loaded(objectKey);
+            return cached != null ? cached.stream(range) : s3Service.getObjectStream(bucketName, key, range);
+        }
+        CompletableFuture<CachedObject> loading = new CompletableFuture<>();
+        CompletableFuture<CachedObject> found = objects.get(objectKey, (k, executor) -> loading);
+        if (found != loading) {
+            CachedObject cached = await(found);
+            return cached != null ? cached.stream(null) : s3Service.getObjectStream(bucketName, key, null);
+        }
+        CachedObject cached;
+        try {
+            S3ObjectStream stream = s3Service.getObjectStream(bucketName, key, null);
+            if (!fits(stream.contentLength())) {
+                loading.complete(null);
+                return stream;
+            }
+            ByteBuffer content = allocate(stream.contentLength());
+            try (stream) {
+                stream.transferTo(new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        if (len > content.remaining()) {
+                            throw new IOException("Object [%s] is longer than its Content-Length".formatted(key));
+                        }
+                        content.put(b, off, len);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cached = complete(objectKey, stream.contentType(), content);
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        loading.complete(cached);
+        return cached.stream(null);
+    }
+
+    /**
+     * Cached counterpart of {@link S3AsyncService#getObjectPublisher}.
+     */
+    public CompletableFuture<ResponsePublisher<GetObjectResponse>> getObjectPublisher(String bucketName, String key, String range) {
+        ObjectKey objectKey = new ObjectKey(bucketName, key);
+        if (range != null) {
+            CachedObject cached = loaded(objectKey);
+            if (cached == null) {
+                return s3AsyncService.getObjectPublisher(bucketName, key, range);
+            }
+            try {
+                return CompletableFuture.completedFuture(cached.publisher(range));
+            } catch (RangeNotSatisfiableException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<CachedObject> loading = new CompletableFuture<>();
+        CompletableFuture<CachedObject> found = objects.get(objectKey, (k, executor) -> loading);
+        if (found != loading) {
+            return found.thenCompose(cached -> cached != null
+                    ? CompletableFuture.completedFuture(cached.publisher(null))
+                    : s3AsyncService.getObjectPublisher(bucketName, key, null));
+        }
+        return s3AsyncService.getObjectPublisher(bucketName, key, null).thenCompose(publisher -> {
+            GetObjectResponse response = publisher.response();
+            if (!fits(response.contentLength())) {
+                loading.complete(null);
+                return CompletableFuture.completedFuture(publisher);
+            }
+            ByteBuffer content = allocate(response.contentLength());
+            return publisher.subscribe(chunk -> {
+                        if (chunk.remaining() > content.remaining()) {
+                            throw new UncheckedIOException(new IOException(
+                                    "Object [%s] is longer than its Content-Length".formatted(key)));
+                        }
+                        content.put(chunk);
+                    })
+                    .thenApply(done -> {
+                        CachedObject cached = complete(objectKey, response.contentType(), content);
+                        loading.complete(cached);
+                        return cached.publisher(null);
+                    });
+        }).whenComplete((publisher, e) -> {
+            if (e != null) {
+                // removes the entry, so the next request tries again
+                loading.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Drops the cached objects whose keys start with the prefix. Walks all entries, which is
+     * cheap for the few thousand objects a cache of this size holds.
+     */
+    public void invalidate(String bucketName, String keyPrefix) {
+        objects.asMap().keySet().removeIf(
+                key -> key.bucketName().equals(bucketName) && key.key().startsWith(keyPrefix)
+        );
+    }
+
+    private boolean fits(Long contentLength) {
+        return contentLength != null && contentLength <= maximumObjectSize;
+    }
+
+    // freed by the collector once neither the cache nor a request reading a slice refers to it
+    private ByteBuffer allocate(long contentLength) {
+        int size = Math.toIntExact(contentLength);
+        ByteBuffer content = ByteBuffer.allocateDirect(size);
+        residentBytes.addAndGet(size);
+        CLEANER.register(content, () -> residentBytes.addAndGet(-size));
+        return content;
+    }
+
+    // a body that ended early must not be served as the whole object until it is evicted
+    private static CachedObject complete(ObjectKey key, String contentType, ByteBuffer content) {
+        if (content.hasRemaining()) {
+            throw new UncheckedIOException(new IOException("Object [%s] ended after %s of %s bytes"
+                    .formatted(key.key(), content.position(), content.capacity())));
+        }
+        return new CachedObject(contentType, content.flip().asReadOnlyBuffer());
+    }
+
+    private CachedObject loaded(ObjectKey key) {
+        CompletableFuture<CachedObject> future = objects.getIfPresent(key);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private static CachedObject await(CompletableFuture<CachedObject> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record ObjectKey(String bucketName, String key) {
+    }
+
+    private record CachedObject(String contentType, ByteBuffer content) {
+
+        S3ObjectStream stream(String range) {
+            ObjectRange resolved = resolve(range);
+            return new S3ObjectStream(
+                    response(resolved),
+                    AbortableInputStream.create(new ByteBufferInputStream(slice(resolved)))
+            );
+        }
+
+        ResponsePublisher<GetObjectResponse> publisher(String range) {
+            ObjectRange resolved = resolve(range);
+            ByteBuffer slice = slice(resolved);
+            return new ResponsePublisher<>(
+                    response(resolved),
+                    SdkPublisher.adapt(Mono.fromSupplier(slice::duplicate))
+            );
+        }
+
+        // the same rules S3 applies; see ObjectRange#resolve
+        private ObjectRange resolve(String range) {
+            try {
+                return ObjectRange.resolve(range, content.limit());
+            } catch (S3Exception e) {
+                throw new RangeNotSatisfiableException("Range [%s] is not satisfiable".formatted(range));
+            }
+        }
+
+        private GetObjectResponse response(ObjectRange range) {
+            return ObjectRange.response(range, content.limit()).toBuilder()
+                    .contentType(contentType)
+                    .build();
+        }
+
+        private ByteBuffer slice(ObjectRange range) {
+            return range == null
+                    ? content.duplicate()
+                    : content.slice((int) range.first(), (int) range.length());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.amigoscode.s3;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@ConfigurationProperties(prefix = "aws.s3.cache")
+public class S3ObjectCacheProperties {
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+    private DataSize maximumObjectSize = DataSize.ofMegabytes(1);
+
+    public DataSize getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(DataSize maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public DataSize getMaximumObjectSize() {
+        return maximumObjectSize;
+    }
+
+    public void setMaximumObjectSize(DataSize maximumObjectSize) {
+        this.maximumObjectSize = maximumObjectSize;
+    }
+}
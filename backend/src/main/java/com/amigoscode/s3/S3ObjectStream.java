@@ -0,0 +1,75 @@
+package com.amigoscode.s3;
+
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An object, or a byte range of it, as it is being read from S3. The content is copied out in
+ * fixed-size chunks, so memory use does not depend on the size of the object. Must be closed;
+ * closing before the content was read to the end aborts the download rather than draining it.
+ */
+public final class S3ObjectStream implements Closeable {
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    private final GetObjectResponse response;
+    private final AbortableInputStream content;
+    private boolean complete;
+
+    S3ObjectStream(GetObjectResponse response, AbortableInputStream content) {
+        this.response = response;
+        this.content = content;
+    }
+
+    public String contentType() {
+        return response.contentType();
+    }
+
+    public Long contentLength() {
+        return response.contentLength();
+    }
+
+    /**
+     * The {@code Content-Range} of a partial response, {@code null} for the whole object.
+     */
+    public String contentRange() {
+        return response.contentRange();
+    }
+
+    public long transferTo(OutputStream out) throws IOException {
+        try {
+            long transferred = content.delegate() instanceof FileRegionInputStream
+                    || content.delegate() instanceof ByteBufferInputStream
+                    ? content.delegate().transferTo(out)
+                    : copy(out);
+            complete = true;
+            return transferred;
+        } catch (IOException e) {
+            // most likely the client went away; the rest of the object is not wanted
+            content.abort();
+            throw e;
+        }
+    }
+
+    private long copy(OutputStream out) throws IOException {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        long transferred = 0;
+        int read;
+        while ((read = content.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+            transferred += read;
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!complete) {
+            content.abort();
+        }
+        content.close();
+    }
+}
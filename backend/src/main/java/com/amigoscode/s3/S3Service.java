@@ -1,14 +1,19 @@
 package com.amigoscode.s3;
 
+import com.amigoscode.exception.RangeNotSatisfiableException;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
+import java.util.List;
 
 @Service
 public class S3Service {
@@ -39,4 +44,43 @@ public class S3Service {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Opens the object, or a byte range of it, without buffering it. The caller copies the
+     * content out with {@link S3ObjectStream#transferTo} and has to close the stream.
+     *
+     * @param range an HTTP {@code Range} header value as returned by {@link #singleByteRange}, or {@code null}
+     */
+    public S3ObjectStream getObjectStream(String bucketName, String key, String range){
+        GetObjectRequest objectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .range(range)
+                .build();
+        try {
+            return s3.getObject(objectRequest, ResponseTransformer.unmanaged(S3ObjectStream::new));
+        } catch (S3Exception e) {
+            if(e.statusCode() == 416){
+                throw new RangeNotSatisfiableException("Range [%s] is not satisfiable".formatted(range));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * S3 serves a single byte range per request. Returns the {@code Range} header if that is
+     * what it asks for, otherwise {@code null}: the whole object is sent, which a server is
+     * always free to do instead of serving a range.
+     */
+    public static String singleByteRange(String rangeHeader){
+        if(rangeHeader == null){
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? HttpRange.toString(ranges) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package com.amigoscode.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Picks a BCrypt strength for this machine. Every extra round doubles the hashing time, so
+ * one measurement at the minimum strength is enough to extrapolate the rest.
+ */
+final class BCryptCalibrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BCryptCalibrator.class);
+    private static final int SAMPLES = 3;
+
+    private BCryptCalibrator() {
+    }
+
+    /**
+     * @return the highest strength in {@code [minStrength, maxStrength]} expected to hash
+     * within {@code targetLatency}, or {@code minStrength} if even that is slower
+     */
+    static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        long nanos = measure(minStrength);
+        int strength = minStrength;
+        long expected = nanos;
+        while (strength < maxStrength && expected * 2 <= targetLatency.toNanos()) {
+            strength++;
+            expected *= 2;
+        }
+        LOGGER.info("BCrypt strength {} takes {} ms, calibrated to strength {} (~{} ms) for a target of {} ms",
+                minStrength, nanos / 1_000_000, strength, expected / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+
+    // median of a few runs after a warm-up, so JIT compilation and a stray pause do not skew it
+    static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration");
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,116 @@
+package com.amigoscode.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Token buckets for login attempts, one per client IP and one per username. Buckets live in a
+ * size-bounded Caffeine cache (a striped concurrent map) and are dropped once idle; a dropped
+ * bucket would have refilled by then anyway, as long as the idle timeout is not shorter than
+ * the refill period.
+ */
+@Component
+public class LoginThrottle {
+
+    static final String IP_PREFIX = "ip:";
+    static final String USERNAME_PREFIX = "username:";
+
+    private final LoginThrottleProperties properties;
+    private final Ticker ticker;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter ipRejections;
+    private final Counter usernameRejections;
+
+    @Autowired
+    public LoginThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    LoginThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.properties = properties;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "login.throttle");
+        this.ipRejections = rejections(meterRegistry, "ip");
+        this.usernameRejections = rejections(meterRegistry, "username");
+    }
+
+    /**
+     * Takes a token from the client's and, if known, the username's bucket.
+     *
+     * @return {@link Duration#ZERO} when the attempt may go ahead, otherwise how long until it could
+     */
+    public Duration acquire(String clientIp, String username) {
+        long now = ticker.read();
+        long wait = bucket(IP_PREFIX + clientIp, properties.getPerIp(), now).tryConsume(now);
+        if (wait > 0) {
+            ipRejections.increment();
+            return Duration.ofNanos(wait);
+        }
+        if (username != null && !username.isBlank()) {
+            String key = USERNAME_PREFIX + username.trim().toLowerCase(Locale.ROOT);
+            wait = bucket(key, properties.getPerUsername(), now).tryConsume(now);
+            if (wait > 0) {
+                usernameRejections.increment();
+                return Duration.ofNanos(wait);
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    /**
+     * @return the tracked keys with the most rejected attempts first
+     */
+    public List<LoginThrottleEntry> getEntries(int limit) {
+        long now = ticker.read();
+        return buckets.asMap().entrySet().stream()
+                .map(entry -> new LoginThrottleEntry(
+                        entry.getKey(),
+                        entry.getValue().getAllowed(),
+                        entry.getValue().getRejected(),
+                        entry.getValue().availableTokens(now)
+                ))
+                .sorted(Comparator.comparingLong(LoginThrottleEntry::rejected).reversed()
+                        .thenComparing(LoginThrottleEntry::key))
+                .limit(limit)
+                .toList();
+    }
+
+    public long getTrackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Forgets a key, which lets it start over with a full bucket.
+     */
+    public void reset(String key) {
+        buckets.invalidate(key);
+    }
+
+    private TokenBucket bucket(String key, LoginThrottleProperties.Limit limit, long now) {
+        return buckets.get(key, k -> new TokenBucket(limit.getCapacity(), limit.getPeriod().toNanos(), now));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("login.throttle.rejected")
+                .description("Login attempts rejected before any credential check")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
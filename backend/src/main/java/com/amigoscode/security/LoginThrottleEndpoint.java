@@ -0,0 +1,39 @@
+package com.amigoscode.security;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/loginthrottle}: per-key attempt counters of the login throttle, and a way
+ * to lift the limit for a key.
+ */
+@Component
+@Endpoint(id = "loginthrottle")
+public class LoginThrottleEndpoint {
+
+    private static final int MAX_ENTRIES = 100;
+
+    private final LoginThrottle loginThrottle;
+
+    public LoginThrottleEndpoint(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
+    @ReadOperation
+    public LoginThrottleReport report() {
+        return new LoginThrottleReport(loginThrottle.getTrackedKeys(), loginThrottle.getEntries(MAX_ENTRIES));
+    }
+
+    @DeleteOperation
+    public void reset(@Selector String key) {
+        loginThrottle.reset(key);
+    }
+
+    public record LoginThrottleReport(long trackedKeys, List<LoginThrottleEntry> entries) {
+    }
+}
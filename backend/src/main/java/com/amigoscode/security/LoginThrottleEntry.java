@@ -0,0 +1,9 @@
+package com.amigoscode.security;
+
+public record LoginThrottleEntry(
+        String key,
+        long allowed,
+        long rejected,
+        long availableTokens
+) {
+}
@@ -0,0 +1,154 @@
+package com.amigoscode.security;
+
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.exception.TooManyRequestsException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Throttles login attempts per client IP and per username before the request reaches the
+ * authentication provider, so over-limit attempts cost neither a customer lookup nor a
+ * password check. The body is read up front for the username and replayed to the controller.
+ * <p>
+ * Behind the load balancer {@link HttpServletRequest#getRemoteAddr()} is the client address
+ * Tomcat took from {@code X-Forwarded-For}, see {@code server.forward-headers-strategy}.
+ */
+@Component
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    static final String LOGIN_PATH = "/api/v1/auth/login";
+    // far more than any real login request needs
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    private final LoginThrottle loginThrottle;
+    private final LoginThrottleProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle,
+                               LoginThrottleProperties properties,
+                               ObjectMapper objectMapper,
+                               @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        this.loginThrottle = loginThrottle;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !LOGIN_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            handlerExceptionResolver.resolveException(request, response, null, new RequestValidationException(
+                    "Login request must not be larger than %s bytes".formatted(MAX_BODY_BYTES)
+            ));
+            return;
+        }
+        Duration retryAfter = loginThrottle.acquire(request.getRemoteAddr(), username(body));
+        if (!retryAfter.isZero()) {
+            handlerExceptionResolver.resolveException(request, response, null, new TooManyRequestsException(
+                    "Too many login attempts, please retry later", retryAfter
+            ));
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private String username(byte[] body) {
+        try {
+            JsonNode request = objectMapper.readTree(body);
+            JsonNode username = request == null ? null : request.get("username");
+            return username == null || !username.isTextual() ? null : username.asText();
+        } catch (IOException e) {
+            // left for the controller to reject; the client IP is still throttled
+            return null;
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // the whole body is buffered, so it can be handed over right away
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
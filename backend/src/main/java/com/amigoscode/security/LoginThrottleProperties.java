@@ -0,0 +1,88 @@
+package com.amigoscode.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "login.throttle")
+public class LoginThrottleProperties {
+    private boolean enabled = true;
+    private Limit perIp = new Limit(20, Duration.ofMinutes(1));
+    private Limit perUsername = new Limit(5, Duration.ofMinutes(1));
+    private long maximumKeys = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getPerIp() {
+        return perIp;
+    }
+
+    public void setPerIp(Limit perIp) {
+        this.perIp = perIp;
+    }
+
+    public Limit getPerUsername() {
+        return perUsername;
+    }
+
+    public void setPerUsername(Limit perUsername) {
+        this.perUsername = perUsername;
+    }
+
+    public long getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    public void setMaximumKeys(long maximumKeys) {
+        this.maximumKeys = maximumKeys;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Up to {@code capacity} attempts in a burst, refilled evenly over {@code period}.
+     */
+    public static class Limit {
+        private long capacity;
+        private Duration period;
+
+        public Limit() {
+        }
+
+        public Limit(long capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+    }
+}
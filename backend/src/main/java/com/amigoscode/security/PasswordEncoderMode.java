@@ -0,0 +1,16 @@
+package com.amigoscode.security;
+
+/**
+ * How the BCrypt work factor for new password hashes is chosen.
+ */
+public enum PasswordEncoderMode {
+    /**
+     * Use the configured strength.
+     */
+    FIXED,
+    /**
+     * Measure hashing on this machine at startup and pick the highest strength that stays
+     * within the configured latency target.
+     */
+    CALIBRATED
+}
@@ -0,0 +1,56 @@
+package com.amigoscode.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "password.encoder")
+public class PasswordEncoderProperties {
+    private PasswordEncoderMode mode = PasswordEncoderMode.FIXED;
+    private int strength = 10;
+    private Duration targetLatency = Duration.ofMillis(50);
+    private int minStrength = 10;
+    private int maxStrength = 16;
+
+    public PasswordEncoderMode getMode() {
+        return mode;
+    }
+
+    public void setMode(PasswordEncoderMode mode) {
+        this.mode = mode;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public void setStrength(int strength) {
+        this.strength = strength;
+    }
+
+    public Duration getTargetLatency() {
+        return targetLatency;
+    }
+
+    public void setTargetLatency(Duration targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    public int getMinStrength() {
+        return minStrength;
+    }
+
+    public void setMinStrength(int minStrength) {
+        this.minStrength = minStrength;
+    }
+
+    public int getMaxStrength() {
+        return maxStrength;
+    }
+
+    public void setMaxStrength(int maxStrength) {
+        this.maxStrength = maxStrength;
+    }
+}
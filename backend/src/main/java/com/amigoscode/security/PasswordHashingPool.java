@@ -0,0 +1,198 @@
+package com.amigoscode.security;
+
+import com.amigoscode.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool for password hashing. BCrypt is pure CPU work, so the pool has one thread per
+ * core; more threads would only add contention.
+ * <p>
+ * The threads are shared by two lanes with a bounded queue each. Interactive work
+ * ({@link #call}) is taken before any queued bulk work, so bulk jobs can not starve logins,
+ * and is rejected with a {@link TooManyRequestsException} once its short queue is full, so a
+ * burst of logins fails fast instead of tying up request threads. Bulk work from a request
+ * ({@link #submitAll}) is rejected the same way, and never runs on the request thread.
+ * Background jobs ({@link #submit}) wait for room in the bulk queue instead.
+ */
+@Component
+public class PasswordHashingPool {
+
+    private static final ThreadLocal<Boolean> IN_POOL = ThreadLocal.withInitial(() -> false);
+
+    private final ThreadPoolExecutor executor;
+    private final Lane interactive;
+    private final Lane bulk;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Timer interactiveTimer;
+    private final Counter rejections;
+
+    public PasswordHashingPool(@Value("${password.hashing.queue-capacity}") int queueCapacity,
+                               @Value("${password.hashing.interactive-queue-capacity}") int interactiveQueueCapacity,
+                               MeterRegistry meterRegistry) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        // unbounded, but only ever holds what the lanes let in
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.interactive = new Lane(0, interactiveQueueCapacity);
+        this.bulk = new Lane(1, queueCapacity);
+        this.interactiveTimer = Timer.builder("password.hashing.duration")
+                .description("Time from submitting an interactive password hash or check until it completes")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejections = Counter.builder("password.hashing.rejected")
+                .description("Password hashes rejected because the pool was saturated")
+                .register(meterRegistry);
+        registerGauge(meterRegistry, interactive, "interactive");
+        registerGauge(meterRegistry, bulk, "bulk");
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes being computed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues all tasks on the bulk lane, or none of them when there is not enough room, in
+     * which case a {@link TooManyRequestsException} is thrown.
+     */
+    public <T> List<CompletableFuture<T>> submitAll(List<? extends Supplier<T>> tasks) {
+        if (!bulk.slots.tryAcquire(tasks.size())) {
+            rejections.increment();
+            throw new TooManyRequestsException("Too many concurrent password hashes, please retry later", retryAfter(bulk));
+        }
+        List<CompletableFuture<T>> results = new ArrayList<>(tasks.size());
+        for (Supplier<T> task : tasks) {
+            results.add(execute(bulk, task));
+        }
+        return results;
+    }
+
+    /**
+     * Queues the task on the bulk lane, waiting for room if need be. Only for background
+     * jobs; requests use {@link #submitAll}.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        bulk.slots.acquireUninterruptibly();
+        return execute(bulk, task);
+    }
+
+    /**
+     * Runs the task on the interactive lane and waits for it. Tasks submitted from within
+     * the pool run right away on the current thread.
+     */
+    public <T> T call(Supplier<T> task) {
+        if (IN_POOL.get()) {
+            return task.get();
+        }
+        long started = System.nanoTime();
+        if (!interactive.slots.tryAcquire()) {
+            rejections.increment();
+            throw new TooManyRequestsException("Too many concurrent password checks, please retry later", retryAfter(interactive));
+        }
+        try {
+            return execute(interactive, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            interactiveTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // the caller holds a slot of the lane, which is given back once the task leaves the queue
+    private <T> CompletableFuture<T> execute(Lane lane, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(new QueuedTask(lane.priority, sequence.getAndIncrement(), () -> {
+            lane.slots.release();
+            IN_POOL.set(true);
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                IN_POOL.set(false);
+            }
+        }));
+        return result;
+    }
+
+    // time to drain a full queue at the current pace, at least a second
+    private Duration retryAfter(Lane lane) {
+        double meanMillis = interactiveTimer.mean(TimeUnit.MILLISECONDS);
+        long millis = (long) (meanMillis * lane.queued() / executor.getMaximumPoolSize());
+        return Duration.ofMillis(Math.max(millis, 1_000));
+    }
+
+    private static void registerGauge(MeterRegistry meterRegistry, Lane lane, String pool) {
+        Gauge.builder("password.hashing.queue", lane, Lane::queued)
+                .description("Password hashes waiting for a thread")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    private static final class Lane {
+        private final int priority;
+        private final int capacity;
+        private final Semaphore slots;
+
+        private Lane(int priority, int capacity) {
+            this.priority = priority;
+            this.capacity = capacity;
+            this.slots = new Semaphore(capacity);
+        }
+
+        private int queued() {
+            return capacity - slots.availablePermits();
+        }
+    }
+
+    // interactive before bulk, first come first served within a lane
+    private record QueuedTask(int priority, long sequence, Runnable task) implements Runnable, Comparable<QueuedTask> {
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
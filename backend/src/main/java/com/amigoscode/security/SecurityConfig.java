@@ -6,15 +6,48 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
 public class SecurityConfig {
+    /**
+     * Role of the operator-only actuator endpoints. Customers are only granted {@code ROLE_USER},
+     * so registering an account does not open them.
+     */
+    public static final String OPERATOR_ROLE = "OPERATOR";
+    private static final String BCRYPT = "bcrypt";
+
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(PasswordHashingPool passwordHashingPool, PasswordEncoderProperties properties){
+        return new PooledPasswordEncoder(delegatingPasswordEncoder(properties), passwordHashingPool);
+    }
+
+    /**
+     * Encodes with BCrypt at the configured or calibrated strength and still matches hashes
+     * stored without an encoding prefix. Shared with the reactive stack, which runs it on its
+     * own scheduler rather than on the password hashing pool.
+     */
+    public static PasswordEncoder delegatingPasswordEncoder(PasswordEncoderProperties properties){
+        int strength = switch (properties.getMode()) {
+            case FIXED -> properties.getStrength();
+            case CALIBRATED -> BCryptCalibrator.calibrate(
+                    properties.getTargetLatency(),
+                    properties.getMinStrength(),
+                    properties.getMaxStrength()
+            );
+        };
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                BCRYPT, Map.of(BCRYPT, new BCryptPasswordEncoder(strength))
+        );
+        // hashes stored before the {bcrypt} prefix was introduced; rehashed on the next login
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception{
@@ -23,10 +56,13 @@ public class SecurityConfig {
     @Bean
     public AuthenticationProvider authenticationProvider(
             UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService,
             PasswordEncoder passwordEncoder
     ){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
+        // upgrades outdated hashes after a successful login
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         provider.setPasswordEncoder(passwordEncoder);
         return provider;
     }
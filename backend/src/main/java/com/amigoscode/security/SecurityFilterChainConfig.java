@@ -1,6 +1,7 @@
 package com.amigoscode.security;
 
 import com.amigoscode.jwt.JWTAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -19,13 +20,16 @@ public class SecurityFilterChainConfig {
     private final AuthenticationProvider authenticationProvider;
     private final JWTAuthenticationFilter jwtAuthenticationFilter;
     private final AuthenticationEntryPoint authenticationEntryPoint;
+    private final LoginThrottleFilter loginThrottleFilter;
     public SecurityFilterChainConfig(
             AuthenticationProvider authenticationProvider,
             JWTAuthenticationFilter jwtAuthenticationFilter,
-            AuthenticationEntryPoint authenticationEntryPoint) {
+            AuthenticationEntryPoint authenticationEntryPoint,
+            LoginThrottleFilter loginThrottleFilter) {
         this.authenticationProvider = authenticationProvider;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.authenticationEntryPoint = authenticationEntryPoint;
+        this.loginThrottleFilter = loginThrottleFilter;
     }
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception{
@@ -33,14 +37,20 @@ public class SecurityFilterChainConfig {
                 .csrf().disable()
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests()
+                // completes a CompletableFuture result; the request was authorized when it came in
+                .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                .permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/v1/customers")
                 .permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/v1/auth/login")
                 .permitAll()
-                .requestMatchers(HttpMethod.GET, "/ping", "/api/v1/customers/*/profile-image")
+                .requestMatchers(HttpMethod.GET, "/ping", "/api/v1/customers/*/profile-image", "/api/v1/customers/*/profile-image/*")
                 .permitAll()
-                .requestMatchers(HttpMethod.GET, "/actuator/**")
+                .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**", "/actuator/info")
                 .permitAll()
+                // metrics, and the login throttle with client IPs and usernames
+                .requestMatchers("/actuator/**")
+                .hasRole(SecurityConfig.OPERATOR_ROLE)
                 .anyRequest()
                 .authenticated()
                 .and()
@@ -48,6 +58,7 @@ public class SecurityFilterChainConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authenticationProvider(authenticationProvider)
+                .addFilterBefore(loginThrottleFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling()
                 .authenticationEntryPoint(authenticationEntryPoint);
@@ -0,0 +1,56 @@
+package com.amigoscode.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: instead of a token count and a refill timestamp it
+ * keeps a single "theoretical arrival time", the instant at which the bucket would be full
+ * again. Taking a token pushes that instant one emission interval further; refilling is
+ * implied by time passing, so nothing needs to run in the background.
+ */
+final class TokenBucket {
+
+    private final long capacity;
+    private final long intervalNanos;
+    private final AtomicLong fullAt;
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    TokenBucket(long capacity, long periodNanos, long nowNanos) {
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, periodNanos / capacity);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return {@code 0} when a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryConsume(long nowNanos) {
+        long burst = capacity * intervalNanos;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            if (next - nowNanos > burst) {
+                rejected.incrementAndGet();
+                return next - nowNanos - burst;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                allowed.incrementAndGet();
+                return 0;
+            }
+        }
+    }
+
+    long availableTokens(long nowNanos) {
+        long backlog = Math.max(fullAt.get() - nowNanos, 0);
+        return (capacity * intervalNanos - backlog) / intervalNanos;
+    }
+
+    long getAllowed() {
+        return allowed.get();
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.amigoscode.threads;
+
+import com.amigoscode.exception.TooManyRequestsException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the asynchronous part of Spring MVC requests, such as copying a
+ * {@code StreamingResponseBody} to the client, instead of the shared application task
+ * executor. Those copies block on slow clients, so in {@link ThreadMode#PLATFORM} the pool is
+ * sized like Tomcat's workers, and a response only gets started once {@link #acquire} found a
+ * thread for it. In {@link ThreadMode#VIRTUAL} every copy gets a virtual thread of its own.
+ */
+@Component
+public class AsyncRequestExecutor implements DisposableBean {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final ExecutorService executorService;
+    private final AsyncTaskExecutor taskExecutor;
+    private final Semaphore threads;
+
+    public AsyncRequestExecutor(@Value("${threads.mode:PLATFORM}") ThreadMode mode,
+                                @Value("${threads.async-request.pool-size:200}") int poolSize) {
+        if (mode == ThreadMode.VIRTUAL) {
+            this.executorService = VirtualThreads.newThreadPerTaskExecutor();
+            this.threads = new Semaphore(Integer.MAX_VALUE);
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            // the queue only takes tasks handed over while a finishing thread is still on its way back
+            this.executorService = new ThreadPoolExecutor(
+                    poolSize,
+                    poolSize,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(poolSize),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "async-request-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+            );
+            this.threads = new Semaphore(poolSize);
+        }
+        this.taskExecutor = new TaskExecutorAdapter(executorService);
+    }
+
+    /**
+     * Claims a thread for one asynchronous response. Must be followed by {@link #release}
+     * once the response has been written, or when it is not going to be started after all.
+     */
+    public void acquire() {
+        if (!threads.tryAcquire()) {
+            throw new TooManyRequestsException("Too many concurrent downloads, please retry later", RETRY_AFTER);
+        }
+    }
+
+    public void release() {
+        threads.release();
+    }
+
+    AsyncTaskExecutor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    @Override
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+}
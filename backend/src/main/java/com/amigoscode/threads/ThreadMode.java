@@ -0,0 +1,16 @@
+package com.amigoscode.threads;
+
+/**
+ * Which threads run request handling and other blocking work.
+ */
+public enum ThreadMode {
+    /**
+     * Tomcat's bounded worker pool and Spring's task executor, as configured.
+     */
+    PLATFORM,
+    /**
+     * A new virtual thread per request and per task. Needs Java 21, see the
+     * {@code virtual-threads} Maven profile.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,39 @@
+package com.amigoscode.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskExecutorCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Moves request handling and {@code @Async} work onto virtual threads when
+ * {@code threads.mode} is {@link ThreadMode#VIRTUAL}. Blocking calls made from a request,
+ * such as JDBC queries and S3 downloads, then park the virtual thread instead of holding one
+ * of Tomcat's 200 workers. Scheduled jobs and the CPU bound password hashing pool keep their
+ * platform threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "threads.mode", havingValue = "VIRTUAL")
+public class ThreadModeConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        // created here rather than in the lambda, so a JDK without virtual threads fails startup
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean
+    public TaskExecutorCustomizer virtualThreadTaskExecutorCustomizer() {
+        return taskExecutor -> {
+            // hand every task straight to a new thread, there is no point in queueing for a virtual one
+            taskExecutor.setThreadFactory(VirtualThreads.newThreadFactory("task-"));
+            taskExecutor.setCorePoolSize(0);
+            taskExecutor.setMaxPoolSize(Integer.MAX_VALUE);
+            taskExecutor.setQueueCapacity(0);
+        };
+    }
+}
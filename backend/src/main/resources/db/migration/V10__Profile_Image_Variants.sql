@@ -0,0 +1,3 @@
+-- images uploaded before variants existed are stored as a single object
+ALTER TABLE profile_image
+ADD COLUMN has_variants BOOLEAN NOT NULL DEFAULT FALSE;
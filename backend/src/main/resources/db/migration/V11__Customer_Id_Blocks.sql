@@ -0,0 +1,5 @@
+-- ids inserted outside Hibernate come from blocks of 50 too (hi - 49 to hi, see CustomerIdPool).
+-- Hibernate takes a first value of 1 as the start of a block rather than its end, so the
+-- sequence starts past the first block to keep both readings of it from overlapping
+SELECT setval('customer_id_seq', 50)
+WHERE (SELECT last_value FROM customer_id_seq) < 50;
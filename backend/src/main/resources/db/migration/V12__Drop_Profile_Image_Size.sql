@@ -0,0 +1,3 @@
+-- the size of the upload, not of any variant that is served; nothing reads it
+ALTER TABLE profile_image
+DROP COLUMN size;
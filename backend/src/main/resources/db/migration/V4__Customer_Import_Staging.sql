@@ -0,0 +1,11 @@
+CREATE UNLOGGED TABLE customer_import_staging (
+    import_id UUID NOT NULL,
+    line_number BIGINT NOT NULL,
+    name TEXT NOT NULL,
+    email TEXT NOT NULL,
+    password TEXT NOT NULL,
+    gender TEXT NOT NULL,
+    age INT NOT NULL
+);
+CREATE INDEX customer_import_staging_import_id_email_idx
+ON customer_import_staging (import_id, email, line_number);
@@ -0,0 +1,16 @@
+-- one index per supported listing access pattern: equality on gender first, then the
+-- sort / range column, then id as keyset tie-breaker
+CREATE INDEX customer_gender_id_idx
+ON customer (gender, id);
+
+CREATE INDEX customer_age_id_idx
+ON customer (age, id);
+
+CREATE INDEX customer_gender_age_id_idx
+ON customer (gender, age, id);
+
+CREATE INDEX customer_name_id_idx
+ON customer (name, id);
+
+CREATE INDEX customer_gender_name_id_idx
+ON customer (gender, name, id);
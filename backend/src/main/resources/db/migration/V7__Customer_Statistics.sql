@@ -0,0 +1,63 @@
+-- customer counts per gender and age decade, kept current by statement level triggers so
+-- dashboards never have to aggregate the customer table itself
+CREATE TABLE customer_statistics(
+    gender TEXT NOT NULL,
+    age_bucket INT NOT NULL,
+    customer_count BIGINT NOT NULL,
+    PRIMARY KEY (gender, age_bucket)
+);
+
+INSERT INTO customer_statistics (gender, age_bucket, customer_count)
+SELECT gender, (age / 10) * 10, count(*)
+FROM customer
+GROUP BY 1, 2;
+
+CREATE FUNCTION customer_statistics_apply() RETURNS TRIGGER AS $$
+BEGIN
+    -- one upsert per statement, grouped, so bulk imports touch each bucket once; buckets are
+    -- locked in key order to keep concurrent writers from deadlocking
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO customer_statistics AS s (gender, age_bucket, customer_count)
+        SELECT gender, (age / 10) * 10, count(*)
+        FROM new_rows
+        GROUP BY 1, 2
+        ORDER BY 1, 2
+        ON CONFLICT (gender, age_bucket) DO UPDATE SET customer_count = s.customer_count + EXCLUDED.customer_count;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO customer_statistics AS s (gender, age_bucket, customer_count)
+        SELECT gender, (age / 10) * 10, -count(*)
+        FROM old_rows
+        GROUP BY 1, 2
+        ORDER BY 1, 2
+        ON CONFLICT (gender, age_bucket) DO UPDATE SET customer_count = s.customer_count + EXCLUDED.customer_count;
+    ELSE
+        INSERT INTO customer_statistics AS s (gender, age_bucket, customer_count)
+        SELECT gender, age_bucket, sum(delta)
+        FROM (
+            SELECT gender, (age / 10) * 10 AS age_bucket, 1 AS delta FROM new_rows
+            UNION ALL
+            SELECT gender, (age / 10) * 10 AS age_bucket, -1 AS delta FROM old_rows
+        ) changes
+        GROUP BY 1, 2
+        HAVING sum(delta) <> 0
+        ORDER BY 1, 2
+        ON CONFLICT (gender, age_bucket) DO UPDATE SET customer_count = s.customer_count + EXCLUDED.customer_count;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_statistics_insert
+AFTER INSERT ON customer
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION customer_statistics_apply();
+
+CREATE TRIGGER customer_statistics_update
+AFTER UPDATE ON customer
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION customer_statistics_apply();
+
+CREATE TRIGGER customer_statistics_delete
+AFTER DELETE ON customer
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION customer_statistics_apply();
@@ -0,0 +1,7 @@
+CREATE TABLE revoked_token (
+    jti TEXT PRIMARY KEY,
+    expires_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX revoked_token_expires_at_idx ON revoked_token (expires_at);
+CREATE INDEX revoked_token_revoked_at_idx ON revoked_token (revoked_at);
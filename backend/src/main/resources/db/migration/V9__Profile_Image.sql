@@ -0,0 +1,9 @@
+CREATE TABLE profile_image (
+    id VARCHAR(36) PRIMARY KEY,
+    customer_id BIGINT NOT NULL REFERENCES customer (id) ON DELETE CASCADE,
+    content_hash TEXT NOT NULL,
+    size BIGINT NOT NULL,
+    content_type TEXT NOT NULL,
+    uploaded_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX profile_image_customer_id_idx ON profile_image (customer_id);
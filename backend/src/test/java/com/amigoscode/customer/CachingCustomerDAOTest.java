@@ -0,0 +1,162 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCustomerDAOTest {
+
+    @Mock
+    private CustomerDAO delegate;
+    private final CustomerCacheProperties properties = new CustomerCacheProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CachingCustomerDAO underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CachingCustomerDAO(delegate, properties, meterRegistry);
+    }
+
+    @Test
+    void willCacheCustomerById() {
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        Customer first = underTest.selectCustomerById(1).orElseThrow();
+        first.setName("Changed by caller");
+        Customer second = underTest.selectCustomerById(1).orElseThrow();
+
+        assertThat(second.getName()).isEqualTo("Marko");
+        assertThat(underTest.existsPersonWithId(1)).isTrue();
+        assertThat(underTest.selectCustomerDTOById(1)).hasValueSatisfying(dto -> assertThat(dto.email()).isEqualTo("ljudina@gmail.com"));
+        verify(delegate, times(1)).selectCustomerById(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "customers.by-id").tag("result", "hit").functionCounter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void willCacheMisses() {
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.empty());
+
+        assertThat(underTest.selectCustomerById(1)).isEmpty();
+        assertThat(underTest.existsPersonWithId(1)).isFalse();
+
+        verify(delegate, times(1)).selectCustomerById(1);
+    }
+
+    @Test
+    void willExpireMissesAfterNegativeTtl() {
+        properties.setNegativeTtl(Duration.ZERO);
+        underTest = new CachingCustomerDAO(delegate, properties, new SimpleMeterRegistry());
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.empty());
+
+        underTest.selectCustomerById(1);
+        underTest.selectCustomerById(1);
+
+        verify(delegate, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void willNotCacheFailedLoads() {
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(delegate.selectCustomerById(1))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(Optional.of(customer));
+
+        assertThatThrownBy(() -> underTest.selectCustomerById(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("connection lost");
+        assertThat(underTest.selectCustomerById(1)).contains(customer);
+
+        verify(delegate, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void willServeUserByEmailFromIdCache() {
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(delegate.selectUserByEmail(customer.getEmail())).thenReturn(Optional.of(customer));
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        underTest.selectUserByEmail(customer.getEmail());
+        Optional<Customer> actual = underTest.selectUserByEmail(customer.getEmail());
+
+        assertThat(actual).contains(customer);
+        verify(delegate, times(1)).selectUserByEmail(customer.getEmail());
+        verify(delegate, times(1)).selectCustomerById(1);
+    }
+
+    @Test
+    void willNotServeCustomerForEmailItNoLongerHas() {
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        Customer renamed = new Customer(1, "marko@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(delegate.selectUserByEmail(customer.getEmail())).thenReturn(Optional.of(customer), Optional.empty());
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer), Optional.of(renamed));
+        underTest.selectUserByEmail(customer.getEmail());
+
+        underTest.updateCustomer(renamed);
+
+        assertThat(underTest.selectUserByEmail(customer.getEmail())).isEmpty();
+        verify(delegate).updateCustomer(renamed);
+    }
+
+    @Test
+    void willInvalidateCachedMissOnInsert() {
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(delegate.selectUserByEmail(customer.getEmail())).thenReturn(Optional.empty(), Optional.of(customer));
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+        assertThat(underTest.selectUserByEmail(customer.getEmail())).isEmpty();
+
+        underTest.insertCustomer(customer);
+
+        assertThat(underTest.selectUserByEmail(customer.getEmail())).contains(customer);
+        verify(delegate).insertCustomer(customer);
+    }
+
+    @Test
+    void willInvalidateOnDeleteAndProfileImageUpdate() {
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+        underTest.selectCustomerById(1);
+
+        underTest.updateCustomerProfileImageId("2222", 1);
+        underTest.selectCustomerById(1);
+        underTest.deleteCustomerById(1);
+        underTest.selectCustomerById(1);
+
+        verify(delegate).updateCustomerProfileImageId("2222", 1);
+        verify(delegate).deleteCustomerById(1);
+        verify(delegate, times(3)).selectCustomerById(1);
+    }
+
+    @Test
+    void willInvalidateOnPasswordUpdate() {
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+        underTest.selectCustomerById(1);
+
+        underTest.updateCustomerPassword(1, "{bcrypt}hash");
+        underTest.selectCustomerById(1);
+
+        verify(delegate).updateCustomerPassword(1, "{bcrypt}hash");
+        verify(delegate, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void willNotCacheEmailUniquenessChecks() {
+        underTest.existsPersonWithEmail("ljudina@gmail.com");
+        underTest.existsPersonWithEmail("ljudina@gmail.com");
+
+        verify(delegate, times(2)).existsPersonWithEmail("ljudina@gmail.com");
+    }
+}
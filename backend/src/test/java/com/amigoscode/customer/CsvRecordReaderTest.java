@@ -0,0 +1,64 @@
+package com.amigoscode.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void canReadRecords() throws IOException {
+        CsvRecordReader underTest = new CsvRecordReader(new StringReader(
+                "name,email\r\n\"Marko, \"\"Jr\"\"\",marko@gmail.com\n\"Ana\nJovanovic\",\n"
+        ));
+
+        assertThat(underTest.readRecord()).containsExactly("name", "email");
+        assertThat(underTest.getLineNumber()).isEqualTo(1);
+        assertThat(underTest.readRecord()).containsExactly("Marko, \"Jr\"", "marko@gmail.com");
+        assertThat(underTest.getLineNumber()).isEqualTo(2);
+        assertThat(underTest.readRecord()).containsExactly("Ana\nJovanovic", "");
+        assertThat(underTest.readRecord()).isNull();
+    }
+
+    @Test
+    void willCountLineBreaksInsideQuotedFields() throws IOException {
+        CsvRecordReader underTest = new CsvRecordReader(new StringReader(
+                "name,email\n\"Ana\r\nJovanovic\nPetrovic\",ana@gmail.com\r\nMarko,marko@gmail.com\r\rJovan,\r\n\nPetar,\n"
+        ));
+
+        underTest.readRecord();
+        assertThat(underTest.readRecord()).containsExactly("Ana\r\nJovanovic\nPetrovic", "ana@gmail.com");
+        assertThat(underTest.getLineNumber()).isEqualTo(2);
+        assertThat(underTest.readRecord()).containsExactly("Marko", "marko@gmail.com");
+        assertThat(underTest.getLineNumber()).isEqualTo(5);
+        assertThat(underTest.readRecord()).containsExactly("");
+        assertThat(underTest.getLineNumber()).isEqualTo(6);
+        assertThat(underTest.readRecord()).containsExactly("Jovan", "");
+        assertThat(underTest.getLineNumber()).isEqualTo(7);
+        assertThat(underTest.readRecord()).containsExactly("");
+        assertThat(underTest.readRecord()).containsExactly("Petar", "");
+        assertThat(underTest.getLineNumber()).isEqualTo(9);
+    }
+
+    @Test
+    void canReadLastRecordWithoutLineBreak() throws IOException {
+        CsvRecordReader underTest = new CsvRecordReader(new StringReader("a,b"));
+
+        assertThat(underTest.readRecord()).isEqualTo(List.of("a", "b"));
+        assertThat(underTest.readRecord()).isNull();
+    }
+
+    @Test
+    void willThrowOnUnterminatedQuote() {
+        CsvRecordReader underTest = new CsvRecordReader(new StringReader("\"a,b"));
+
+        assertThatThrownBy(underTest::readRecord)
+                .isInstanceOf(IOException.class)
+                .hasMessage("Unterminated quoted field starting on line 1");
+    }
+}
@@ -0,0 +1,112 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.DuplicateResourceException;
+import com.amigoscode.exception.RequestValidationException;
+import com.amigoscode.security.PasswordHashingPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.assertj.core.groups.Tuple;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static com.amigoscode.customer.CustomerBatchRegistrationResult.Status.CREATED;
+import static com.amigoscode.customer.CustomerBatchRegistrationResult.Status.DUPLICATE;
+import static com.amigoscode.customer.CustomerBatchRegistrationResult.Status.INVALID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBatchRegistrationServiceTest {
+
+    @Mock
+    private CustomerDAO customerDAO;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+    @Mock
+    private CustomerSuggestionIndex suggestionIndex;
+    @Mock
+    private CustomerChangePublisher changePublisher;
+    private CustomerBatchRegistrationService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerBatchRegistrationService(customerDAO, passwordEncoder, new PasswordHashingPool(10, 10, new SimpleMeterRegistry()), suggestionIndex, changePublisher, 3);
+    }
+
+    @Test
+    void canRegisterCustomers() {
+        CustomerRegistrationRequest marko = new CustomerRegistrationRequest("Marko", "marko@gmail.com", "password", 40, Gender.MALE);
+        CustomerRegistrationRequest ana = new CustomerRegistrationRequest("Ana", "ana@gmail.com", "secret", 30, Gender.FEMALE);
+        when(customerDAO.selectExistingEmails(Set.of(marko.email(), ana.email()))).thenReturn(Set.of());
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+
+        List<CustomerBatchRegistrationResult> results = underTest.registerCustomers(List.of(marko, ana));
+
+        assertThat(results).containsExactly(
+                new CustomerBatchRegistrationResult(0, marko.email(), CREATED, null),
+                new CustomerBatchRegistrationResult(1, ana.email(), CREATED, null)
+        );
+        ArgumentCaptor<List<Customer>> customersArgumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(customerDAO).insertCustomers(customersArgumentCaptor.capture());
+        assertThat(customersArgumentCaptor.getValue())
+                .extracting(Customer::getEmail, Customer::getPassword)
+                .containsExactly(
+                        Tuple.tuple(marko.email(), "hash-password"),
+                        Tuple.tuple(ana.email(), "hash-secret")
+                );
+        verify(suggestionIndex).put(null, marko.name(), marko.email());
+        verify(suggestionIndex).put(null, ana.name(), ana.email());
+        verify(changePublisher).customerChanged(null, marko.email());
+        verify(changePublisher).customerChanged(null, ana.email());
+    }
+
+    @Test
+    void willReportInvalidAndDuplicateCustomers() {
+        CustomerRegistrationRequest invalid = new CustomerRegistrationRequest("Marko", "marko@gmail.com", null, 40, Gender.MALE);
+        CustomerRegistrationRequest existing = new CustomerRegistrationRequest("Ana", "ana@gmail.com", "secret", 30, Gender.FEMALE);
+        CustomerRegistrationRequest repeated = new CustomerRegistrationRequest("Ana", "ana@gmail.com", "secret", 30, Gender.FEMALE);
+        when(customerDAO.selectExistingEmails(Set.of(existing.email()))).thenReturn(Set.of(existing.email()));
+
+        List<CustomerBatchRegistrationResult> results = underTest.registerCustomers(List.of(invalid, existing, repeated));
+
+        assertThat(results).extracting(CustomerBatchRegistrationResult::status)
+                .containsExactly(INVALID, DUPLICATE, DUPLICATE);
+        assertThat(results.get(0).message()).isEqualTo("Customer password is required");
+        assertThat(results.get(1).message()).isEqualTo("Customer with email [ana@gmail.com] already exists!");
+        assertThat(results.get(2).message()).isEqualTo("Customer with email [ana@gmail.com] appears more than once in batch!");
+        verify(customerDAO, never()).insertCustomers(any());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void willThrowWhenBatchIsTooLarge() {
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest("Marko", "marko@gmail.com", "password", 40, Gender.MALE);
+        assertThatThrownBy(() -> underTest.registerCustomers(Collections.nCopies(4, request)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Batch must not contain more than 3 customers");
+        verifyNoInteractions(customerDAO);
+    }
+
+    @Test
+    void willThrowWhenEmailIsRegisteredConcurrently() {
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest("Marko", "marko@gmail.com", "password", 40, Gender.MALE);
+        when(customerDAO.selectExistingEmails(Set.of(request.email()))).thenReturn(Set.of());
+        doThrow(new DuplicateKeyException("duplicate")).when(customerDAO).insertCustomers(any());
+
+        assertThatThrownBy(() -> underTest.registerCustomers(List.of(request)))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("One or more customers in batch already exist, please retry!");
+    }
+}
@@ -0,0 +1,87 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.AbstractTestContainers;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.Driver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+class CustomerChangeListenerTest extends AbstractTestContainers {
+
+    private final CachingCustomerDAO cache = mock(CachingCustomerDAO.class);
+    private final CustomerSuggestionIndex suggestionIndex = mock(CustomerSuggestionIndex.class);
+    private JdbcTemplate jdbcTemplate;
+    private CustomerChangePublisher publisher;
+    private CustomerChangeListener underTest;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = getJdbcTemplate();
+        publisher = new CustomerChangePublisher(jdbcTemplate);
+        // like in production, the listener connects straight through the driver rather than a pool
+        HikariDataSource pool = (HikariDataSource) jdbcTemplate.getDataSource();
+        underTest = new CustomerChangeListener(
+                new SimpleDriverDataSource(new Driver(), pool.getJdbcUrl(), pool.getUsername(), pool.getPassword()),
+                cache,
+                suggestionIndex,
+                Duration.ofMillis(100)
+        );
+        underTest.start();
+        // the cache is flushed once the listener is subscribed
+        verify(cache, timeout(5000)).evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.stop();
+    }
+
+    @Test
+    void willEvictChangedCustomers() {
+        publisher.customerChanged(1, "ljudina@gmail.com");
+        publisher.customerChanged(2, null);
+
+        verify(cache, timeout(5000)).evict(1, "ljudina@gmail.com");
+        verify(cache, timeout(5000)).evict(2, null);
+    }
+
+    @Test
+    void willRefreshChangedCustomersInSuggestionIndex() {
+        publisher.customerChanged(1, "ljudina@gmail.com");
+
+        verify(suggestionIndex, timeout(5000)).refresh(1);
+        verify(suggestionIndex, never()).load();
+    }
+
+    @Test
+    void willEvictEverythingWhenAllCustomersChanged() {
+        publisher.allCustomersChanged();
+
+        verify(cache, timeout(5000).times(2)).evictAll();
+        verify(suggestionIndex, timeout(5000)).load();
+    }
+
+    @Test
+    void willFlushCacheAndResubscribeAfterLosingConnection() {
+        jdbcTemplate.queryForList("""
+                SELECT pg_terminate_backend(pid)
+                FROM pg_stat_activity
+                WHERE query = 'LISTEN customer_changed'
+                """);
+
+        // once when the connection drops and once more when listening again
+        verify(cache, timeout(5000).times(3)).evictAll();
+        // changes made while not listening are only picked up by a reload
+        verify(suggestionIndex, timeout(5000)).load();
+
+        publisher.customerChanged(3, null);
+        verify(cache, timeout(5000)).evict(3, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.amigoscode.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerDTORowMapperTest {
+
+    private CustomerDTORowMapper underTest;
+
+    @Mock
+    private ResultSet rs;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerDTORowMapper();
+    }
+
+    @Test
+    void mapRow() throws Exception {
+        when(rs.getInt("id")).thenReturn(1);
+        when(rs.getString("name")).thenReturn("Marko");
+        when(rs.getString("email")).thenReturn("ljudina@gmail.com");
+        when(rs.getInt("age")).thenReturn(40);
+        when(rs.getString("gender")).thenReturn("MALE");
+        when(rs.getString("profile_image_id")).thenReturn("2222");
+
+        CustomerDTO actual = underTest.mapRow(rs, 1);
+
+        CustomerDTO expected = new CustomerDTO(
+                1, "Marko", "ljudina@gmail.com", Gender.MALE, 40,
+                List.of("ROLE_USER"), "ljudina@gmail.com", "2222"
+        );
+        assertThat(actual).isEqualTo(expected);
+        verify(rs, never()).getString("password");
+    }
+
+    @Test
+    void mapRowLikeEntity() throws Exception {
+        when(rs.getInt("id")).thenReturn(1);
+        when(rs.getString("name")).thenReturn("Marko");
+        when(rs.getString("email")).thenReturn("ljudina@gmail.com");
+        when(rs.getInt("age")).thenReturn(40);
+        when(rs.getString("gender")).thenReturn("MALE");
+        when(rs.getString("profile_image_id")).thenReturn("2222");
+        Customer customer = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
+
+        CustomerDTO actual = underTest.mapRow(rs, 1);
+
+        assertThat(actual).isEqualTo(new CustomerDTOMapper().apply(customer));
+    }
+}
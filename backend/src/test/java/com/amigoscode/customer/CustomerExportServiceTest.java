@@ -0,0 +1,117 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.AbstractTestContainers;
+import com.amigoscode.exception.TooManyRequestsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerExportServiceTest extends AbstractTestContainers {
+
+    private CustomerExportService underTest;
+    private CustomerJDBCDataAccessService customerDAO;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = getJdbcTemplate().getDataSource();
+        underTest = new CustomerExportService(
+                dataSource,
+                new DataSourceTransactionManager(dataSource),
+                new ObjectMapper(),
+                2,
+                4,
+                5
+        );
+        customerDAO = new CustomerJDBCDataAccessService(getJdbcTemplate(), new CustomerRowMapper(), new CustomerDTORowMapper());
+    }
+
+    @Test
+    void canExportCustomersAsNdjson() throws Exception {
+        var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        customerDAO.insertCustomer(new Customer("Marko, \"Jr\"", email, "password", 20, Gender.MALE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        underTest.exportCustomers(CustomerExportFormat.NDJSON, 1, out);
+
+        String export = out.toString(StandardCharsets.UTF_8);
+        assertThat(export).endsWith("\n");
+        assertThat(export.lines())
+                .filteredOn(line -> line.contains(email))
+                .singleElement()
+                .satisfies(line -> {
+                    assertThat(line).contains("\"name\":\"Marko, \\\"Jr\\\"\"");
+                    assertThat(line).doesNotContain("password");
+                });
+    }
+
+    @Test
+    void canExportCustomersAsCsvInParallel() throws Exception {
+        var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        customerDAO.insertCustomer(new Customer("Marko, \"Jr\"", email, "password", 20, Gender.MALE));
+        int customers = customerDAO.selectAllCustomers().size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        underTest.exportCustomers(CustomerExportFormat.CSV, 3, out);
+
+        String export = out.toString(StandardCharsets.UTF_8);
+        assertThat(export.lines().findFirst()).hasValue("id,name,email,gender,age,profile_image_id");
+        assertThat(export.lines().count()).isGreaterThanOrEqualTo(customers + 1);
+        assertThat(export.lines())
+                .filteredOn(line -> line.contains(email))
+                .singleElement()
+                .satisfies(line -> assertThat(line).contains("\"Marko, \"\"Jr\"\"\"," + email + ",MALE,20,"));
+    }
+
+    @Test
+    void willRejectExportsBeyondConnectionBudget() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream blocked = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        ExecutorService client = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> running = client.submit(() -> {
+                underTest.exportCustomers(CustomerExportFormat.CSV, 4, blocked);
+                return null;
+            });
+            assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> underTest.exportCustomers(CustomerExportFormat.CSV, 2, new ByteArrayOutputStream()))
+                    .isInstanceOf(TooManyRequestsException.class);
+            underTest.exportCustomers(CustomerExportFormat.NDJSON, 1, new ByteArrayOutputStream());
+
+            release.countDown();
+            running.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            client.shutdownNow();
+        }
+        underTest.exportCustomers(CustomerExportFormat.CSV, 4, new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,35 @@
+package com.amigoscode.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerIdPoolTest {
+
+    private final CustomerIdPool underTest = new CustomerIdPool();
+
+    @Test
+    void willTakeIdsUpToHighEndOfBlocks() {
+        assertThat(underTest.take(3)).isEmpty();
+        assertThat(CustomerIdPool.blocksFor(60)).isEqualTo(2);
+
+        List<Integer> ids = underTest.takeFrom(List.of(100L, 150L), 60);
+
+        assertThat(ids).isEqualTo(IntStream.rangeClosed(51, 110).boxed().toList());
+        assertThat(underTest.take(50)).isEqualTo(IntStream.rangeClosed(111, 150).boxed().toList());
+        assertThat(underTest.take(1)).isEmpty();
+    }
+
+    @Test
+    void willKeepBlockAtHandWhenRefilledConcurrently() {
+        underTest.takeFrom(List.of(100L), 10);
+
+        List<Integer> ids = underTest.takeFrom(List.of(150L), 10);
+
+        assertThat(ids).startsWith(101);
+        assertThat(underTest.take(1)).containsExactly(61);
+    }
+}
@@ -0,0 +1,143 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.AbstractTestContainers;
+import com.amigoscode.security.PasswordHashingPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerImportServiceTest extends AbstractTestContainers {
+
+    private CustomerImportService underTest;
+    private CustomerJDBCDataAccessService customerDAO;
+    private CustomerSuggestionIndex suggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        customerDAO = new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper(), new CustomerDTORowMapper());
+        suggestionIndex = new CustomerSuggestionIndex(customerDAO, new SimpleMeterRegistry());
+        underTest = new CustomerImportService(
+                jdbcTemplate.getDataSource(),
+                jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                new BCryptPasswordEncoder(4),
+                new PasswordHashingPool(100, 10, new SimpleMeterRegistry()),
+                suggestionIndex,
+                new CustomerChangePublisher(jdbcTemplate),
+                2,
+                10
+        );
+    }
+
+    @Test
+    void canImportCustomers() throws Exception {
+        var existingEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        customerDAO.insertCustomer(new Customer(FAKER.name().fullName(), existingEmail, "password", 20, Gender.MALE));
+        var firstEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        var secondEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        Path file = Files.createTempFile("customers", ".csv");
+        Files.writeString(file, """
+                email,name,age,gender,password
+                %s,"Marko, Jr",40,male,password
+                %s,Ana,30,FEMALE,secret
+                %s,Ana,30,FEMALE,secret
+                %s,Existing,20,MALE,password
+                invalid,Invalid,abc,MALE,password
+                """.formatted(firstEmail, secondEmail, secondEmail, existingEmail));
+        CustomerImportJob job = new CustomerImportJob(10);
+
+        underTest.runImport(job, file);
+
+        CustomerImportStatus status = job.toStatus();
+        assertThat(status.state()).isEqualTo(CustomerImportStatus.State.COMPLETED);
+        assertThat(status.rowsRead()).isEqualTo(5);
+        assertThat(status.rowsStaged()).isEqualTo(4);
+        assertThat(status.rowsImported()).isEqualTo(2);
+        assertThat(status.rowsRejected()).isEqualTo(3);
+        assertThat(status.errors())
+                .extracting(CustomerImportError::line)
+                .containsExactlyInAnyOrder(4L, 5L, 6L);
+        assertThat(customerDAO.selectUserByEmail(firstEmail)).hasValueSatisfying(c -> {
+            assertThat(c.getName()).isEqualTo("Marko, Jr");
+            assertThat(c.getGender()).isEqualTo(Gender.MALE);
+            assertThat(new BCryptPasswordEncoder().matches("password", c.getPassword())).isTrue();
+        });
+        assertThat(customerDAO.selectUserByEmail(secondEmail)).isPresent();
+        assertThat(suggestionIndex.suggest(firstEmail, 10))
+                .extracting(CustomerSuggestion::email)
+                .containsExactly(firstEmail);
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    void willTakeOneSequenceBlockPerFiftyImportedCustomers() throws Exception {
+        var existingEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        customerDAO.insertCustomer(new Customer(FAKER.name().fullName(), existingEmail, "password", 20, Gender.MALE));
+        StringBuilder csv = new StringBuilder("email,name,age,gender,password\n");
+        for (int i = 0; i < 120; i++) {
+            csv.append("%s-%s,Customer,30,MALE,password\n".formatted(UUID.randomUUID(), i));
+        }
+        csv.append("%s,Existing,20,MALE,password\n".formatted(existingEmail));
+        Path file = Files.createTempFile("customers", ".csv");
+        Files.writeString(file, csv);
+        CustomerImportJob job = new CustomerImportJob(10);
+        long before = getJdbcTemplate().queryForObject("SELECT last_value FROM customer_id_seq", Long.class);
+
+        underTest.runImport(job, file);
+
+        long after = getJdbcTemplate().queryForObject("SELECT last_value FROM customer_id_seq", Long.class);
+        assertThat(job.toStatus().rowsImported()).isEqualTo(120);
+        assertThat(after - before).isEqualTo(3L * CustomerIdPool.BLOCK_SIZE);
+        assertThat(getJdbcTemplate().queryForObject(
+                "SELECT count(DISTINCT id) FROM customer WHERE id > ? AND id <= ?", Integer.class, before, after
+        )).isEqualTo(120);
+    }
+
+    @Test
+    void willStoreBCryptHashesWithPrefix() throws Exception {
+        var prefixedEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        var bareEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        var hash = new BCryptPasswordEncoder(4).encode("password");
+        Path file = Files.createTempFile("customers", ".csv");
+        Files.writeString(file, """
+                email,name,age,gender,password
+                %s,Marko,40,MALE,{bcrypt}%s
+                %s,Ana,30,FEMALE,%s
+                """.formatted(prefixedEmail, hash, bareEmail, hash));
+        CustomerImportJob job = new CustomerImportJob(10);
+
+        underTest.runImport(job, file);
+
+        assertThat(job.toStatus().rowsImported()).isEqualTo(2);
+        for (String email : List.of(prefixedEmail, bareEmail)) {
+            assertThat(customerDAO.selectUserByEmail(email)).hasValueSatisfying(c -> {
+                assertThat(c.getPassword()).isEqualTo("{bcrypt}" + hash);
+                assertThat(PasswordEncoderFactories.createDelegatingPasswordEncoder().matches("password", c.getPassword())).isTrue();
+            });
+        }
+    }
+
+    @Test
+    void willFailImportWithoutRequiredColumns() throws Exception {
+        Path file = Files.createTempFile("customers", ".csv");
+        Files.writeString(file, "email,name\n");
+        CustomerImportJob job = new CustomerImportJob(10);
+
+        underTest.runImport(job, file);
+
+        assertThat(job.toStatus().state()).isEqualTo(CustomerImportStatus.State.FAILED);
+        assertThat(job.toStatus().failure()).isEqualTo("Customer import is missing column [password]");
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -17,7 +19,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerJDBCDataAccessService(getJdbcTemplate(), customerRowMapper);
+        underTest = new CustomerJDBCDataAccessService(getJdbcTemplate(), customerRowMapper, new CustomerDTORowMapper());
     }
 
     @Test
@@ -33,6 +35,52 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
         assertThat(actualCustomers).isNotEmpty();
     }
 
+    @Test
+    void selectCustomerDTOsAfter() {
+        for (int i = 0; i < 3; i++) {
+            underTest.insertCustomer(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().emailAddress() + "-" + UUID.randomUUID(),
+                    "password", 20,
+                    Gender.MALE
+            ));
+        }
+        List<CustomerDTO> firstPage = underTest.selectCustomerDTOsAfter(0, 2);
+        assertThat(firstPage).hasSize(2);
+        assertThat(firstPage.get(0).id()).isLessThan(firstPage.get(1).id());
+
+        List<CustomerDTO> nextPage = underTest.selectCustomerDTOsAfter(firstPage.get(1).id(), 2);
+        assertThat(nextPage).isNotEmpty();
+        assertThat(nextPage).allSatisfy(c -> assertThat(c.id()).isGreaterThan(firstPage.get(1).id()));
+    }
+
+    @Test
+    void selectCustomerDTOsWithFilterAndSort() {
+        // an age band no other test uses keeps the shared table out of the result
+        int age = 10_000 + new Random().nextInt(1_000_000);
+        underTest.insertCustomers(List.of(
+                new Customer("Ana", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age, Gender.MALE),
+                new Customer("Jovan", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age + 2, Gender.MALE),
+                new Customer("Marko", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age + 1, Gender.MALE),
+                new Customer("Mara", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age + 1, Gender.FEMALE),
+                new Customer("Petar", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age + 3, Gender.MALE)
+        ));
+        CustomerFilter filter = new CustomerFilter(Gender.MALE, age, age + 2);
+        CustomerSort sort = new CustomerSort(CustomerSort.Field.AGE, CustomerSort.Direction.DESC);
+
+        List<CustomerDTO> firstPage = underTest.selectCustomerDTOs(filter, sort, null, 2);
+        assertThat(firstPage).extracting(CustomerDTO::name).containsExactly("Jovan", "Marko");
+
+        CustomerCursor cursor = CustomerCursor.after(sort, firstPage.get(1));
+        List<CustomerDTO> nextPage = underTest.selectCustomerDTOs(filter, sort, cursor, 2);
+        assertThat(nextPage).extracting(CustomerDTO::name).containsExactly("Ana");
+
+        CustomerSort byName = new CustomerSort(CustomerSort.Field.NAME, CustomerSort.Direction.ASC);
+        List<CustomerDTO> byNamePage = underTest.selectCustomerDTOs(new CustomerFilter(null, age, age + 3), byName,
+                new CustomerCursor(byName, "Jovan", 0), 10);
+        assertThat(byNamePage).extracting(CustomerDTO::name).containsExactly("Jovan", "Mara", "Marko", "Petar");
+    }
+
     @Test
     void selectCustomerById() {
         var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
@@ -60,6 +108,58 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
         });
     }
 
+    @Test
+    void selectCustomerDTOById() {
+        var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "password", 20,
+                Gender.MALE
+        );
+        underTest.insertCustomer(customer);
+        int id = underTest.selectAllCustomers()
+                .stream()
+                .filter(c -> c.getEmail().equals(email))
+                .map(Customer::getId)
+                .findFirst()
+                .orElseThrow();
+
+        Optional<CustomerDTO> actualCustomer = underTest.selectCustomerDTOById(id);
+        assertThat(actualCustomer).contains(new CustomerDTO(
+                id, customer.getName(), email, Gender.MALE, 20, null
+        ));
+    }
+
+    @Test
+    void searchCustomers() {
+        var token = UUID.randomUUID().toString();
+        Customer byName = new Customer(
+                "Search " + token,
+                FAKER.internet().emailAddress() + "-" + UUID.randomUUID(),
+                "password", 20,
+                Gender.MALE
+        );
+        Customer byEmail = new Customer(
+                FAKER.name().fullName(),
+                "search-" + token + "@amigoscode.com",
+                "password", 20,
+                Gender.FEMALE
+        );
+        underTest.insertCustomers(List.of(byName, byEmail));
+
+        List<CustomerDTO> actual = underTest.searchCustomers(token.toUpperCase(), 10);
+
+        assertThat(actual)
+                .extracting(CustomerDTO::email)
+                .containsExactlyInAnyOrder(byName.getEmail(), byEmail.getEmail());
+    }
+
+    @Test
+    void willEscapeWildcardsWhenSearchingCustomers() {
+        assertThat(underTest.searchCustomers("%%%", 10)).isEmpty();
+    }
+
     @Test
     void willReturnEmptyWhenSelectCustomerById(){
         int id = -1;
@@ -77,6 +177,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
                 Gender.MALE
         );
         underTest.insertCustomer(customer);
+        assertThat(customer.getId()).isNotNull();
         int id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
@@ -93,6 +194,44 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
         });
     }
 
+    @Test
+    void insertCustomers() {
+        var firstEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        var secondEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        Customer first = new Customer(FAKER.name().fullName(), firstEmail, "password", 20, Gender.MALE);
+        Customer second = new Customer(FAKER.name().fullName(), secondEmail, "password", 30, Gender.FEMALE);
+        underTest.insertCustomers(List.of(first, second));
+        assertThat(underTest.selectUserByEmail(firstEmail)).map(Customer::getId).hasValue(first.getId());
+        assertThat(underTest.selectUserByEmail(secondEmail)).map(Customer::getId).hasValue(second.getId());
+    }
+
+    @Test
+    void insertsTakeIdsFromOneSequenceBlock() {
+        long before = lastSequenceValue();
+
+        for (int i = 0; i < 3; i++) {
+            underTest.insertCustomer(new Customer(FAKER.name().fullName(), FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", 20, Gender.MALE));
+        }
+        underTest.insertCustomers(List.of(
+                new Customer(FAKER.name().fullName(), FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", 20, Gender.MALE),
+                new Customer(FAKER.name().fullName(), FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", 30, Gender.FEMALE)
+        ));
+
+        assertThat(lastSequenceValue() - before).isEqualTo(CustomerIdPool.BLOCK_SIZE);
+    }
+
+    private long lastSequenceValue() {
+        return getJdbcTemplate().queryForObject("SELECT last_value FROM customer_id_seq", Long.class);
+    }
+
+    @Test
+    void selectExistingEmails() {
+        var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        var missingEmail = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, "password", 20, Gender.MALE));
+        assertThat(underTest.selectExistingEmails(Set.of(email, missingEmail))).containsExactly(email);
+    }
+
     @Test
     void updateCustomer() {
         var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
@@ -200,4 +339,21 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
             assertThat(c.getProfileImageId()).isEqualTo(profileImageId);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void canUpdatePassword() {
+        var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "password", 20,
+                Gender.MALE
+        );
+        underTest.insertCustomer(customer);
+
+        underTest.updateCustomerPassword(customer.getId(), "{bcrypt}hash");
+
+        assertThat(underTest.selectCustomerById(customer.getId()))
+                .hasValueSatisfying(c -> assertThat(c.getPassword()).isEqualTo("{bcrypt}hash"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.amigoscode.customer;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,9 +9,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,10 +25,12 @@ class CustomerJPADataAccessServiceTest {
     private AutoCloseable autoCloseable;
     @Mock
     private CustomerRepository customerRepository;
+    @Mock
+    private EntityManager entityManager;
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
-        underTest = new CustomerJPADataAccessService(customerRepository);
+        underTest = new CustomerJPADataAccessService(customerRepository, entityManager);
     }
 
     @AfterEach
@@ -48,6 +53,19 @@ class CustomerJPADataAccessServiceTest {
         assertThat(pageableArgumentCaptor.getValue()).isEqualTo(Pageable.ofSize(100));
     }
 
+    @Test
+    void selectCustomerDTOsAfter() {
+        List<CustomerDTO> customers = List.of(
+                new CustomerDTO(11, "Marko", "ljudina@gmail.com", Gender.MALE, 40, null)
+        );
+        when(customerRepository.findCustomerDTOsByIdGreaterThan(eq(10), any(Pageable.class))).thenReturn(customers);
+        //when
+        List<CustomerDTO> actual = underTest.selectCustomerDTOsAfter(10, 25);
+        //Then
+        assertThat(actual).isEqualTo(customers);
+        verify(customerRepository).findCustomerDTOsByIdGreaterThan(10, PageRequest.ofSize(25));
+    }
+
     @Test
     void selectCustomerById() {
         int id = 1;
@@ -55,6 +73,19 @@ class CustomerJPADataAccessServiceTest {
         Mockito.verify(customerRepository).findById(id);
     }
 
+    @Test
+    void selectCustomerDTOById() {
+        int id = 1;
+        underTest.selectCustomerDTOById(id);
+        Mockito.verify(customerRepository).findCustomerDTOById(id);
+    }
+
+    @Test
+    void searchCustomers() {
+        underTest.searchCustomers("ma_ko", 20);
+        verify(customerRepository).searchCustomerDTOs("ma_ko", "%ma\\_ko%", PageRequest.ofSize(20));
+    }
+
     @Test
     void insertCustomer() {
         Customer customer = new Customer(
@@ -67,6 +98,18 @@ class CustomerJPADataAccessServiceTest {
         Mockito.verify(customerRepository).save(customer);
     }
 
+    @Test
+    void insertCustomers() {
+        List<Customer> customers = List.of(new Customer(
+                "Marko",
+                "ljudina@gmail.com",
+                "password", 20,
+                Gender.MALE
+        ));
+        underTest.insertCustomers(customers);
+        Mockito.verify(customerRepository).saveAll(customers);
+    }
+
     @Test
     void updateCustomer() {
         Customer customer = new Customer(
@@ -86,6 +129,13 @@ class CustomerJPADataAccessServiceTest {
         Mockito.verify(customerRepository).existsCustomerByEmail(email);
     }
 
+    @Test
+    void selectExistingEmails() {
+        Set<String> emails = Set.of("ljudina@gmail.com");
+        underTest.selectExistingEmails(emails);
+        Mockito.verify(customerRepository).findExistingEmails(emails);
+    }
+
     @Test
     void existsPersonWithId() {
         int id = 1;
@@ -106,4 +156,9 @@ class CustomerJPADataAccessServiceTest {
         underTest.updateCustomerProfileImageId(profileImageId, customerId);
         Mockito.verify(customerRepository).updateProfileImageId(profileImageId, customerId);
     }
+    @Test
+    void canUpdatePassword() {
+        underTest.updateCustomerPassword(1, "{bcrypt}hash");
+        Mockito.verify(customerRepository).updatePassword(1, "{bcrypt}hash");
+    }
 }
\ No newline at end of file
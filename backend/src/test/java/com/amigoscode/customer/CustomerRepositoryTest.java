@@ -1,13 +1,17 @@
 package com.amigoscode.customer;
 
 import com.amigoscode.AbstractTestContainers;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -19,6 +23,8 @@ class CustomerRepositoryTest extends AbstractTestContainers {
 
     @Autowired
     private CustomerRepository underTest;
+    @Autowired
+    private EntityManager entityManager;
 
     @Test
     void existsPersonWithEmail() {
@@ -58,6 +64,91 @@ class CustomerRepositoryTest extends AbstractTestContainers {
         assertThat(underTest.existsCustomerById(id)).isTrue();
     }
 
+    @Test
+    void canFindCustomerDTOById() {
+        var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "password", 20,
+                Gender.MALE
+        );
+        int id = underTest.save(customer).getId();
+
+        Optional<CustomerDTO> actual = underTest.findCustomerDTOById(id);
+
+        assertThat(actual).contains(new CustomerDTO(id, customer.getName(), email, Gender.MALE, 20, null));
+    }
+
+    @Test
+    void canFindCustomerDTOsAfterId() {
+        for (int i = 0; i < 3; i++) {
+            underTest.save(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().emailAddress() + "-" + UUID.randomUUID(),
+                    "password", 20,
+                    Gender.MALE
+            ));
+        }
+
+        List<CustomerDTO> page = underTest.findCustomerDTOsByIdGreaterThan(0, PageRequest.ofSize(2));
+
+        assertThat(page).hasSize(2);
+        assertThat(page.get(0).id()).isLessThan(page.get(1).id());
+    }
+
+    @Test
+    void canSearchCustomerDTOsRankedBySimilarity() {
+        var token = UUID.randomUUID().toString().substring(0, 8);
+        Customer partial = underTest.save(new Customer(
+                "Ana " + token + " Petrovic Jovanovic",
+                FAKER.internet().emailAddress() + "-" + UUID.randomUUID(),
+                "password", 20,
+                Gender.FEMALE
+        ));
+        Customer close = underTest.save(new Customer(
+                token,
+                FAKER.internet().emailAddress() + "-" + UUID.randomUUID(),
+                "password", 20,
+                Gender.FEMALE
+        ));
+
+        List<CustomerDTO> actual = underTest.searchCustomerDTOs(
+                token, CustomerSearchPattern.contains(token), PageRequest.ofSize(10)
+        );
+
+        assertThat(actual)
+                .extracting(CustomerDTO::id)
+                .containsExactly(close.getId(), partial.getId());
+    }
+
+    @Test
+    void canSelectCustomerDTOsWithCriteria() {
+        CustomerJPADataAccessService customerDAO = new CustomerJPADataAccessService(underTest, entityManager);
+        int age = 10_000 + new Random().nextInt(1_000_000);
+        underTest.saveAll(List.of(
+                new Customer("Ana", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age, Gender.FEMALE),
+                new Customer("Jovan", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age + 1, Gender.MALE),
+                new Customer("Marko", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age + 1, Gender.MALE),
+                new Customer("Petar", FAKER.internet().emailAddress() + "-" + UUID.randomUUID(), "password", age + 2, Gender.MALE)
+        ));
+        CustomerFilter filter = new CustomerFilter(Gender.MALE, age, age + 1);
+        CustomerSort sort = new CustomerSort(CustomerSort.Field.NAME, CustomerSort.Direction.DESC);
+
+        List<CustomerDTO> firstPage = customerDAO.selectCustomerDTOs(filter, sort, null, 1);
+        assertThat(firstPage).extracting(CustomerDTO::name).containsExactly("Marko");
+
+        CustomerCursor cursor = CustomerCursor.after(sort, firstPage.get(0));
+        assertThat(customerDAO.selectCustomerDTOs(filter, sort, cursor, 10))
+                .extracting(CustomerDTO::name)
+                .containsExactly("Jovan");
+
+        CustomerSort byAge = new CustomerSort(CustomerSort.Field.AGE, CustomerSort.Direction.ASC);
+        assertThat(customerDAO.selectCustomerDTOs(new CustomerFilter(null, age, age + 2), byAge, null, 10))
+                .extracting(CustomerDTO::name)
+                .containsExactly("Ana", "Jovan", "Marko", "Petar");
+    }
+
     @Test
     void existsPersonWithIdNotPresent(){
         int id = -1;
@@ -88,4 +179,21 @@ class CustomerRepositoryTest extends AbstractTestContainers {
           assertThat(c.getProfileImageId()).isEqualTo(profileImageId);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void canUpdatePassword() {
+        var email = FAKER.internet().emailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "password", 20,
+                Gender.MALE
+        );
+        underTest.save(customer);
+
+        underTest.updatePassword(customer.getId(), "{bcrypt}hash");
+
+        assertThat(underTest.findById(customer.getId()))
+                .hasValueSatisfying(c -> assertThat(c.getPassword()).isEqualTo("{bcrypt}hash"));
+    }
+}
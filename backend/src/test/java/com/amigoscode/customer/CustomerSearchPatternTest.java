@@ -0,0 +1,18 @@
+package com.amigoscode.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchPatternTest {
+
+    @Test
+    void wrapsQueryInWildcards() {
+        assertThat(CustomerSearchPattern.contains("marko")).isEqualTo("%marko%");
+    }
+
+    @Test
+    void escapesLikeWildcards() {
+        assertThat(CustomerSearchPattern.contains("50%_a\\b")).isEqualTo("%50\\%\\_a\\\\b%");
+    }
+}
@@ -4,19 +4,33 @@ import com.amigoscode.exception.DuplicateResourceException;
 import com.amigoscode.exception.RequestValidationException;
 import com.amigoscode.exception.ResourceNotFoundException;
 import com.amigoscode.s3.S3Buckets;
-import com.amigoscode.s3.S3Service;
+import com.amigoscode.s3.S3AsyncService;
+import com.amigoscode.s3.S3ObjectCache;
+import com.amigoscode.s3.S3ObjectStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -30,22 +44,149 @@ class CustomerServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     @Mock
-    private S3Service s3Service;
+    private S3ObjectCache s3ObjectCache;
+    @Mock
+    private S3AsyncService s3AsyncService;
     @Mock
     private S3Buckets buckets;
+    @Mock
+    private CustomerSuggestionIndex suggestionIndex;
+    @Mock
+    private CustomerChangePublisher changePublisher;
+    @Mock
+    private ProfileImageJDBCDataAccessService profileImageDAO;
+    @Mock
+    private ProfileImageProcessor profileImageProcessor;
     private CustomerService underTest;
     private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+    private final CustomerPagingProperties pagingProperties = new CustomerPagingProperties();
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerDAO, passwordEncoder, customerDTOMapper, s3Service, buckets);
+        pagingProperties.setDefaultSize(2);
+        pagingProperties.setMaxSize(3);
+        underTest = new CustomerService(customerDAO, passwordEncoder, s3ObjectCache, s3AsyncService, buckets, pagingProperties, suggestionIndex, changePublisher, profileImageDAO, profileImageProcessor, Runnable::run);
+    }
+
+    @Test
+    void canGetFirstPageOfCustomers() {
+        Customer first = new Customer(1, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        Customer second = new Customer(2, "ana@gmail.com", "password", "Ana", 30, Gender.FEMALE);
+        Customer third = new Customer(3, "jovan@gmail.com", "password", "Jovan", 20, Gender.MALE);
+        when(customerDAO.selectCustomerDTOs(CustomerFilter.NONE, CustomerSort.DEFAULT, null, 3)).thenReturn(List.of(
+                customerDTOMapper.apply(first), customerDTOMapper.apply(second), customerDTOMapper.apply(third)
+        ));
+
+        CustomerPage page = underTest.getCustomers(CustomerFilter.NONE, CustomerSort.DEFAULT, null, null);
+
+        assertThat(page.customers()).containsExactly(customerDTOMapper.apply(first), customerDTOMapper.apply(second));
+        assertThat(CustomerCursor.decode(page.nextCursor(), CustomerSort.DEFAULT).lastId()).isEqualTo(second.getId());
+    }
+
+    @Test
+    void canGetNextPageOfCustomers() {
+        CustomerSort sort = new CustomerSort(CustomerSort.Field.NAME, CustomerSort.Direction.DESC);
+        CustomerFilter filter = new CustomerFilter(Gender.MALE, 18, 65);
+        CustomerCursor cursor = new CustomerCursor(sort, "Marko: Jr", 2);
+        Customer third = new Customer(3, "jovan@gmail.com", "password", "Jovan", 20, Gender.MALE);
+        when(customerDAO.selectCustomerDTOs(filter, sort, cursor, 3)).thenReturn(List.of(customerDTOMapper.apply(third)));
+
+        CustomerPage page = underTest.getCustomers(filter, sort, cursor.encode(), null);
+
+        assertThat(page.customers()).containsExactly(customerDTOMapper.apply(third));
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void willHandOutCursorForSortValue() {
+        CustomerSort sort = new CustomerSort(CustomerSort.Field.AGE, CustomerSort.Direction.ASC);
+        CustomerDTO first = new CustomerDTO(7, "Jovan", "jovan@gmail.com", Gender.MALE, 20, null);
+        CustomerDTO second = new CustomerDTO(3, "Ana", "ana@gmail.com", Gender.FEMALE, 30, null);
+        CustomerDTO third = new CustomerDTO(5, "Marko", "ljudina@gmail.com", Gender.MALE, 40, null);
+        when(customerDAO.selectCustomerDTOs(CustomerFilter.NONE, sort, null, 3)).thenReturn(List.of(first, second, third));
+
+        CustomerPage page = underTest.getCustomers(CustomerFilter.NONE, sort, null, null);
+
+        assertThat(CustomerCursor.decode(page.nextCursor(), sort)).isEqualTo(new CustomerCursor(sort, 30, 3));
+    }
+
+    @Test
+    void willCapPageSize() {
+        underTest.getCustomers(CustomerFilter.NONE, CustomerSort.DEFAULT, null, 1000);
+        verify(customerDAO).selectCustomerDTOs(CustomerFilter.NONE, CustomerSort.DEFAULT, null, pagingProperties.getMaxSize() + 1);
+    }
+
+    @Test
+    void willThrowWhenPageSizeIsNotPositive() {
+        assertThatThrownBy(() -> underTest.getCustomers(CustomerFilter.NONE, CustomerSort.DEFAULT, null, 0))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Page size must be greater than zero");
+        verifyNoInteractions(customerDAO);
     }
 
     @Test
-    void getAllCustomers() {
-        underTest.getAllCustomers();
-        verify(customerDAO)
-                .selectAllCustomers();
+    void willThrowWhenCursorIsInvalid() {
+        assertThatThrownBy(() -> underTest.getCustomers(CustomerFilter.NONE, CustomerSort.DEFAULT, "not-a-cursor", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Invalid cursor [not-a-cursor]");
+        verifyNoInteractions(customerDAO);
+    }
+
+    @Test
+    void willThrowWhenCursorWasIssuedForAnotherSort() {
+        String cursor = new CustomerCursor(CustomerSort.DEFAULT, 2, 2).encode();
+        CustomerSort sort = new CustomerSort(CustomerSort.Field.AGE, CustomerSort.Direction.ASC);
+        assertThatThrownBy(() -> underTest.getCustomers(CustomerFilter.NONE, sort, cursor, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Invalid cursor [%s]".formatted(cursor));
+        verifyNoInteractions(customerDAO);
+    }
+
+    @Test
+    void willThrowWhenAgeRangeIsEmpty() {
+        CustomerFilter filter = new CustomerFilter(null, 40, 30);
+        assertThatThrownBy(() -> underTest.getCustomers(filter, CustomerSort.DEFAULT, null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Minimum age must not be greater than maximum age");
+        verifyNoInteractions(customerDAO);
+    }
+
+    @Test
+    void canSearchCustomers() {
+        CustomerDTO customer = new CustomerDTO(1, "Marko", "ljudina@gmail.com", Gender.MALE, 40, null);
+        when(customerDAO.searchCustomers("ljud", 2)).thenReturn(List.of(customer));
+
+        List<CustomerDTO> actual = underTest.searchCustomers("  ljud ", null);
+
+        assertThat(actual).containsExactly(customer);
+    }
+
+    @Test
+    void willCapSearchLimit() {
+        underTest.searchCustomers("ljud", 1000);
+        verify(customerDAO).searchCustomers("ljud", pagingProperties.getMaxSize());
+    }
+
+    @Test
+    void willThrowWhenSearchQueryIsTooShort() {
+        assertThatThrownBy(() -> underTest.searchCustomers(" lj ", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Search query must be at least 3 characters");
+        verifyNoInteractions(customerDAO);
+    }
+
+    @Test
+    void canSuggestCustomers() {
+        List<CustomerSuggestion> suggestions = List.of(new CustomerSuggestion(1, "Marko", "ljudina@gmail.com"));
+        when(suggestionIndex.suggest("mar", CustomerService.DEFAULT_SUGGESTIONS)).thenReturn(suggestions);
+
+        assertThat(underTest.suggestCustomers("mar", null)).isEqualTo(suggestions);
+    }
+
+    @Test
+    void willCapSuggestionLimit() {
+        underTest.suggestCustomers("mar", 1000);
+        verify(suggestionIndex).suggest("mar", CustomerService.MAX_SUGGESTIONS);
     }
 
     @Test
@@ -57,8 +198,8 @@ class CustomerServiceTest {
                 40,
                 Gender.MALE
         );
-        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
         CustomerDTO expected = customerDTOMapper.apply(customer);
+        when(customerDAO.selectCustomerDTOById(id)).thenReturn(Optional.of(expected));
         CustomerDTO actualCustomer = underTest.getCustomer(id);
         assertThat(actualCustomer).isEqualTo(expected);
     }
@@ -66,7 +207,7 @@ class CustomerServiceTest {
     @Test
     void willThrowWhenGetCustomerReturnsEmptyOptional() {
         int id = 1;
-        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.empty());
+        when(customerDAO.selectCustomerDTOById(id)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> underTest.getCustomer(id))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Customer with id [%s] not found!".formatted(id));
@@ -90,6 +231,20 @@ class CustomerServiceTest {
         assertThat(capturedCustomer.getEmail()).isEqualTo(request.email());
         assertThat(capturedCustomer.getPassword()).isEqualTo(passwordHash);
         assertThat(capturedCustomer.getAge()).isEqualTo(request.age());
+        verify(suggestionIndex).put(capturedCustomer.getId(), request.name(), request.email());
+        verify(changePublisher).customerChanged(capturedCustomer.getId(), request.email());
+    }
+
+    @Test
+    void willNotHashPasswordOfInvalidRegistration() {
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest("Marko", "ljudina@gmail.com", "password", 0, Gender.MALE);
+
+        assertThatThrownBy(() -> underTest.addCustomer(request))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Customer age must be greater than zero");
+
+        verifyNoInteractions(passwordEncoder);
+        verifyNoInteractions(customerDAO);
     }
 
     @Test
@@ -122,6 +277,8 @@ class CustomerServiceTest {
         when(customerDAO.existsPersonWithEmail(newEmail)).thenReturn(false);
         underTest.updateCustomer(id, customerUpdateRequest);
         verify(customerDAO).updateCustomer(updatedCustomer);
+        verify(suggestionIndex).put(id, customerUpdateRequest.name(), newEmail);
+        verify(changePublisher).customerChanged(id, newEmail);
     }
 
     @Test
@@ -158,6 +315,8 @@ class CustomerServiceTest {
         when(customerDAO.existsPersonWithId(id)).thenReturn(true);
         underTest.deleteCustomer(id);
         verify(customerDAO).deleteCustomerById(id);
+        verify(suggestionIndex).remove(id);
+        verify(changePublisher).customerChanged(id, null);
     }
 
     @Test
@@ -170,7 +329,7 @@ class CustomerServiceTest {
     }
 
     @Test
-    void canUploadProfileImage() {
+    void canUploadProfileImage(@TempDir Path directory) throws IOException {
         //Given
         int id = 1;
         when(customerDAO.existsPersonWithId(id)).thenReturn(true);
@@ -179,11 +338,95 @@ class CustomerServiceTest {
         MultipartFile uploadedFile = new MockMultipartFile(fileName, fileContent);
         String bucketName = "customer";
         when(buckets.getCustomer()).thenReturn(bucketName);
-        underTest.uploadCustomerProfileImage(id, uploadedFile);
+        Map<ProfileImageVariant, Path> variants = variants(directory);
+        ArgumentCaptor<Path> uploadArgumentCaptor = ArgumentCaptor.forClass(Path.class);
+        when(profileImageProcessor.process(uploadArgumentCaptor.capture()))
+                .thenReturn(CompletableFuture.completedFuture(variants));
+        Map<String, byte[]> uploadedContent = new HashMap<>();
+        when(s3AsyncService.putObject(eq(bucketName), anyString(), any(Path.class), eq("image/jpeg")))
+                .thenAnswer(invocation -> {
+                    uploadedContent.put(invocation.getArgument(1), Files.readAllBytes(invocation.getArgument(2, Path.class)));
+                    return CompletableFuture.completedFuture(null);
+                });
+        underTest.uploadCustomerProfileImage(id, uploadedFile).join();
 
         ArgumentCaptor<String> profileImageIdArgumentCaptor = ArgumentCaptor.forClass(String.class);
         verify(customerDAO).updateCustomerProfileImageId(profileImageIdArgumentCaptor.capture(), eq(id));
-        verify(s3Service).putObject(bucketName, "profile-images/%s/%s".formatted(id, profileImageIdArgumentCaptor.getValue()), fileContent);
+        String profileImageId = profileImageIdArgumentCaptor.getValue();
+        verify(changePublisher).customerChanged(id, null);
+        verify(s3ObjectCache).invalidate(bucketName, "profile-images/%s/".formatted(id));
+        assertThat(uploadedContent).containsOnlyKeys(
+                "profile-images/%s/%s/small".formatted(id, profileImageId),
+                "profile-images/%s/%s/medium".formatted(id, profileImageId),
+                "profile-images/%s/%s/large".formatted(id, profileImageId)
+        );
+        assertThat(uploadedContent.get("profile-images/%s/%s/small".formatted(id, profileImageId)))
+                .isEqualTo("small".getBytes());
+        ArgumentCaptor<ProfileImage> profileImageArgumentCaptor = ArgumentCaptor.forClass(ProfileImage.class);
+        verify(profileImageDAO).insertProfileImage(profileImageArgumentCaptor.capture());
+        ProfileImage profileImage = profileImageArgumentCaptor.getValue();
+        assertThat(profileImage.id()).isEqualTo(profileImageId);
+        assertThat(profileImage.customerId()).isEqualTo(id);
+        // SHA-256 of "Hello World"
+        assertThat(profileImage.contentHash()).isEqualTo("a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e");
+        assertThat(profileImage.contentType()).isEqualTo("image/jpeg");
+        assertThat(profileImage.hasVariants()).isTrue();
+        // the staged file and the variants are removed once uploaded
+        assertThat(uploadArgumentCaptor.getValue()).doesNotExist();
+        assertThat(variants.values()).allSatisfy(variant -> assertThat(variant).doesNotExist());
+    }
+
+    @Test
+    void willNotUploadProfileImageThatCanNotBeProcessed() {
+        //Given
+        int id = 1;
+        when(customerDAO.existsPersonWithId(id)).thenReturn(true);
+        ArgumentCaptor<Path> uploadArgumentCaptor = ArgumentCaptor.forClass(Path.class);
+        when(profileImageProcessor.process(uploadArgumentCaptor.capture()))
+                .thenReturn(CompletableFuture.failedFuture(new RequestValidationException("Profile image could not be read")));
+
+        //When
+        CompletableFuture<Void> upload = underTest.uploadCustomerProfileImage(id, new MockMultipartFile("file", "Hello World".getBytes()));
+
+        //Then
+        assertThatThrownBy(upload::join)
+                .hasCauseInstanceOf(RequestValidationException.class);
+        assertThat(uploadArgumentCaptor.getValue()).doesNotExist();
+        verifyNoInteractions(s3AsyncService);
+        verifyNoInteractions(profileImageDAO);
+        verify(customerDAO, never()).updateCustomerProfileImageId(any(), any());
+    }
+
+    private static Map<ProfileImageVariant, Path> variants(Path directory) throws IOException {
+        Map<ProfileImageVariant, Path> variants = new EnumMap<>(ProfileImageVariant.class);
+        for (ProfileImageVariant variant : ProfileImageVariant.values()) {
+            String name = variant.name().toLowerCase();
+            variants.put(variant, Files.writeString(directory.resolve(name + ".jpg"), name));
+        }
+        return variants;
+    }
+
+    @Test
+    void willNotUpdateProfileImageIdWhenUploadFails(@TempDir Path directory) throws IOException {
+        //Given
+        int id = 1;
+        when(customerDAO.existsPersonWithId(id)).thenReturn(true);
+        byte[] fileContent = "Hello World".getBytes();
+        when(buckets.getCustomer()).thenReturn("customer");
+        when(profileImageProcessor.process(any(Path.class)))
+                .thenReturn(CompletableFuture.completedFuture(variants(directory)));
+        when(s3AsyncService.putObject(eq("customer"), anyString(), any(Path.class), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("S3 unavailable")));
+
+        //When
+        CompletableFuture<Void> upload = underTest.uploadCustomerProfileImage(id, new MockMultipartFile("file", fileContent));
+
+        //Then
+        assertThatThrownBy(upload::join)
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("S3 unavailable");
+        verify(customerDAO, never()).updateCustomerProfileImageId(any(), any());
+        verifyNoInteractions(changePublisher);
     }
 
     @Test
@@ -201,7 +444,7 @@ class CustomerServiceTest {
         verify(customerDAO).existsPersonWithId(id);
         verifyNoMoreInteractions(customerDAO);
         verifyNoInteractions(buckets);
-        verifyNoInteractions(s3Service);
+        verifyNoInteractions(s3AsyncService);
     }
 
     @Test
@@ -212,7 +455,7 @@ class CustomerServiceTest {
         String fileName = "file";
         byte[] fileContent = "Hello World".getBytes();
         MultipartFile uploadedFile = mock(MultipartFile.class);
-        when(uploadedFile.getBytes()).thenThrow(IOException.class);
+        doThrow(IOException.class).when(uploadedFile).transferTo(any(File.class));
         String bucketName = "customer";
         when(buckets.getCustomer()).thenReturn(bucketName);
 
@@ -228,11 +471,122 @@ class CustomerServiceTest {
         //Given
         int id = 1;
         Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
-        byte[] profileImage = "User Image Test".getBytes();
+        S3ObjectStream profileImage = mock(S3ObjectStream.class);
+        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(buckets.getCustomer()).thenReturn("customer");
+        when(s3ObjectCache.getObjectStream("customer", "profile-images/%s/%s".formatted(id, customer.getProfileImageId()), null)).thenReturn(profileImage);
+        //When
+        S3ObjectStream actualImage = underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, null), ProfileImageVariant.LARGE, null);
+        //Then
+        assertThat(actualImage).isSameAs(profileImage);
+    }
+
+    @Test
+    void canDownloadProfileImageRange() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
         when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        when(s3Service.getObject(buckets.getCustomer(), "profile-images/%s/%s".formatted(id, customer.getProfileImageId()))).thenReturn(profileImage);
-        byte[] actualImage = underTest.getCustomerProfileImage(id);
-        assertThat(actualImage).isEqualTo(profileImage);
+        when(buckets.getCustomer()).thenReturn("customer");
+        //When
+        underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, null), ProfileImageVariant.LARGE, "bytes=0-99");
+        underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, null), ProfileImageVariant.LARGE, "bytes=0-99,200-299");
+        //Then
+        String key = "profile-images/%s/%s".formatted(id, customer.getProfileImageId());
+        verify(s3ObjectCache).getObjectStream("customer", key, "bytes=0-99");
+        // S3 serves a single range only; the whole image is sent instead
+        verify(s3ObjectCache).getObjectStream("customer", key, null);
+    }
+
+    @Test
+    void canDownloadEarlierProfileImageVersion() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
+        ProfileImage earlier = new ProfileImage("1111", id, "hash", "image/png", Instant.now(), false);
+        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(profileImageDAO.selectProfileImageById("1111")).thenReturn(Optional.of(earlier));
+        when(buckets.getCustomer()).thenReturn("customer");
+        //When
+        underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, "1111"), ProfileImageVariant.LARGE, null);
+        //Then
+        verify(s3ObjectCache).getObjectStream("customer", "profile-images/%s/1111".formatted(id), null);
+    }
+
+    @Test
+    void canDownloadProfileImageVariant() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
+        ProfileImage current = new ProfileImage("2222", id, "hash", "image/jpeg", Instant.now(), true);
+        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(profileImageDAO.selectProfileImageById("2222")).thenReturn(Optional.of(current));
+        when(buckets.getCustomer()).thenReturn("customer");
+        //When
+        underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, null), ProfileImageVariant.SMALL, null);
+        //Then
+        verify(s3ObjectCache).getObjectStream("customer", "profile-images/%s/2222/small".formatted(id), null);
+    }
+
+    @Test
+    void canNotDownloadProfileImageVersionOfAnotherCustomer() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
+        ProfileImage otherCustomers = new ProfileImage("1111", 2, "hash", "image/png", Instant.now(), false);
+        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(profileImageDAO.selectProfileImageById("1111")).thenReturn(Optional.of(otherCustomers));
+        //When
+        assertThatThrownBy(() -> underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, "1111"), ProfileImageVariant.LARGE, null))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer with id [%s] profile image [1111] not found!".formatted(id));
+        //Then
+        verifyNoInteractions(s3ObjectCache);
+    }
+
+    @Test
+    void canGetProfileImageMetadataWithoutS3() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
+        ProfileImage current = new ProfileImage("2222", id, "hash", "image/png", Instant.now(), false);
+        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(profileImageDAO.selectProfileImageById("2222")).thenReturn(Optional.of(current));
+        //When
+        ResolvedProfileImage actual = underTest.resolveProfileImage(id, null);
+        //Then
+        assertThat(actual.metadata()).contains(current);
+        verifyNoInteractions(s3ObjectCache);
+    }
+
+    @Test
+    void willServeResolvedProfileImageWithoutLookingItUpAgain() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE, "2222");
+        ProfileImage current = new ProfileImage("2222", id, "hash", "image/jpeg", Instant.now(), true);
+        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(profileImageDAO.selectProfileImageById("2222")).thenReturn(Optional.of(current));
+        when(buckets.getCustomer()).thenReturn("customer");
+        ResolvedProfileImage resolved = underTest.resolveProfileImage(id, null);
+        // a new image is uploaded before the download starts
+        customer.setProfileImageId("3333");
+        //When
+        underTest.getCustomerProfileImage(resolved, ProfileImageVariant.LARGE, null);
+        //Then
+        verify(s3ObjectCache).getObjectStream("customer", "profile-images/%s/2222/large".formatted(id), null);
+        verify(customerDAO, times(1)).selectCustomerById(id);
+        verify(profileImageDAO, times(1)).selectProfileImageById("2222");
+    }
+
+    @Test
+    void willOnlyServeImageContentTypes() {
+        assertThat(CustomerService.profileImageContentType("image/png")).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(CustomerService.profileImageContentType("text/html")).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(CustomerService.profileImageContentType("binary/octet-stream")).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(CustomerService.profileImageContentType("image/*")).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(CustomerService.profileImageContentType("not a media type")).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(CustomerService.profileImageContentType(null)).isEqualTo(MediaType.IMAGE_JPEG);
     }
 
     @Test
@@ -242,22 +596,22 @@ class CustomerServiceTest {
         Customer customer = new Customer(id, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
         when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
         //When
-        assertThatThrownBy(() -> underTest.getCustomerProfileImage(id))
+        assertThatThrownBy(() -> underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, null), ProfileImageVariant.LARGE, null))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Customer with id [%s] profile image not found!".formatted(id));
         //Then
         verifyNoInteractions(buckets);
-        verifyNoInteractions(s3Service);
+        verifyNoInteractions(s3ObjectCache);
     }
 
     @Test
     void canNotDownloadCustomerProfileImageIfCustomerDoesNotExists() {
         int id = 1;
         when(customerDAO.selectCustomerById(id)).thenReturn(Optional.empty());
-        assertThatThrownBy(() -> underTest.getCustomerProfileImage(id))
+        assertThatThrownBy(() -> underTest.getCustomerProfileImage(underTest.resolveProfileImage(id, null), ProfileImageVariant.LARGE, null))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Customer with id [%s] not found!".formatted(id));
         verifyNoInteractions(buckets);
-        verifyNoInteractions(s3Service);
+        verifyNoInteractions(s3ObjectCache);
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.AbstractTestContainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerStatisticsServiceTest extends AbstractTestContainers {
+
+    private CustomerStatisticsService underTest;
+    private CustomerJDBCDataAccessService customerDAO;
+    private JdbcTemplate jdbcTemplate;
+    // an age decade no other test uses keeps the shared table out of the bucket under test
+    private int age;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = getJdbcTemplate();
+        underTest = new CustomerStatisticsService(jdbcTemplate, new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        customerDAO = new CustomerJDBCDataAccessService(jdbcTemplate, new CustomerRowMapper(), new CustomerDTORowMapper());
+        age = 10_000 + new Random().nextInt(100_000) * 10;
+    }
+
+    @Test
+    void statisticsFollowInsertsUpdatesAndDeletes() {
+        CustomerStatistics before = underTest.getStatistics(false);
+        Customer marko = customer(Gender.MALE, age);
+        Customer ana = customer(Gender.FEMALE, age + 5);
+        customerDAO.insertCustomers(List.of(marko, customer(Gender.MALE, age + 9), ana));
+
+        assertThat(bucket(underTest.getStatistics(false), age)).isEqualTo(3);
+
+        ana.setId(customerDAO.selectUserByEmail(ana.getEmail()).orElseThrow().getId());
+        ana.setAge(age + 10);
+        customerDAO.updateCustomer(ana);
+        CustomerStatistics afterUpdate = underTest.getStatistics(false);
+        assertThat(bucket(afterUpdate, age)).isEqualTo(2);
+        assertThat(bucket(afterUpdate, age + 10)).isEqualTo(1);
+
+        customerDAO.deleteCustomerById(customerDAO.selectUserByEmail(marko.getEmail()).orElseThrow().getId());
+        CustomerStatistics after = underTest.getStatistics(false);
+        assertThat(bucket(after, age)).isEqualTo(1);
+        assertThat(after.total()).isEqualTo(before.total() + 2);
+        assertThat(after.genders().get(Gender.FEMALE)).isEqualTo(before.genders().getOrDefault(Gender.FEMALE, 0L) + 1);
+        assertThat(after.approximate()).isFalse();
+    }
+
+    @Test
+    void canReconcileDriftedStatistics() {
+        customerDAO.insertCustomer(customer(Gender.MALE, age));
+        jdbcTemplate.update("UPDATE customer_statistics SET customer_count = 42 WHERE age_bucket = ?", age);
+        jdbcTemplate.update("DELETE FROM customer_statistics WHERE age_bucket <> ?", age);
+
+        underTest.reconcile();
+
+        Long actualTotal = jdbcTemplate.queryForObject("SELECT count(*) FROM customer", Long.class);
+        CustomerStatistics statistics = underTest.getStatistics(false);
+        assertThat(bucket(statistics, age)).isEqualTo(1);
+        assertThat(statistics.total()).isEqualTo(actualTotal);
+    }
+
+    @Test
+    void willLeaveReconcilingToNodeHoldingLock() throws SQLException {
+        customerDAO.insertCustomer(customer(Gender.MALE, age));
+        jdbcTemplate.update("UPDATE customer_statistics SET customer_count = 42 WHERE age_bucket = ?", age);
+
+        try (Connection otherNode = jdbcTemplate.getDataSource().getConnection();
+             Statement statement = otherNode.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(hashtext('customer_statistics_reconcile'))");
+            try {
+                underTest.reconcile();
+            } finally {
+                // the pool keeps the session, and with it the lock, open
+                statement.execute("SELECT pg_advisory_unlock(hashtext('customer_statistics_reconcile'))");
+            }
+        }
+
+        assertThat(bucket(underTest.getStatistics(false), age)).isEqualTo(42);
+    }
+
+    @Test
+    void canEstimateTotal() {
+        customerDAO.insertCustomer(customer(Gender.MALE, age));
+        jdbcTemplate.execute("ANALYZE customer");
+
+        CustomerStatistics statistics = underTest.getStatistics(true);
+
+        assertThat(statistics.approximate()).isTrue();
+        assertThat(statistics.total()).isPositive();
+        assertThat(statistics.genders()).isEmpty();
+    }
+
+    private static long bucket(CustomerStatistics statistics, int age) {
+        return statistics.ages().stream()
+                .filter(bucket -> bucket.fromAge() <= age && age <= bucket.toAge())
+                .mapToLong(CustomerAgeBucket::count)
+                .sum();
+    }
+
+    private static Customer customer(Gender gender, int age) {
+        return new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().emailAddress() + "-" + UUID.randomUUID(),
+                "password", age,
+                gender
+        );
+    }
+}
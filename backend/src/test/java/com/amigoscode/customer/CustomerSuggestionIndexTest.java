@@ -0,0 +1,143 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSuggestionIndexTest {
+
+    @Mock
+    private CustomerDAO customerDAO;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CustomerSuggestionIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerSuggestionIndex(customerDAO, meterRegistry);
+    }
+
+    @Test
+    void canLoadCustomersPageByPage() {
+        List<CustomerDTO> firstPage = IntStream.rangeClosed(1, 1000)
+                .mapToObj(id -> new CustomerDTO(id, "Customer " + id, "customer" + id + "@gmail.com", Gender.MALE, 20, null))
+                .toList();
+        CustomerDTO last = new CustomerDTO(1001, "Marko", "ljudina@gmail.com", Gender.MALE, 40, null);
+        when(customerDAO.selectCustomerDTOsAfter(0, 1000)).thenReturn(firstPage);
+        when(customerDAO.selectCustomerDTOsAfter(1000, 1000)).thenReturn(List.of(last));
+
+        underTest.load();
+
+        assertThat(underTest.suggest("ljud", 10))
+                .containsExactly(new CustomerSuggestion(1001, "Marko", "ljudina@gmail.com"));
+        assertThat(meterRegistry.get("customer.suggest.index.customers").gauge().value()).isEqualTo(1001);
+    }
+
+    @Test
+    void willDropCustomersNoLongerInTableOnReload() {
+        underTest.put(1, "Marko", "ljudina@gmail.com");
+        underTest.put(2, "Ana", "ana@gmail.com");
+        when(customerDAO.selectCustomerDTOsAfter(0, 1000))
+                .thenReturn(List.of(new CustomerDTO(2, "Ana", "ana@gmail.com", Gender.FEMALE, 30, null)));
+
+        underTest.load();
+
+        assertThat(underTest.suggest("mar", 10)).isEmpty();
+        assertThat(underTest.suggest("ana", 10)).extracting(CustomerSuggestion::id).containsExactly(2);
+    }
+
+    @Test
+    void willNotBringBackCustomersDeletedWhileLoading() {
+        List<CustomerDTO> firstPage = IntStream.rangeClosed(1, 1000)
+                .mapToObj(id -> new CustomerDTO(id, "Customer " + id, "customer" + id + "@gmail.com", Gender.MALE, 20, null))
+                .toList();
+        CustomerDTO deleted = new CustomerDTO(1001, "Marko", "ljudina@gmail.com", Gender.MALE, 40, null);
+        when(customerDAO.selectCustomerDTOsAfter(0, 1000)).thenReturn(firstPage);
+        // the page was read before the delete committed
+        when(customerDAO.selectCustomerDTOsAfter(1000, 1000)).thenAnswer(invocation -> {
+            underTest.remove(1001);
+            return List.of(deleted);
+        });
+
+        underTest.load();
+
+        assertThat(underTest.suggest("ljud", 10)).isEmpty();
+        assertThat(meterRegistry.get("customer.suggest.index.customers").gauge().value()).isEqualTo(1000);
+
+        underTest.put(1002, "Ana", "ana@gmail.com");
+
+        assertThat(underTest.suggest("ana", 10)).extracting(CustomerSuggestion::id).containsExactly(1002);
+    }
+
+    @Test
+    void canRefreshCustomerChangedElsewhere() {
+        underTest.put(1, "Marko", "ljudina@gmail.com");
+        underTest.put(2, "Ana", "ana@gmail.com");
+        when(customerDAO.selectCustomerDTOById(1))
+                .thenReturn(Optional.of(new CustomerDTO(1, "Jovan", "jovan@gmail.com", Gender.MALE, 40, null)));
+        when(customerDAO.selectCustomerDTOById(2)).thenReturn(Optional.empty());
+
+        underTest.refresh(1);
+        underTest.refresh(2);
+
+        assertThat(underTest.suggest("mar", 10)).isEmpty();
+        assertThat(underTest.suggest("jov", 10)).containsExactly(new CustomerSuggestion(1, "Jovan", "jovan@gmail.com"));
+        assertThat(underTest.suggest("ana", 10)).isEmpty();
+    }
+
+    @Test
+    void canSuggestByNameWordOrEmailPrefix() {
+        underTest.put(1, "Marko Jovanovic", "ljudina@gmail.com");
+        underTest.put(2, "Ana Markovic", "ana@gmail.com");
+
+        assertThat(underTest.suggest("MAR", 10)).extracting(CustomerSuggestion::id).containsExactly(1, 2);
+        assertThat(underTest.suggest("jov", 10)).extracting(CustomerSuggestion::id).containsExactly(1);
+        assertThat(underTest.suggest("ana@", 10)).extracting(CustomerSuggestion::id).containsExactly(2);
+        assertThat(underTest.suggest("x", 10)).isEmpty();
+        assertThat(underTest.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void willReturnEachCustomerOnceUpToLimit() {
+        underTest.put(1, "Mara Maric", "mara@gmail.com");
+        underTest.put(2, "Marko", "marko@gmail.com");
+        underTest.put(3, "Marija", "marija@gmail.com");
+
+        assertThat(underTest.suggest("mar", 2)).extracting(CustomerSuggestion::id).containsExactly(1, 3);
+    }
+
+    @Test
+    void canReplaceAndRemoveCustomer() {
+        underTest.put(1, "Marko", "ljudina@gmail.com");
+        double memory = meterRegistry.get("customer.suggest.index.memory").gauge().value();
+        assertThat(memory).isPositive();
+        assertThat(meterRegistry.get("customer.suggest.index.keys").gauge().value()).isEqualTo(2);
+
+        underTest.put(1, "Jovan", "jovan@gmail.com");
+
+        assertThat(underTest.suggest("mar", 10)).isEmpty();
+        assertThat(underTest.suggest("jov", 10)).containsExactly(new CustomerSuggestion(1, "Jovan", "jovan@gmail.com"));
+
+        underTest.remove(1);
+
+        assertThat(underTest.suggest("jov", 10)).isEmpty();
+        assertThat(meterRegistry.get("customer.suggest.index.keys").gauge().value()).isZero();
+        assertThat(meterRegistry.get("customer.suggest.index.memory").gauge().value()).isZero();
+    }
+
+    @Test
+    void willRecordLookupLatency() {
+        underTest.suggest("mar", 10);
+        assertThat(meterRegistry.get("customer.suggest.lookup").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures how long {@link ProfileImageProcessor} takes per uploaded image and how many bytes
+ * the stored variants save over the upload, for the sample photos in the test resources.
+ * <p>
+ * Not part of the regular build:
+ * {@code mvn test -Dtest=ProfileImageProcessorBenchmark -Dbenchmark.iterations=20}
+ */
+class ProfileImageProcessorBenchmark {
+
+    private static final List<String> IMAGES = List.of("male.jpg", "female.jpg");
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+    private static final int WARM_UP = Integer.getInteger("benchmark.warm-up", 5);
+
+    private final ProfileImageProcessor underTest = new ProfileImageProcessor(new ProfileImageProperties(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void measureProcessing() throws IOException {
+        for (String name : IMAGES) {
+            Path image = new ClassPathResource(name).getFile().toPath();
+            for (int i = 0; i < WARM_UP; i++) {
+                ProfileImageProcessor.delete(underTest.processNow(image).values());
+            }
+            long[] durations = new long[ITERATIONS];
+            Map<ProfileImageVariant, Path> variants = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                if (variants != null) {
+                    ProfileImageProcessor.delete(variants.values());
+                }
+                long start = System.nanoTime();
+                variants = underTest.processNow(image);
+                durations[i] = System.nanoTime() - start;
+            }
+            try {
+                Arrays.sort(durations);
+                long uploaded = Files.size(image);
+                System.out.printf(
+                        "%-10s uploaded=%d KB p50=%d ms p99=%d ms%n",
+                        name,
+                        uploaded / 1024,
+                        Duration.ofNanos(durations[ITERATIONS / 2]).toMillis(),
+                        Duration.ofNanos(durations[(int) Math.ceil(ITERATIONS * 0.99) - 1]).toMillis()
+                );
+                for (Map.Entry<ProfileImageVariant, Path> variant : variants.entrySet()) {
+                    long stored = Files.size(variant.getValue());
+                    System.out.printf(
+                            "%-10s %-6s stored=%d KB saved=%.1f%%%n",
+                            "",
+                            variant.getKey().name().toLowerCase(),
+                            stored / 1024,
+                            100.0 * (uploaded - stored) / uploaded
+                    );
+                    assertThat(stored).isLessThan(uploaded);
+                }
+            } finally {
+                ProfileImageProcessor.delete(variants.values());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProfileImageProcessorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProfileImageProperties properties = new ProfileImageProperties();
+    private final ProfileImageProcessor underTest = new ProfileImageProcessor(properties, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void canProduceVariants() throws IOException {
+        Path image = new ClassPathResource("male.jpg").getFile().toPath();
+
+        Map<ProfileImageVariant, Path> variants = underTest.process(image).join();
+
+        try {
+            assertThat(variants).containsOnlyKeys(ProfileImageVariant.values());
+            for (Map.Entry<ProfileImageVariant, Path> variant : variants.entrySet()) {
+                BufferedImage decoded = ImageIO.read(variant.getValue().toFile());
+                assertThat(Math.max(decoded.getWidth(), decoded.getHeight())).isEqualTo(variant.getKey().getMaxEdge());
+                assertThat(Files.size(variant.getValue())).isLessThan(Files.size(image));
+                // nothing of the upload's EXIF is carried over
+                assertThat(new String(Files.readAllBytes(variant.getValue()), StandardCharsets.ISO_8859_1)).doesNotContain("Exif");
+            }
+            assertThat(meterRegistry.get("customer.profile-image.processing").timer().count()).isEqualTo(1);
+        } finally {
+            ProfileImageProcessor.delete(variants.values());
+        }
+    }
+
+    @Test
+    void willNotScaleUpSmallImages(@TempDir Path directory) throws IOException {
+        Path image = directory.resolve("small.png");
+        ImageIO.write(new BufferedImage(100, 50, BufferedImage.TYPE_INT_ARGB), "png", image.toFile());
+
+        Map<ProfileImageVariant, Path> variants = underTest.processNow(image);
+
+        try {
+            for (Path variant : variants.values()) {
+                BufferedImage decoded = ImageIO.read(variant.toFile());
+                assertThat(decoded.getWidth()).isEqualTo(100);
+                assertThat(decoded.getHeight()).isEqualTo(50);
+            }
+        } finally {
+            ProfileImageProcessor.delete(variants.values());
+        }
+    }
+
+    @Test
+    void willTurnImagesUprightByExifOrientation() throws IOException {
+        // stored 200x100 with red on the left and blue on the right, tagged to be rotated clockwise
+        Path image = new ClassPathResource("rotated.jpg").getFile().toPath();
+
+        Map<ProfileImageVariant, Path> variants = underTest.processNow(image);
+
+        try {
+            BufferedImage decoded = ImageIO.read(variants.get(ProfileImageVariant.LARGE).toFile());
+            assertThat(decoded.getWidth()).isEqualTo(100);
+            assertThat(decoded.getHeight()).isEqualTo(200);
+            assertThat(new Color(decoded.getRGB(50, 25)).getRed()).isGreaterThan(200);
+            assertThat(new Color(decoded.getRGB(50, 175)).getBlue()).isGreaterThan(200);
+        } finally {
+            ProfileImageProcessor.delete(variants.values());
+        }
+    }
+
+    @Test
+    void willRejectFilesThatAreNotImages(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("file"), "Hello World");
+
+        assertThatThrownBy(() -> underTest.processNow(file))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Profile image must be a JPEG, PNG, GIF or BMP image");
+    }
+
+    @Test
+    void willRejectImagesWithTooManyPixels() throws IOException {
+        properties.setMaxPixels(1_000_000);
+        Path image = new ClassPathResource("female.jpg").getFile().toPath();
+
+        assertThatThrownBy(() -> underTest.processNow(image))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Profile image must not have more than 1000000 pixels");
+    }
+}
@@ -0,0 +1,61 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProfileImageTest {
+
+    private final ProfileImage underTest = new ProfileImage("2222", 1, "abc", "image/png", Instant.now(), false);
+
+    @Test
+    void willMatchIfNoneMatch() {
+        ProfileImageVariant variant = ProfileImageVariant.LARGE;
+        assertThat(underTest.eTag(variant)).isEqualTo("\"abc\"");
+        assertThat(underTest.isMatchedBy("\"abc\"", variant)).isTrue();
+        assertThat(underTest.isMatchedBy("W/\"abc\"", variant)).isTrue();
+        assertThat(underTest.isMatchedBy("\"xyz\", \"abc\"", variant)).isTrue();
+        assertThat(underTest.isMatchedBy("*", variant)).isTrue();
+        assertThat(underTest.isMatchedBy("\"xyz\"", variant)).isFalse();
+        assertThat(underTest.isMatchedBy("abc", variant)).isFalse();
+        assertThat(underTest.isMatchedBy(null, variant)).isFalse();
+    }
+
+    @Test
+    void willTagAndKeyEachVariant() {
+        ProfileImage withVariants = new ProfileImage("2222", 1, "abc", "image/jpeg", Instant.now(), true);
+
+        assertThat(withVariants.eTag(ProfileImageVariant.SMALL)).isEqualTo("\"abc-small\"");
+        assertThat(withVariants.isMatchedBy("\"abc-small\"", ProfileImageVariant.SMALL)).isTrue();
+        assertThat(withVariants.isMatchedBy("\"abc-small\"", ProfileImageVariant.LARGE)).isFalse();
+        assertThat(withVariants.key(ProfileImageVariant.MEDIUM)).isEqualTo("profile-images/1/2222/medium");
+        // uploaded before variants existed
+        assertThat(underTest.key(ProfileImageVariant.MEDIUM)).isEqualTo("profile-images/1/2222");
+    }
+
+    @Test
+    void canChooseVariantBySize() {
+        assertThat(ProfileImageVariant.from(null)).isEqualTo(ProfileImageVariant.LARGE);
+        assertThat(ProfileImageVariant.from("small")).isEqualTo(ProfileImageVariant.SMALL);
+        assertThat(ProfileImageVariant.from("MEDIUM")).isEqualTo(ProfileImageVariant.MEDIUM);
+        assertThatThrownBy(() -> ProfileImageVariant.from("huge"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("Unsupported profile image size [huge]");
+    }
+
+    @Test
+    void canHashContent(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("image"), "Hello World");
+
+        assertThat(ProfileImage.contentHash(file))
+                .isEqualTo("a591a6d40bf420404a011733cfb7b190d62c65bf0bcda32b57b277d9ad9f146e");
+    }
+}
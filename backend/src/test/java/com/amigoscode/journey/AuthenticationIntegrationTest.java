@@ -85,4 +85,164 @@ public class AuthenticationIntegrationTest {
         assertThat(customerDTO.gender()).isEqualTo(Gender.MALE);
         assertThat(customerDTO.roles()).isEqualTo(List.of("ROLE_USER"));
     }
+
+    @Test
+    void canRefreshToken() {
+        String name = FAKER.name().fullName();
+        String email = name + "-" + UUID.randomUUID() + "@testemail.com";
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(name, email, "password", RANDOM.nextInt(1, 100), Gender.FEMALE);
+        String registrationToken = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(HttpHeaders.AUTHORIZATION)
+                .get(0);
+
+        EntityExchangeResult<AuthenticationResponse> result = webTestClient.post()
+                .uri(AUTHENTICATION_PATH + "/refresh")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer %s".formatted(registrationToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(new ParameterizedTypeReference<AuthenticationResponse>() {
+                })
+                .returnResult();
+
+        CustomerDTO customerDTO = result.getResponseBody().customerDTO();
+        String refreshedToken = result.getResponseHeaders().get(HttpHeaders.AUTHORIZATION).get(0);
+        assertThat(jwtUtil.getPrincipal(jwtUtil.getClaims(registrationToken)).id()).isEqualTo(customerDTO.id());
+        assertThat(jwtUtil.getPrincipal(jwtUtil.getClaims(refreshedToken)).id()).isEqualTo(customerDTO.id());
+        assertThat(customerDTO.email()).isEqualTo(email);
+
+        webTestClient.post()
+                .uri(AUTHENTICATION_PATH + "/refresh")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
+
+    @Test
+    void canLogout() {
+        String name = FAKER.name().fullName();
+        String email = name + "-" + UUID.randomUUID() + "@testemail.com";
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(name, email, "password", RANDOM.nextInt(1, 100), Gender.MALE);
+        String jwtToken = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(HttpHeaders.AUTHORIZATION)
+                .get(0);
+
+        webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer %s".formatted(jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.post()
+                .uri(AUTHENTICATION_PATH + "/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer %s".formatted(jwtToken))
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+
+        webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer %s".formatted(jwtToken))
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
+
+    @Test
+    void willThrottleRepeatedLoginAttempts() {
+        AuthenticationRequest authRequest = new AuthenticationRequest("%s@testemail.com".formatted(UUID.randomUUID()), "password");
+        // default limit is 5 attempts per username and minute
+        for (int i = 0; i < 5; i++) {
+            webTestClient.post()
+                    .uri(AUTHENTICATION_PATH + "/login")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Mono.just(authRequest), AuthenticationRequest.class)
+                    .exchange()
+                    .expectStatus()
+                    .isUnauthorized();
+        }
+
+        webTestClient.post()
+                .uri(AUTHENTICATION_PATH + "/login")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(authRequest), AuthenticationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(429)
+                .expectHeader()
+                .exists(HttpHeaders.RETRY_AFTER);
+    }
+
+    @Test
+    void willNotOpenLoginThrottleEndpointToCustomers() {
+        String name = FAKER.name().fullName();
+        String email = name + "-" + UUID.randomUUID() + "@testemail.com";
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(name, email, "password", RANDOM.nextInt(1, 100), Gender.MALE);
+        String jwtToken = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(HttpHeaders.AUTHORIZATION)
+                .get(0);
+
+        webTestClient.get()
+                .uri("/actuator/loginthrottle")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer %s".formatted(jwtToken))
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+
+        webTestClient.delete()
+                .uri("/actuator/loginthrottle/{key}", "ip:127.0.0.1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer %s".formatted(jwtToken))
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
+
+    @Test
+    void willOnlyOpenHealthAndInfoToAnonymousCallers() {
+        webTestClient.get()
+                .uri("/actuator/health")
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.get()
+                .uri("/actuator/metrics")
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
 }
@@ -4,6 +4,7 @@ import com.amigoscode.customer.CustomerDTO;
 import com.amigoscode.customer.CustomerRegistrationRequest;
 import com.amigoscode.customer.CustomerUpdateRequest;
 import com.amigoscode.customer.Gender;
+import com.amigoscode.customer.ProfileImageVariant;
 import com.github.javafaker.Faker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,9 +13,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.BodyInserter;
@@ -22,8 +26,15 @@ import org.springframework.web.reactive.function.BodyInserters;
 import org.testcontainers.shaded.com.google.common.io.Files;
 import reactor.core.publisher.Mono;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
@@ -247,7 +258,7 @@ public class CustomerIntegrationTest {
     }
 
     @Test
-    void canUploadAndDownloadProfilePicture() throws IOException {
+    void canUploadAndDownloadProfilePicture() throws IOException, NoSuchAlgorithmException {
         //create registration request
         String name = FAKER.name().fullName();
         String email = name + "-" + UUID.randomUUID() + "@testemail.com";
@@ -315,17 +326,96 @@ public class CustomerIntegrationTest {
                 .profileImageId();
         assertThat(updatedProfileImageId).isNotBlank();
 
-        byte[] downloadedImage = webTestClient.get()
+        EntityExchangeResult<byte[]> download = webTestClient.get()
                 .uri(uri)
                 .accept(MediaType.IMAGE_JPEG)
                 .exchange()
                 .expectStatus()
                 .isOk()
+                .expectHeader()
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .expectBody(byte[].class)
+                .returnResult();
+
+        byte[] uploadedImage = Files.toByteArray(image.getFile());
+        byte[] actualImage = download.getResponseBody();
+        // stored resized and recompressed, by default the largest variant
+        BufferedImage largest = ImageIO.read(new ByteArrayInputStream(actualImage));
+        assertThat(Math.max(largest.getWidth(), largest.getHeight())).isEqualTo(ProfileImageVariant.LARGE.getMaxEdge());
+        assertThat(actualImage.length).isLessThan(uploadedImage.length);
+        String eTag = download.getResponseHeaders().getETag();
+        assertThat(eTag).isEqualTo("\"%s-large\"".formatted(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(uploadedImage))));
+
+        byte[] smallImage = webTestClient.get()
+                .uri(uri + "?size=small")
+                .accept(MediaType.IMAGE_JPEG)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.IMAGE_JPEG)
                 .expectBody(byte[].class)
                 .returnResult()
                 .getResponseBody();
+        BufferedImage smallest = ImageIO.read(new ByteArrayInputStream(smallImage));
+        assertThat(Math.max(smallest.getWidth(), smallest.getHeight())).isEqualTo(ProfileImageVariant.SMALL.getMaxEdge());
+
+        webTestClient.get()
+                .uri(uri + "?size=huge")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+
+        webTestClient.get()
+                .uri(uri)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody()
+                .isEmpty();
 
-        byte[] actualImage = Files.toByteArray(image.getFile());
-        assertThat(actualImage).isEqualTo(downloadedImage);
+        webTestClient.get()
+                .uri(uri + "/{profileImageId}", updatedProfileImageId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody(byte[].class)
+                .isEqualTo(actualImage);
+
+        webTestClient.get()
+                .uri(uri + "/{profileImageId}", UUID.randomUUID())
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+
+        byte[] downloadedRange = webTestClient.get()
+                .uri(uri)
+                .accept(MediaType.IMAGE_JPEG)
+                .header(HttpHeaders.RANGE, "bytes=10-109")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PARTIAL_CONTENT)
+                .expectHeader()
+                .valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 10-109/%s".formatted(actualImage.length))
+                .expectHeader()
+                .contentLength(100)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(downloadedRange).isEqualTo(Arrays.copyOfRange(actualImage, 10, 110));
+
+        webTestClient.get()
+                .uri(uri)
+                .header(HttpHeaders.RANGE, "bytes=%s-".formatted(actualImage.length))
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
     }
 }
@@ -0,0 +1,15 @@
+package com.amigoscode.journey;
+
+import com.amigoscode.reactive.ReactiveMain;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Runs the authentication journeys against the WebFlux and R2DBC stack.
+ */
+@SpringBootTest(classes = ReactiveMain.class, webEnvironment = RANDOM_PORT)
+@ActiveProfiles(ReactiveMain.PROFILE)
+public class ReactiveAuthenticationIntegrationTest extends AuthenticationIntegrationTest {
+}
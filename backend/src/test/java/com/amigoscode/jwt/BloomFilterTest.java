@@ -0,0 +1,33 @@
+package com.amigoscode.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void willNeverMissAddedValues() {
+        BloomFilter underTest = new BloomFilter(10_000, 0.01);
+        var values = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+        values.forEach(underTest::put);
+
+        assertThat(values).allMatch(underTest::mightContain);
+    }
+
+    @Test
+    void willKeepFalsePositivesNearConfiguredRate() {
+        BloomFilter underTest = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> underTest.put(UUID.randomUUID().toString()));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> underTest.mightContain(UUID.randomUUID().toString()))
+                .count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
@@ -0,0 +1,94 @@
+package com.amigoscode.jwt;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerUserDetailsService;
+import com.amigoscode.customer.Gender;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JWTAuthenticationFilterTest {
+
+    @Mock
+    private CustomerUserDetailsService userDetailsService;
+    @Mock
+    private TokenDenylist tokenDenylist;
+    private final JWTUtil jwtUtil = new JWTUtil();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void willAuthenticateFromClaimsWithoutLoadingCustomer() throws Exception {
+        JWTAuthenticationFilter underTest = new JWTAuthenticationFilter(jwtUtil, userDetailsService, tokenDenylist, JWTAuthenticationMode.STATELESS);
+        String token = jwtUtil.issueToken("ljudina@gmail.com", 7, List.of("ROLE_USER"));
+
+        underTest.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo(new JWTPrincipal(7, "ljudina@gmail.com", List.of("ROLE_USER")));
+        assertThat(authentication.getName()).isEqualTo("ljudina@gmail.com");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void willLoadCustomerInDatabaseMode() throws Exception {
+        JWTAuthenticationFilter underTest = new JWTAuthenticationFilter(jwtUtil, userDetailsService, tokenDenylist, JWTAuthenticationMode.DATABASE);
+        Customer customer = new Customer(7, "ljudina@gmail.com", "password", "Marko", 40, Gender.MALE);
+        when(userDetailsService.loadUserByUsername("ljudina@gmail.com")).thenReturn(customer);
+        String token = jwtUtil.issueToken("ljudina@gmail.com", 7, List.of("ROLE_USER"));
+
+        underTest.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(customer);
+    }
+
+    @Test
+    void willAcceptTokensWithoutIdClaim() throws Exception {
+        JWTAuthenticationFilter underTest = new JWTAuthenticationFilter(jwtUtil, userDetailsService, tokenDenylist, JWTAuthenticationMode.STATELESS);
+        String token = jwtUtil.issueToken("ljudina@gmail.com", "ROLE_USER");
+
+        underTest.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isEqualTo(new JWTPrincipal(null, "ljudina@gmail.com", List.of("ROLE_USER")));
+    }
+
+    @Test
+    void willNotAuthenticateRevokedToken() throws Exception {
+        JWTAuthenticationFilter underTest = new JWTAuthenticationFilter(jwtUtil, userDetailsService, tokenDenylist, JWTAuthenticationMode.STATELESS);
+        String token = jwtUtil.issueToken("ljudina@gmail.com", 7, List.of("ROLE_USER"));
+        Claims claims = jwtUtil.getClaims(token);
+        when(tokenDenylist.isRevoked(claims.getId(), claims.getExpiration())).thenReturn(true);
+        MockFilterChain filterChain = new MockFilterChain();
+
+        underTest.doFilter(request(token), new MockHttpServletResponse(), filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(filterChain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.amigoscode.jwt;
+
+import com.amigoscode.AbstractTestContainers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenDenylistTest extends AbstractTestContainers {
+
+    private final TokenDenylistProperties properties = new TokenDenylistProperties();
+    private JdbcTemplate jdbcTemplate;
+    private TokenDenylist underTest;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = getJdbcTemplate();
+        underTest = new TokenDenylist(jdbcTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void canRevokeToken() {
+        String revoked = UUID.randomUUID().toString();
+        String other = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+
+        underTest.revoke(revoked, expiresAt);
+
+        assertThat(underTest.isRevoked(revoked, Date.from(expiresAt))).isTrue();
+        assertThat(underTest.isRevoked(other, Date.from(expiresAt))).isFalse();
+        assertThat(underTest.isRevoked(null, Date.from(expiresAt))).isFalse();
+    }
+
+    @Test
+    void willPickUpTokensRevokedOnOtherNodes() {
+        TokenDenylist otherNode = new TokenDenylist(jdbcTemplate, properties, new SimpleMeterRegistry());
+        otherNode.sync();
+        String revoked = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+
+        underTest.revoke(revoked, expiresAt);
+        assertThat(otherNode.isRevoked(revoked, Date.from(expiresAt))).isFalse();
+        otherNode.sync();
+
+        assertThat(otherNode.isRevoked(revoked, Date.from(expiresAt))).isTrue();
+    }
+
+    @Test
+    void willDropBucketsOnceTheirTokensExpired() throws InterruptedException {
+        properties.setBucketWidth(Duration.ofMillis(500));
+        underTest = new TokenDenylist(jdbcTemplate, properties, new SimpleMeterRegistry());
+        String revoked = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusMillis(500);
+        underTest.revoke(revoked, expiresAt);
+        assertThat(underTest.size()).isEqualTo(1);
+
+        Thread.sleep(1_200);
+        underTest.expire();
+
+        assertThat(underTest.size()).isZero();
+        assertThat(underTest.isRevoked(revoked, Date.from(expiresAt))).isFalse();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM revoked_token WHERE jti = ?", Integer.class, revoked
+        )).isZero();
+    }
+}
@@ -0,0 +1,44 @@
+package com.amigoscode.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientAddressResolverTest {
+
+    private final ClientAddressResolver underTest = new ClientAddressResolver(new ServerProperties());
+
+    @Test
+    void willResolveClientBehindLoadBalancer() {
+        MockServerHttpRequest request = MockServerHttpRequest.post("/api/v1/auth/login")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 443))
+                .header("X-Forwarded-For", "198.51.100.1, 203.0.113.7")
+                .build();
+
+        assertThat(underTest.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void willSkipEveryTrustedProxy() {
+        MockServerHttpRequest request = MockServerHttpRequest.post("/api/v1/auth/login")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 443))
+                .header("X-Forwarded-For", "203.0.113.7, 10.0.0.2")
+                .build();
+
+        assertThat(underTest.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void willNotTrustForwardedForFromClient() {
+        MockServerHttpRequest request = MockServerHttpRequest.post("/api/v1/auth/login")
+                .remoteAddress(new InetSocketAddress("198.51.100.1", 443))
+                .header("X-Forwarded-For", "203.0.113.7")
+                .build();
+
+        assertThat(underTest.resolve(request)).isEqualTo("198.51.100.1");
+    }
+}
@@ -0,0 +1,64 @@
+package com.amigoscode.s3;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FakeS3AsyncTest {
+
+    private static final String BUCKET = "customer";
+
+    @TempDir
+    private Path root;
+    private FakeS3Async underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FakeS3Async(root);
+    }
+
+    @Test
+    void canPutAndGetObject() {
+        //When
+        underTest.putObject(request -> request.bucket(BUCKET).key("foo"), AsyncRequestBody.fromString("Hello World!")).join();
+        //Then
+        assertThat(underTest.getObject(request -> request.bucket(BUCKET).key("foo"), AsyncResponseTransformer.toBytes())
+                .join().asUtf8String()).isEqualTo("Hello World!");
+        assertThat(underTest.getObject(request -> request.bucket(BUCKET).key("foo").range("bytes=0-4"), AsyncResponseTransformer.toBytes())
+                .join().asUtf8String()).isEqualTo("Hello");
+        assertThat(underTest.headObject(request -> request.bucket(BUCKET).key("foo")).join().contentLength()).isEqualTo(12);
+        assertThat(underTest.listObjectsV2(request -> request.bucket(BUCKET)).join().contents())
+                .extracting(S3Object::key)
+                .containsExactly("foo");
+    }
+
+    @Test
+    void canDeleteWhatSyncClientWrote() {
+        //Given
+        new FakeS3(root).putObject(request -> request.bucket(BUCKET).key("foo"), RequestBody.fromString("Hello"));
+        //When
+        underTest.deleteObject(request -> request.bucket(BUCKET).key("foo")).join();
+        //Then
+        assertThatThrownBy(() -> new FakeS3(root).getObject(request -> request.bucket(BUCKET).key("foo"), ResponseTransformer.toBytes()))
+                .isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void willFailWithNoSuchKeyForMissingObjects() {
+        assertThatThrownBy(() -> underTest.getObject(request -> request.bucket(BUCKET).key("missing"), AsyncResponseTransformer.toBytes()).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(NoSuchKeyException.class);
+    }
+}
@@ -0,0 +1,207 @@
+package com.amigoscode.s3;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FakeS3Test {
+
+    private static final String BUCKET = "customer";
+
+    @TempDir
+    private Path root;
+    private FakeS3 underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FakeS3(root);
+    }
+
+    @Test
+    void canPutAndGetObject() {
+        //When
+        put("profile-images/1/2222/small", "Hello World!");
+        //Then
+        assertThat(get("profile-images/1/2222/small")).isEqualTo("Hello World!");
+        assertThat(underTest.getObject(request -> request.bucket(BUCKET).key("profile-images/1/2222/small").range("bytes=6-10"),
+                ResponseTransformer.toBytes()).asUtf8String()).isEqualTo("World");
+    }
+
+    @Test
+    void willShardKeysIntoFlatFileNames() {
+        //When
+        put("profile-images/1/2222/small", "Hello World!");
+        put("../../escape", "Hello World!");
+        //Then
+        Path small = root.resolve(BUCKET)
+                .resolve(LocalObjectStore.shard("profile-images/1/2222/small"))
+                .resolve("profile-images%2F1%2F2222%2Fsmall");
+        assertThat(small).hasContent("Hello World!");
+        Path escape = root.resolve(BUCKET)
+                .resolve(LocalObjectStore.shard("../../escape"))
+                .resolve("%2E.%2F..%2Fescape");
+        assertThat(escape).exists();
+        assertThat(get("../../escape")).isEqualTo("Hello World!");
+    }
+
+    @Test
+    void willReplaceObjectWithoutLeavingUploadsBehind() throws IOException {
+        //When
+        put("foo", "first");
+        put("foo", "second");
+        //Then
+        assertThat(get("foo")).isEqualTo("second");
+        try (var uploads = Files.list(root.resolve(BUCKET).resolve(".uploads"))) {
+            assertThat(uploads).isEmpty();
+        }
+    }
+
+    @Test
+    void willThrowNoSuchKeyForMissingObjects() {
+        assertThatThrownBy(() -> get("missing"))
+                .isInstanceOf(NoSuchKeyException.class)
+                .satisfies(e -> assertThat(((NoSuchKeyException) e).statusCode()).isEqualTo(404));
+        assertThatThrownBy(() -> underTest.headObject(request -> request.bucket(BUCKET).key("missing")))
+                .isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void willRejectInvalidBucketNames() {
+        assertThatThrownBy(() -> underTest.getObject(request -> request.bucket("..").key("foo"), ResponseTransformer.toBytes()))
+                .isInstanceOf(S3Exception.class)
+                .satisfies(e -> assertThat(((S3Exception) e).awsErrorDetails().errorCode()).isEqualTo("InvalidBucketName"));
+    }
+
+    @Test
+    void canHeadObject() {
+        //Given
+        put("foo", "Hello World!");
+        //When
+        HeadObjectResponse response = underTest.headObject(request -> request.bucket(BUCKET).key("foo"));
+        //Then
+        assertThat(response.contentLength()).isEqualTo(12);
+        assertThat(response.lastModified()).isNotNull();
+    }
+
+    @Test
+    void canDeleteObject() {
+        //Given
+        put("foo", "Hello World!");
+        //When
+        underTest.deleteObject(request -> request.bucket(BUCKET).key("foo"));
+        underTest.deleteObject(request -> request.bucket(BUCKET).key("foo"));
+        //Then
+        assertThatThrownBy(() -> get("foo")).isInstanceOf(NoSuchKeyException.class);
+    }
+
+    @Test
+    void canListObjectsInPages() {
+        //Given
+        for (String key : List.of("profile-images/1/a", "profile-images/1/b", "profile-images/2/a", "other")) {
+            put(key, key);
+        }
+        //When
+        ListObjectsV2Response first = underTest.listObjectsV2(request -> request.bucket(BUCKET).prefix("profile-images/").maxKeys(2));
+        ListObjectsV2Response second = underTest.listObjectsV2(request -> request.bucket(BUCKET).prefix("profile-images/").maxKeys(2)
+                .continuationToken(first.nextContinuationToken()));
+        //Then
+        assertThat(first.contents()).extracting(S3Object::key).containsExactly("profile-images/1/a", "profile-images/1/b");
+        assertThat(first.contents().get(0).size()).isEqualTo("profile-images/1/a".length());
+        assertThat(first.isTruncated()).isTrue();
+        assertThat(second.contents()).extracting(S3Object::key).containsExactly("profile-images/2/a");
+        assertThat(second.isTruncated()).isFalse();
+        assertThat(second.nextContinuationToken()).isNull();
+    }
+
+    @Test
+    void canListCommonPrefixes() {
+        //Given
+        for (String key : List.of("profile-images/1/a", "profile-images/1/b", "profile-images/2/a", "profile-images/3")) {
+            put(key, key);
+        }
+        //When
+        ListObjectsV2Response first = underTest.listObjectsV2(request -> request.bucket(BUCKET).prefix("profile-images/").delimiter("/").maxKeys(1));
+        ListObjectsV2Response rest = underTest.listObjectsV2(request -> request.bucket(BUCKET).prefix("profile-images/").delimiter("/")
+                .continuationToken(first.nextContinuationToken()));
+        //Then
+        assertThat(first.commonPrefixes()).extracting(CommonPrefix::prefix).containsExactly("profile-images/1/");
+        assertThat(first.contents()).isEmpty();
+        assertThat(rest.commonPrefixes()).extracting(CommonPrefix::prefix).containsExactly("profile-images/2/");
+        assertThat(rest.contents()).extracting(S3Object::key).containsExactly("profile-images/3");
+    }
+
+    @Test
+    void willNeverServePartlyWrittenObjects() throws Exception {
+        //Given
+        char[] first = new char[256 * 1024];
+        char[] second = new char[256 * 1024];
+        Arrays.fill(first, 'a');
+        Arrays.fill(second, 'b');
+        put("foo", new String(first));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                String content = new String(i == 0 ? first : second);
+                tasks.add(executor.submit(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        put("foo", content);
+                    }
+                }));
+            }
+            for (int i = 0; i < 2; i++) {
+                tasks.add(executor.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        String read = get("foo");
+                        //Then
+                        assertThat(read).hasSize(first.length);
+                        assertThat(read.chars().distinct()).hasSize(1);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void willWrapReadFailuresInSdkClientException() throws IOException {
+        //Given a directory where the object's file would be
+        Files.createDirectories(root.resolve(BUCKET).resolve(LocalObjectStore.shard("foo")).resolve("foo"));
+        //Then
+        assertThatThrownBy(() -> get("foo")).isInstanceOf(SdkClientException.class);
+    }
+
+    private void put(String key, String content) {
+        underTest.putObject(request -> request.bucket(BUCKET).key(key), RequestBody.fromString(content));
+    }
+
+    private String get(String key) {
+        return underTest.getObject(request -> request.bucket(BUCKET).key(key), ResponseTransformer.toBytes()).asUtf8String();
+    }
+}
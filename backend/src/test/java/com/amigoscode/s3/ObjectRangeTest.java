@@ -0,0 +1,34 @@
+package com.amigoscode.s3;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ObjectRangeTest {
+
+    @Test
+    void canResolveRangesLikeS3() {
+        assertThat(ObjectRange.resolve("bytes=0-99", 50)).isEqualTo(new ObjectRange(0, 49));
+        assertThat(ObjectRange.resolve("bytes=-10", 50)).isEqualTo(new ObjectRange(40, 49));
+        assertThat(ObjectRange.resolve("bytes=10-", 50)).isEqualTo(new ObjectRange(10, 49));
+        assertThat(ObjectRange.resolve("bytes=0-1,3-4", 50)).isNull();
+        assertThat(ObjectRange.resolve(null, 50)).isNull();
+        assertThatThrownBy(() -> ObjectRange.resolve("bytes=60-", 50))
+                .isInstanceOfSatisfying(S3Exception.class, e -> assertThat(e.statusCode()).isEqualTo(416));
+    }
+
+    @Test
+    void canRespondWithRangeOrWholeObject() {
+        GetObjectResponse range = ObjectRange.response(new ObjectRange(10, 19), 50);
+        GetObjectResponse whole = ObjectRange.response(null, 50);
+
+        assertThat(range.contentLength()).isEqualTo(10);
+        assertThat(range.contentRange()).isEqualTo("bytes 10-19/50");
+        assertThat(whole.contentLength()).isEqualTo(50);
+        assertThat(whole.contentRange()).isNull();
+        assertThat(whole.acceptRanges()).isEqualTo("bytes");
+    }
+}
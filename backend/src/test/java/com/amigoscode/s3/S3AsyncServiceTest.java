@@ -0,0 +1,92 @@
+package com.amigoscode.s3;
+
+import com.amigoscode.exception.RangeNotSatisfiableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3AsyncServiceTest {
+
+    @Mock
+    private S3AsyncClient s3AsyncClient;
+    private S3AsyncService underTest;
+
+    @BeforeEach
+    void setUp(){
+        this.underTest = new S3AsyncService(s3AsyncClient);
+    }
+
+    @Test
+    void canPutObject(@TempDir Path directory) throws IOException {
+        //Given
+        String bucket = "customer";
+        String key = "foo";
+        byte[] content = "Hello World!".getBytes();
+        Path file = Files.write(directory.resolve("upload"), content);
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+        //When
+        underTest.putObject(bucket, key, file, "image/png").join();
+        //Then
+        ArgumentCaptor<PutObjectRequest> putObjectRequestArgumentCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        ArgumentCaptor<AsyncRequestBody> requestBodyArgumentCaptor = ArgumentCaptor.forClass(AsyncRequestBody.class);
+        verify(s3AsyncClient).putObject(putObjectRequestArgumentCaptor.capture(), requestBodyArgumentCaptor.capture());
+        PutObjectRequest putObjectRequestValue = putObjectRequestArgumentCaptor.getValue();
+        assertThat(putObjectRequestValue.bucket()).isEqualTo(bucket);
+        assertThat(putObjectRequestValue.key()).isEqualTo(key);
+        assertThat(putObjectRequestValue.contentType()).isEqualTo("image/png");
+        assertThat(requestBodyArgumentCaptor.getValue().contentLength()).contains((long) content.length);
+    }
+
+    @Test
+    void willPropagateErrorWhenStreamingObject() {
+        //Given
+        when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.failedFuture(NoSuchKeyException.builder().message("No such key").build()));
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getObjectPublisher("customer", "foo", null).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(NoSuchKeyException.class)
+                .hasMessageContaining("No such key");
+    }
+
+    @Test
+    void willTranslateUnsatisfiableRangeWhenStreamingObject() {
+        //Given
+        when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(416).build()));
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getObjectPublisher("customer", "foo", "bytes=100-").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RangeNotSatisfiableException.class);
+        ArgumentCaptor<GetObjectRequest> getObjectRequestArgumentCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3AsyncClient).getObject(getObjectRequestArgumentCaptor.capture(), any(AsyncResponseTransformer.class));
+        assertThat(getObjectRequestArgumentCaptor.getValue().range()).isEqualTo("bytes=100-");
+    }
+}
@@ -0,0 +1,284 @@
+package com.amigoscode.s3;
+
+import com.amigoscode.exception.RangeNotSatisfiableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3ObjectCacheTest {
+
+    private static final byte[] CONTENT = "Hello World!".getBytes();
+
+    @Mock
+    private S3Service s3Service;
+    @Mock
+    private S3AsyncService s3AsyncService;
+    private final S3ObjectCacheProperties properties = new S3ObjectCacheProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private S3ObjectCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaximumObjectSize(DataSize.ofBytes(100));
+        underTest = new S3ObjectCache(s3Service, s3AsyncService, properties, meterRegistry);
+    }
+
+    @Test
+    void canServeObjectFromCache() throws IOException, InterruptedException {
+        //Given
+        when(s3Service.getObjectStream("customer", "foo", null)).thenReturn(stream(CONTENT));
+        //When
+        String first = read(underTest.getObjectStream("customer", "foo", null));
+        S3ObjectStream cached = underTest.getObjectStream("customer", "foo", null);
+        //Then
+        assertThat(cached.contentType()).isEqualTo("image/png");
+        assertThat(cached.contentLength()).isEqualTo(CONTENT.length);
+        assertThat(read(cached)).isEqualTo(first).isEqualTo("Hello World!");
+        verify(s3Service, times(1)).getObjectStream("customer", "foo", null);
+        assertThat(meterRegistry.get("s3.objects.hit.ratio").gauge().value()).isEqualTo(0.5);
+        // weighed when the cache catches up on its bookkeeping, which may be on another thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("s3.objects.resident").gauge().value() < CONTENT.length
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("s3.objects.resident").gauge().value()).isEqualTo(CONTENT.length);
+    }
+
+    @Test
+    void canServeRangeOfCachedObject() throws IOException {
+        //Given
+        when(s3Service.getObjectStream("customer", "foo", null)).thenReturn(stream(CONTENT));
+        read(underTest.getObjectStream("customer", "foo", null));
+        //When
+        S3ObjectStream range = underTest.getObjectStream("customer", "foo", "bytes=6-10");
+        //Then
+        assertThat(range.contentRange()).isEqualTo("bytes 6-10/12");
+        assertThat(range.contentLength()).isEqualTo(5);
+        assertThat(read(range)).isEqualTo("World");
+        assertThatThrownBy(() -> underTest.getObjectStream("customer", "foo", "bytes=100-"))
+                .isInstanceOf(RangeNotSatisfiableException.class)
+                .hasMessage("Range [bytes=100-] is not satisfiable");
+        verifyNoMoreInteractions(s3Service);
+    }
+
+    @Test
+    void willNotCacheRangeMisses() throws IOException {
+        //Given
+        when(s3Service.getObjectStream("customer", "foo", "bytes=0-4")).thenReturn(stream(CONTENT));
+        when(s3Service.getObjectStream("customer", "foo", null)).thenReturn(stream(CONTENT));
+        //When
+        read(underTest.getObjectStream("customer", "foo", "bytes=0-4"));
+        read(underTest.getObjectStream("customer", "foo", null));
+        //Then
+        verify(s3Service).getObjectStream("customer", "foo", null);
+    }
+
+    @Test
+    void willNotCacheObjectsLargerThanLimit() throws IOException {
+        //Given
+        properties.setMaximumObjectSize(DataSize.ofBytes(CONTENT.length - 1));
+        underTest = new S3ObjectCache(s3Service, s3AsyncService, properties, meterRegistry);
+        when(s3Service.getObjectStream("customer", "foo", null)).thenAnswer(invocation -> stream(CONTENT));
+        //When
+        read(underTest.getObjectStream("customer", "foo", null));
+        read(underTest.getObjectStream("customer", "foo", null));
+        //Then
+        verify(s3Service, times(2)).getObjectStream("customer", "foo", null);
+    }
+
+    @Test
+    void canInvalidateByKeyPrefix() throws IOException {
+        //Given
+        when(s3Service.getObjectStream(eq("customer"), anyString(), isNull())).thenAnswer(invocation -> stream(CONTENT));
+        read(underTest.getObjectStream("customer", "profile-images/1/a", null));
+        read(underTest.getObjectStream("customer", "profile-images/12/b", null));
+        //When
+        underTest.invalidate("customer", "profile-images/1/");
+        read(underTest.getObjectStream("customer", "profile-images/1/a", null));
+        read(underTest.getObjectStream("customer", "profile-images/12/b", null));
+        //Then
+        verify(s3Service, times(2)).getObjectStream("customer", "profile-images/1/a", null);
+        verify(s3Service, times(1)).getObjectStream("customer", "profile-images/12/b", null);
+    }
+
+    @Test
+    void canServePublisherFromCache() {
+        //Given
+        when(s3AsyncService.getObjectPublisher("customer", "foo", null)).thenReturn(CompletableFuture.completedFuture(
+                new ResponsePublisher<>(response(CONTENT.length), SdkPublisher.adapt(Flux.just(
+                        ByteBuffer.wrap(CONTENT, 0, 6), ByteBuffer.wrap(CONTENT, 6, 6)
+                )))
+        ));
+        //When
+        String first = read(underTest.getObjectPublisher("customer", "foo", null).join());
+        ResponsePublisher<GetObjectResponse> cached = underTest.getObjectPublisher("customer", "foo", null).join();
+        ResponsePublisher<GetObjectResponse> range = underTest.getObjectPublisher("customer", "foo", "bytes=0-4").join();
+        //Then
+        assertThat(first).isEqualTo("Hello World!");
+        assertThat(read(cached)).isEqualTo(first);
+        assertThat(cached.response().contentType()).isEqualTo("image/png");
+        assertThat(read(range)).isEqualTo("Hello");
+        assertThat(range.response().contentRange()).isEqualTo("bytes 0-4/12");
+        verify(s3AsyncService, times(1)).getObjectPublisher("customer", "foo", null);
+        assertThat(underTest.getObjectPublisher("customer", "foo", "bytes=100-"))
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(RangeNotSatisfiableException.class);
+    }
+
+    @Test
+    void willNotCacheTruncatedObjects() throws IOException {
+        //Given
+        when(s3Service.getObjectStream("customer", "foo", null)).thenAnswer(invocation -> new S3ObjectStream(
+                response(CONTENT.length), AbortableInputStream.create(new ByteArrayInputStream(CONTENT, 0, 6))
+        ));
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getObjectStream("customer", "foo", null))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("Object [foo] ended after 6 of 12 bytes");
+        assertThatThrownBy(() -> underTest.getObjectStream("customer", "foo", null))
+                .isInstanceOf(UncheckedIOException.class);
+        verify(s3Service, times(2)).getObjectStream("customer", "foo", null);
+    }
+
+    @Test
+    void willNotCacheTruncatedPublishers() {
+        //Given
+        when(s3AsyncService.getObjectPublisher("customer", "foo", null)).thenAnswer(invocation -> CompletableFuture.completedFuture(
+                new ResponsePublisher<>(response(CONTENT.length), SdkPublisher.adapt(Flux.just(ByteBuffer.wrap(CONTENT, 0, 6))))
+        ));
+        //When
+        //Then
+        assertThat(underTest.getObjectPublisher("customer", "foo", null))
+                .failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(UncheckedIOException.class);
+        assertThat(underTest.getObjectPublisher("customer", "foo", null))
+                .failsWithin(Duration.ofSeconds(5));
+        verify(s3AsyncService, times(2)).getObjectPublisher("customer", "foo", null);
+    }
+
+    @Test
+    void willLoadObjectOnceForConcurrentMisses() throws Exception {
+        //Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(s3Service.getObjectStream("customer", "foo", null)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return stream(CONTENT);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            //When
+            Future<String> first = executor.submit(() -> read(underTest.getObjectStream("customer", "foo", null)));
+            loading.await();
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return read(underTest.getObjectStream("customer", "foo", null));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            release.countDown();
+            //Then
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Hello World!");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("Hello World!");
+            verify(s3Service, times(1)).getObjectStream("customer", "foo", null);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void willLoadPublisherOnceForConcurrentMisses() {
+        //Given
+        CompletableFuture<ResponsePublisher<GetObjectResponse>> loading = new CompletableFuture<>();
+        when(s3AsyncService.getObjectPublisher("customer", "foo", null)).thenReturn(loading);
+        //When
+        CompletableFuture<ResponsePublisher<GetObjectResponse>> first = underTest.getObjectPublisher("customer", "foo", null);
+        CompletableFuture<ResponsePublisher<GetObjectResponse>> second = underTest.getObjectPublisher("customer", "foo", null);
+        loading.complete(new ResponsePublisher<>(response(CONTENT.length), SdkPublisher.adapt(Flux.just(ByteBuffer.wrap(CONTENT)))));
+        //Then
+        assertThat(read(first.join())).isEqualTo("Hello World!");
+        assertThat(read(second.join())).isEqualTo("Hello World!");
+        verify(s3AsyncService, times(1)).getObjectPublisher("customer", "foo", null);
+    }
+
+    @Test
+    void willCountEvictedObjectsUntilTheyAreFreed() throws IOException, InterruptedException {
+        //Given
+        when(s3Service.getObjectStream("customer", "foo", null)).thenAnswer(invocation -> stream(CONTENT));
+        S3ObjectStream reading = underTest.getObjectStream("customer", "foo", null);
+        //When
+        underTest.invalidate("customer", "foo");
+        //Then
+        assertThat(meterRegistry.get("s3.objects.resident").gauge().value()).isEqualTo(CONTENT.length);
+        assertThat(read(reading)).isEqualTo("Hello World!");
+        reading = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("s3.objects.resident").gauge().value() > 0 && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("s3.objects.resident").gauge().value()).isZero();
+    }
+
+    private static S3ObjectStream stream(byte[] content) {
+        return new S3ObjectStream(response(content.length), AbortableInputStream.create(new ByteArrayInputStream(content)));
+    }
+
+    private static GetObjectResponse response(long contentLength) {
+        return GetObjectResponse.builder()
+                .contentType("image/png")
+                .contentLength(contentLength)
+                .build();
+    }
+
+    private static String read(S3ObjectStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (stream) {
+            stream.transferTo(out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String read(ResponsePublisher<GetObjectResponse> publisher) {
+        return Flux.from(publisher)
+                .map(StandardCharsets.UTF_8::decode)
+                .reduce(new StringBuilder(), StringBuilder::append)
+                .map(StringBuilder::toString)
+                .block();
+    }
+}
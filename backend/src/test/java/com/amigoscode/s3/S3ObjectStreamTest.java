@@ -0,0 +1,96 @@
+package com.amigoscode.s3;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.http.Abortable;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class S3ObjectStreamTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void canTransferFileRegion() throws IOException {
+        //Given
+        Path file = Files.writeString(directory.resolve("object"), "Hello World!");
+        FileChannel channel = FileChannel.open(file);
+        S3ObjectStream underTest = new S3ObjectStream(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new FileRegionInputStream(channel, 6, 11))
+        );
+        //When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long transferred;
+        try (underTest) {
+            transferred = underTest.transferTo(out);
+        }
+        //Then
+        assertThat(transferred).isEqualTo(5);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("World");
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void canCopyInChunks() throws IOException {
+        //Given
+        byte[] content = new byte[S3ObjectStream.CHUNK_SIZE * 3 + 7];
+        S3ObjectStream underTest = new S3ObjectStream(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(content))
+        );
+        OutputStream out = mock(OutputStream.class);
+        //When
+        long transferred = underTest.transferTo(out);
+        //Then
+        assertThat(transferred).isEqualTo(content.length);
+        verify(out, times(3)).write(any(byte[].class), eq(0), eq(S3ObjectStream.CHUNK_SIZE));
+        verify(out).write(any(byte[].class), eq(0), eq(7));
+    }
+
+    @Test
+    void willAbortWhenClosedBeforeTheEnd() throws IOException {
+        //Given
+        Abortable abortable = mock(Abortable.class);
+        S3ObjectStream underTest = new S3ObjectStream(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(new byte[10]), abortable)
+        );
+        //When
+        underTest.close();
+        //Then
+        verify(abortable).abort();
+    }
+
+    @Test
+    void willAbortWhenClientGoesAway() throws IOException {
+        //Given
+        Abortable abortable = mock(Abortable.class);
+        S3ObjectStream underTest = new S3ObjectStream(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(new byte[10]), abortable)
+        );
+        OutputStream out = mock(OutputStream.class);
+        doThrow(new IOException("Broken pipe")).when(out).write(any(byte[].class), anyInt(), anyInt());
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.transferTo(out))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+        verify(abortable).abort();
+    }
+}
@@ -1,5 +1,6 @@
 package com.amigoscode.s3;
 
+import com.amigoscode.exception.RangeNotSatisfiableException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,15 +9,21 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -101,4 +108,54 @@ class S3ServiceTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining(exceptionMessage);
     }
-}
\ No newline at end of file
+
+    @Test
+    void canStreamObjectRange() throws IOException {
+        //Given
+        byte[] file = "Hello World!".getBytes();
+        when(s3Client.getObject(any(GetObjectRequest.class), any(ResponseTransformer.class))).thenAnswer(invocation -> {
+            ResponseTransformer<GetObjectResponse, ?> transformer = invocation.getArgument(1);
+            GetObjectResponse response = GetObjectResponse.builder()
+                    .contentType("image/png")
+                    .contentLength(5L)
+                    .contentRange("bytes 0-4/12")
+                    .build();
+            return transformer.transform(response, AbortableInputStream.create(new ByteArrayInputStream(file, 0, 5)));
+        });
+        //When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (S3ObjectStream stream = underTest.getObjectStream("customer", "foo", "bytes=0-4")) {
+            stream.transferTo(out);
+            //Then
+            assertThat(stream.contentType()).isEqualTo("image/png");
+            assertThat(stream.contentLength()).isEqualTo(5L);
+            assertThat(stream.contentRange()).isEqualTo("bytes 0-4/12");
+        }
+        assertThat(out.toString()).isEqualTo("Hello");
+        ArgumentCaptor<GetObjectRequest> getObjectRequestArgumentCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(getObjectRequestArgumentCaptor.capture(), any(ResponseTransformer.class));
+        assertThat(getObjectRequestArgumentCaptor.getValue().range()).isEqualTo("bytes=0-4");
+    }
+
+    @Test
+    void willTranslateUnsatisfiableRange() {
+        //Given
+        when(s3Client.getObject(any(GetObjectRequest.class), any(ResponseTransformer.class)))
+                .thenThrow(S3Exception.builder().statusCode(416).build());
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getObjectStream("customer", "foo", "bytes=100-"))
+                .isInstanceOf(RangeNotSatisfiableException.class)
+                .hasMessage("Range [bytes=100-] is not satisfiable");
+    }
+
+    @Test
+    void willOnlyPassOnSingleByteRanges() {
+        assertThat(S3Service.singleByteRange("bytes=0-99")).isEqualTo("bytes=0-99");
+        assertThat(S3Service.singleByteRange("bytes=-500")).isEqualTo("bytes=-500");
+        assertThat(S3Service.singleByteRange("bytes=100-")).isEqualTo("bytes=100-");
+        assertThat(S3Service.singleByteRange("bytes=0-99,200-299")).isNull();
+        assertThat(S3Service.singleByteRange("lines=1-2")).isNull();
+        assertThat(S3Service.singleByteRange(null)).isNull();
+    }
+}
@@ -0,0 +1,20 @@
+package com.amigoscode.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BCryptCalibratorTest {
+
+    @Test
+    void willStayAtMinimumWhenTargetIsTooTight() {
+        assertThat(BCryptCalibrator.calibrate(Duration.ZERO, 4, 6)).isEqualTo(4);
+    }
+
+    @Test
+    void willNotExceedMaximum() {
+        assertThat(BCryptCalibrator.calibrate(Duration.ofMinutes(1), 4, 6)).isEqualTo(6);
+    }
+}
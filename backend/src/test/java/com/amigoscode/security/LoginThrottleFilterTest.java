@@ -0,0 +1,151 @@
+package com.amigoscode.security;
+
+import com.amigoscode.exception.TooManyRequestsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginThrottleFilterTest {
+
+    @Mock
+    private LoginThrottle loginThrottle;
+    @Mock
+    private HandlerExceptionResolver handlerExceptionResolver;
+    private final LoginThrottleProperties properties = new LoginThrottleProperties();
+
+    @Test
+    void willPassBodyOnToController() throws Exception {
+        LoginThrottleFilter underTest = new LoginThrottleFilter(loginThrottle, properties, new ObjectMapper(), handlerExceptionResolver);
+        when(loginThrottle.acquire("10.0.0.1", "ljudina@gmail.com")).thenReturn(Duration.ZERO);
+        MockFilterChain filterChain = new MockFilterChain();
+
+        underTest.doFilter(login("{\"username\":\"ljudina@gmail.com\",\"password\":\"password\"}"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(filterChain.getRequest().getInputStream().readAllBytes())
+                .asString()
+                .isEqualTo("{\"username\":\"ljudina@gmail.com\",\"password\":\"password\"}");
+        verifyNoInteractions(handlerExceptionResolver);
+    }
+
+    @Test
+    void willReplayBodyToReadListener() throws Exception {
+        LoginThrottleFilter underTest = new LoginThrottleFilter(loginThrottle, properties, new ObjectMapper(), handlerExceptionResolver);
+        when(loginThrottle.acquire("10.0.0.1", "ljudina@gmail.com")).thenReturn(Duration.ZERO);
+        MockFilterChain filterChain = new MockFilterChain();
+        underTest.doFilter(login("{\"username\":\"ljudina@gmail.com\",\"password\":\"password\"}"), new MockHttpServletResponse(), filterChain);
+        ServletInputStream in = filterChain.getRequest().getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (in.isReady() && !in.isFinished()) {
+                    body.write(in.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertThat(body.toString()).isEqualTo("{\"username\":\"ljudina@gmail.com\",\"password\":\"password\"}");
+        assertThat(allDataRead).isTrue();
+    }
+
+    @Test
+    void willRejectThrottledAttempt() throws Exception {
+        LoginThrottleFilter underTest = new LoginThrottleFilter(loginThrottle, properties, new ObjectMapper(), handlerExceptionResolver);
+        when(loginThrottle.acquire("10.0.0.1", null)).thenReturn(Duration.ofSeconds(12));
+        MockFilterChain filterChain = new MockFilterChain();
+
+        underTest.doFilter(login("not json"), new MockHttpServletResponse(), filterChain);
+
+        ArgumentCaptor<Exception> exception = ArgumentCaptor.forClass(Exception.class);
+        verify(handlerExceptionResolver).resolveException(any(), any(), isNull(), exception.capture());
+        assertThat(exception.getValue()).isInstanceOf(TooManyRequestsException.class);
+        assertThat(((TooManyRequestsException) exception.getValue()).getRetryAfter()).isEqualTo(Duration.ofSeconds(12));
+        assertThat(filterChain.getRequest()).isNull();
+    }
+
+    @Test
+    void willThrottleClientBehindLoadBalancer() throws Exception {
+        LoginThrottleFilter underTest = new LoginThrottleFilter(loginThrottle, properties, new ObjectMapper(), handlerExceptionResolver);
+        when(loginThrottle.acquire("203.0.113.7", "ljudina@gmail.com")).thenReturn(Duration.ZERO);
+        MockHttpServletRequest request = login("{\"username\":\"ljudina@gmail.com\",\"password\":\"password\"}");
+        request.addHeader("X-Forwarded-For", "198.51.100.1, 203.0.113.7");
+
+        // what server.forward-headers-strategy=native puts in front of the application
+        new MockFilterChain(new HttpServlet() {}, remoteIpFilter(), underTest)
+                .doFilter(request, new MockHttpServletResponse());
+
+        verify(loginThrottle).acquire("203.0.113.7", "ljudina@gmail.com");
+    }
+
+    @Test
+    void willNotTrustForwardedForFromClient() throws Exception {
+        LoginThrottleFilter underTest = new LoginThrottleFilter(loginThrottle, properties, new ObjectMapper(), handlerExceptionResolver);
+        when(loginThrottle.acquire("198.51.100.1", "ljudina@gmail.com")).thenReturn(Duration.ZERO);
+        MockHttpServletRequest request = login("{\"username\":\"ljudina@gmail.com\",\"password\":\"password\"}");
+        request.setRemoteAddr("198.51.100.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+
+        new MockFilterChain(new HttpServlet() {}, remoteIpFilter(), underTest)
+                .doFilter(request, new MockHttpServletResponse());
+
+        verify(loginThrottle).acquire("198.51.100.1", "ljudina@gmail.com");
+    }
+
+    @Test
+    void willIgnoreOtherRequests() throws Exception {
+        LoginThrottleFilter underTest = new LoginThrottleFilter(loginThrottle, properties, new ObjectMapper(), handlerExceptionResolver);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/customers");
+
+        underTest.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verifyNoInteractions(loginThrottle);
+    }
+
+    private static RemoteIpFilter remoteIpFilter() throws Exception {
+        RemoteIpFilter filter = new RemoteIpFilter();
+        filter.init(new MockFilterConfig());
+        return filter;
+    }
+
+    private static MockHttpServletRequest login(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LoginThrottleFilter.LOGIN_PATH);
+        request.setRemoteAddr("10.0.0.1");
+        request.setContent(body.getBytes());
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.amigoscode.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginThrottleProperties properties = new LoginThrottleProperties();
+    private LoginThrottle underTest;
+
+    @BeforeEach
+    void setUp() {
+        properties.setPerIp(new LoginThrottleProperties.Limit(3, Duration.ofMinutes(1)));
+        properties.setPerUsername(new LoginThrottleProperties.Limit(2, Duration.ofMinutes(1)));
+        underTest = new LoginThrottle(properties, meterRegistry, now::get);
+    }
+
+    @Test
+    void willThrottleUsernameAcrossClients() {
+        assertThat(underTest.acquire("10.0.0.1", "ljudina@gmail.com")).isZero();
+        assertThat(underTest.acquire("10.0.0.2", "LJUDINA@gmail.com ")).isZero();
+
+        assertThat(underTest.acquire("10.0.0.3", "ljudina@gmail.com")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(underTest.acquire("10.0.0.3", "ana@gmail.com")).isZero();
+        assertThat(meterRegistry.get("login.throttle.rejected").tag("key", "username").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void willThrottleClientAcrossUsernames() {
+        assertThat(underTest.acquire("10.0.0.1", "a@gmail.com")).isZero();
+        assertThat(underTest.acquire("10.0.0.1", "b@gmail.com")).isZero();
+        assertThat(underTest.acquire("10.0.0.1", null)).isZero();
+
+        assertThat(underTest.acquire("10.0.0.1", "c@gmail.com")).isEqualTo(Duration.ofSeconds(20));
+        assertThat(meterRegistry.get("login.throttle.rejected").tag("key", "ip").counter().count()).isEqualTo(1);
+
+        now.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertThat(underTest.acquire("10.0.0.1", "c@gmail.com")).isZero();
+    }
+
+    @Test
+    void canReportAndResetKeys() {
+        underTest.acquire("10.0.0.1", "ljudina@gmail.com");
+        underTest.acquire("10.0.0.1", "ljudina@gmail.com");
+        underTest.acquire("10.0.0.1", "ljudina@gmail.com");
+
+        assertThat(underTest.getEntries(10)).containsExactly(
+                new LoginThrottleEntry("username:ljudina@gmail.com", 2, 1, 0),
+                new LoginThrottleEntry("ip:10.0.0.1", 3, 0, 0)
+        );
+
+        underTest.reset("username:ljudina@gmail.com");
+
+        assertThat(underTest.acquire("10.0.0.2", "ljudina@gmail.com")).isZero();
+    }
+
+    @Test
+    void willForgetIdleKeys() {
+        properties.setIdleTimeout(Duration.ofMinutes(5));
+        underTest = new LoginThrottle(properties, meterRegistry, now::get);
+        underTest.acquire("10.0.0.1", "ljudina@gmail.com");
+
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertThat(underTest.getEntries(10)).isEmpty();
+    }
+}
@@ -0,0 +1,122 @@
+package com.amigoscode.security;
+
+import com.amigoscode.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingPool underTest = new PasswordHashingPool(10, 1, meterRegistry);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        underTest.shutdown();
+    }
+
+    @Test
+    void willRunInteractiveTasksOnPool() {
+        String thread = underTest.call(() -> Thread.currentThread().getName());
+
+        assertThat(thread).startsWith("password-hashing-");
+        assertThat(meterRegistry.get("password.hashing.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void willRunNestedTasksOnCurrentThread() {
+        List<String> threads = underTest.submit(() -> List.of(
+                Thread.currentThread().getName(),
+                underTest.call(() -> Thread.currentThread().getName())
+        )).join();
+
+        assertThat(threads.get(1)).isEqualTo(threads.get(0));
+    }
+
+    @Test
+    void willRejectInteractiveTasksWhenSaturated() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        // occupy every thread and the single queue slot
+        occupyEveryThread(release);
+        callers.submit(() -> underTest.call(() -> "hash"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.hashing.queue").tag("pool", "interactive").gauge().value() < 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThatThrownBy(() -> underTest.call(() -> "hash"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfter()).isGreaterThanOrEqualTo(Duration.ofSeconds(1)));
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+    }
+
+    @Test
+    void willRejectWholeBulkBatchWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        occupyEveryThread(release);
+        underTest.submitAll(List.<Supplier<String>>of(() -> "hash", () -> "hash"));
+
+        assertThatThrownBy(() -> underTest.submitAll(List.<Supplier<String>>of(() -> "hash", () -> "hash", () -> "hash", () -> "hash", () -> "hash", () -> "hash", () -> "hash", () -> "hash", () -> "hash")))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get("password.hashing.queue").tag("pool", "bulk").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+    }
+
+    @Test
+    void willRunInteractiveTasksBeforeQueuedBulkTasks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        occupyEveryThread(release);
+        List<String> completed = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Boolean>> bulk = underTest.submitAll(List.<Supplier<Boolean>>of(() -> completed.add("bulk")));
+        Future<Boolean> interactive = callers.submit(() -> underTest.call(() -> completed.add("interactive")));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.hashing.queue").tag("pool", "interactive").gauge().value() < 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        release.countDown();
+        interactive.get(5, TimeUnit.SECONDS);
+        bulk.get(0).get(5, TimeUnit.SECONDS);
+
+        assertThat(completed).containsExactly("interactive", "bulk");
+    }
+
+    // blocks every thread with bulk work, which leaves the bulk queue empty again once started
+    private void occupyEveryThread(CountDownLatch release) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        CountDownLatch started = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            underTest.submit(() -> {
+                started.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,70 @@
+package com.amigoscode.security;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.Gender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityConfigTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private UserDetailsPasswordService userDetailsPasswordService;
+    private final PasswordHashingPool pool = new PasswordHashingPool(10, 10, new SimpleMeterRegistry());
+    private final SecurityConfig underTest = new SecurityConfig();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void willRehashLegacyPasswordOnLogin() {
+        PasswordEncoderProperties properties = new PasswordEncoderProperties();
+        properties.setStrength(5);
+        PasswordEncoder passwordEncoder = underTest.passwordEncoder(pool, properties);
+        Customer customer = new Customer(1, "ljudina@gmail.com", new BCryptPasswordEncoder(4).encode("password"), "Marko", 40, Gender.MALE);
+        when(userDetailsService.loadUserByUsername("ljudina@gmail.com")).thenReturn(customer);
+        when(userDetailsPasswordService.updatePassword(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        AuthenticationProvider provider = underTest.authenticationProvider(userDetailsService, userDetailsPasswordService, passwordEncoder);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("ljudina@gmail.com", "password"));
+
+        ArgumentCaptor<String> rehashed = ArgumentCaptor.forClass(String.class);
+        verify(userDetailsPasswordService).updatePassword(any(UserDetails.class), rehashed.capture());
+        assertThat(rehashed.getValue()).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.matches("password", rehashed.getValue())).isTrue();
+    }
+
+    @Test
+    void willNotRehashCurrentPassword() {
+        PasswordEncoderProperties properties = new PasswordEncoderProperties();
+        properties.setStrength(4);
+        PasswordEncoder passwordEncoder = underTest.passwordEncoder(pool, properties);
+        Customer customer = new Customer(1, "ljudina@gmail.com", passwordEncoder.encode("password"), "Marko", 40, Gender.MALE);
+        when(userDetailsService.loadUserByUsername("ljudina@gmail.com")).thenReturn(customer);
+        AuthenticationProvider provider = underTest.authenticationProvider(userDetailsService, userDetailsPasswordService, passwordEncoder);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("ljudina@gmail.com", "password"));
+
+        verifyNoInteractions(userDetailsPasswordService);
+    }
+}
@@ -0,0 +1,39 @@
+package com.amigoscode.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void willAllowBurstUpToCapacity() {
+        TokenBucket underTest = new TokenBucket(3, 3 * SECOND, 0);
+
+        assertThat(underTest.tryConsume(0)).isZero();
+        assertThat(underTest.tryConsume(0)).isZero();
+        assertThat(underTest.tryConsume(0)).isZero();
+        assertThat(underTest.tryConsume(0)).isEqualTo(SECOND);
+
+        assertThat(underTest.getAllowed()).isEqualTo(3);
+        assertThat(underTest.getRejected()).isEqualTo(1);
+        assertThat(underTest.availableTokens(0)).isZero();
+    }
+
+    @Test
+    void willRefillLazily() {
+        TokenBucket underTest = new TokenBucket(3, 3 * SECOND, 0);
+        for (int i = 0; i < 3; i++) {
+            underTest.tryConsume(0);
+        }
+
+        assertThat(underTest.availableTokens(SECOND)).isEqualTo(1);
+        assertThat(underTest.tryConsume(SECOND)).isZero();
+        assertThat(underTest.tryConsume(SECOND)).isEqualTo(SECOND);
+        assertThat(underTest.availableTokens(10 * SECOND)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,41 @@
+package com.amigoscode.threads;
+
+import com.amigoscode.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncRequestExecutorTest {
+
+    private final AsyncRequestExecutor underTest = new AsyncRequestExecutor(ThreadMode.PLATFORM, 2);
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void willRejectResponsesBeyondPoolSize() {
+        underTest.acquire();
+        underTest.acquire();
+
+        assertThatThrownBy(underTest::acquire)
+                .isInstanceOf(TooManyRequestsException.class);
+
+        underTest.release();
+        underTest.acquire();
+    }
+
+    @Test
+    void willRunTasksOnOwnThreads() throws Exception {
+        String name = underTest.getTaskExecutor()
+                .submit(() -> Thread.currentThread().getName())
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(name).startsWith("async-request-");
+    }
+}
@@ -0,0 +1,171 @@
+package com.amigoscode.threads;
+
+import com.amigoscode.Main;
+import com.amigoscode.customer.CustomerRegistrationRequest;
+import com.amigoscode.customer.CustomerService;
+import com.amigoscode.customer.Gender;
+import com.amigoscode.s3.FakeS3;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the two {@link ThreadMode}s with far more concurrent requests than Tomcat has
+ * worker threads. Every request downloads a profile image from an S3 stand-in that answers
+ * after a fixed delay, like a round trip to S3 would. In the platform run the image is then
+ * copied on one of the {@link AsyncRequestExecutor}'s threads, which match Tomcat's workers in
+ * number, so both runs compare thread types rather than pool sizes.
+ * <p>
+ * Not part of the regular build. Needs the database from docker-compose and, for the virtual
+ * thread run, Java 21:
+ * {@code mvn -Pvirtual-threads test -Dtest=ThreadModeBenchmark -Dbenchmark.concurrency=1000}
+ */
+class ThreadModeBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final Duration S3_LATENCY = Duration.ofMillis(Long.getLong("benchmark.s3-latency-millis", 50));
+
+    @Test
+    void compareThreadModes() throws Exception {
+        Result platform = run(ThreadMode.PLATFORM);
+        print(platform);
+        assertThat(platform.failures()).isZero();
+
+        assumeTrue(VirtualThreads.isSupported(), "Virtual threads need Java 21, build with -Pvirtual-threads");
+        Result virtual = run(ThreadMode.VIRTUAL);
+        print(virtual);
+        assertThat(virtual.failures()).isZero();
+    }
+
+    private static Result run(ThreadMode mode) throws InterruptedException, IOException {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(Main.class, SlowS3Config.class)
+                .properties(
+                        "server.port=0",
+                        "threads.mode=" + mode,
+                        "spring.jpa.show-sql=false"
+                )
+                .initializers(initialized -> initialized.getBeanFactory().registerSingleton(
+                        "testConfigurationExcludeFilter", new TestConfigurationExcludeFilter()
+                ))
+                .run()) {
+            CustomerService customerService = context.getBean(CustomerService.class);
+            Integer customerId = customerService.addCustomer(new CustomerRegistrationRequest(
+                    "Benchmark", "benchmark-" + UUID.randomUUID() + "@amigoscode.com", "password", 30, Gender.MALE
+            ));
+            customerService.uploadCustomerProfileImage(
+                    customerId,
+                    new MockMultipartFile("file", "profile.jpg", "image/jpeg", new ClassPathResource("male.jpg").getContentAsByteArray())
+            ).join();
+            URI uri = URI.create("http://localhost:%s/api/v1/customers/%s/profile-image".formatted(
+                    context.getWebServer().getPort(), customerId
+            ));
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            // warm up connections, JIT and the customer cache
+            load(mode, client, uri, CONCURRENCY);
+            return load(mode, client, uri, REQUESTS);
+        }
+    }
+
+    private static Result load(ThreadMode mode, HttpClient client, URI uri, int requests) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (e != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(CONCURRENCY);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Arrays.sort(latencies);
+        return new Result(
+                mode,
+                requests,
+                failures.get(),
+                elapsed,
+                Duration.ofNanos(latencies[requests / 2]),
+                Duration.ofNanos(latencies[(int) Math.ceil(requests * 0.99) - 1])
+        );
+    }
+
+    private static void print(Result result) {
+        System.out.printf(
+                "%-8s concurrency=%d requests=%d failures=%d throughput=%.0f req/s p50=%d ms p99=%d ms%n",
+                result.mode(),
+                CONCURRENCY,
+                result.requests(),
+                result.failures(),
+                result.requests() / (result.elapsed().toNanos() / 1e9),
+                result.p50().toMillis(),
+                result.p99().toMillis()
+        );
+    }
+
+    private record Result(ThreadMode mode, int requests, int failures, Duration elapsed, Duration p50, Duration p99) {
+    }
+
+    // outside of @SpringBootTest nothing keeps the component scan away from test configurations
+    private static class TestConfigurationExcludeFilter extends TypeExcludeFilter {
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().isAnnotated(TestConfiguration.class.getName());
+        }
+    }
+
+    // deliberately not a @Configuration, so the application's component scan does not pick it up
+    static class SlowS3Config {
+        @Bean
+        @Primary
+        S3Client slowS3Client() {
+            return new FakeS3() {
+                @Override
+                public <ReturnT> ReturnT getObject(GetObjectRequest getObjectRequest,
+                                                   ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+                    try {
+                        Thread.sleep(S3_LATENCY.toMillis());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.getObject(getObjectRequest, responseTransformer);
+                }
+            };
+        }
+    }
+}
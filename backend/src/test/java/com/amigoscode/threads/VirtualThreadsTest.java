@@ -0,0 +1,36 @@
+package com.amigoscode.threads;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void willRunTasksOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+        String name = executor.submit(() -> Thread.currentThread().toString()).get();
+        executor.shutdown();
+        assertThat(name).startsWith("VirtualThread");
+        Thread thread = VirtualThreads.newThreadFactory("task-").newThread(() -> { });
+        assertThat(thread.getName()).isEqualTo("task-0");
+    }
+
+    @Test
+    void willRejectVirtualThreadsBeforeJava21() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        assertThatThrownBy(VirtualThreads::newThreadPerTaskExecutor)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+        assertThatThrownBy(() -> VirtualThreads.newThreadFactory("task-"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
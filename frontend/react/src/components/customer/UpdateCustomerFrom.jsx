@@ -95,7 +95,7 @@ const UpdateCustomerForm = ({fetchCustomers, initialValues, customerId, drawerCl
                     borderRadius={'full'}
                     boxSize={'150px'}
                     objectFit={'cover'}
-                    src={customerProfilePictureUrl(customerId)}
+                    src={customerProfilePictureUrl(customerId, null, 'medium')}
                 />
                 <MyDropzone customerId={customerId} fetchCustomers={fetchCustomers}/>
             </VStack>
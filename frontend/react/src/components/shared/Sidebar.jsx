@@ -178,7 +178,7 @@ const MobileNav = ({onOpen, ...rest}) => {
                             <HStack>
                                 <Avatar
                                     size={'sm'}
-                                    src={customerProfilePictureUrl(customer?.id)}
+                                    src={customerProfilePictureUrl(customer?.id, null, 'small')}
                                 />
                                 <VStack
                                     display={{base: 'none', md: 'flex'}}
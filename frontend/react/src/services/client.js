@@ -72,5 +72,10 @@ export const uploadCustomerProfilePicture = async (id, formData) => {
     }
 }
 
-export const customerProfilePictureUrl = (id) =>
-    `${import.meta.env.VITE_API_BASE_URL}/api/v1/customers/${id}/profile-image`
+// size is one of small, medium or large (the default)
+export const customerProfilePictureUrl = (id, profileImageId, size) => {
+    const url = profileImageId
+        ? `${import.meta.env.VITE_API_BASE_URL}/api/v1/customers/${id}/profile-image/${profileImageId}`
+        : `${import.meta.env.VITE_API_BASE_URL}/api/v1/customers/${id}/profile-image`
+    return size ? `${url}?size=${size}` : url
+}